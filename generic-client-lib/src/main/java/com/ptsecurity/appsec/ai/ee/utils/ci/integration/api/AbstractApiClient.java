@@ -2,23 +2,30 @@ package com.ptsecurity.appsec.ai.ee.utils.ci.integration.api;
 
 import com.ptsecurity.appsec.ai.ee.scan.result.ScanBrief;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.BaseCredentials;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.ConnectionSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.PasswordCredentials;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.TokenCredentials;
 import com.ptsecurity.misc.tools.Jwt;
 import com.ptsecurity.misc.tools.exceptions.GenericException;
+import com.ptsecurity.misc.tools.helpers.HashHelper;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.functions.EventConsumer;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.functions.TextOutput;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.ServerVersionTasks;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ApiClientHelper;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ScanResultCache;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import static com.ptsecurity.misc.tools.helpers.CallHelper.call;
 
@@ -40,17 +47,42 @@ public abstract class AbstractApiClient {
     @Setter
     protected EventConsumer eventConsumer = null;
 
+    /**
+     * Maximum age in milliseconds of scan agents list that is shared by scans started simultaneously
+     */
+    protected static final long SCAN_AGENTS_MAX_AGE = 10_000;
+
     /**
      * PT AI version-independent API list. This list items are added
      * during instantiation of version-dependent descendant classes
      */
     protected final List<Object> apis = new ArrayList<>();
 
+    /**
+     * Scan results that are already loaded using this client. As client instance
+     * is created for each job, cached scan results are shared between job's
+     * exports and released when job is finished. Cache is created on first use as it
+     * depends on advanced settings
+     */
+    protected ScanResultCache scanResultCache = null;
+
     /**
      * Currently owned JWT. This jwt token shared by all the APIs and managed by their JwtAuthenticators
      */
     protected Jwt apiJwt = null;
 
+    /**
+     * OkHttpClient that is shared by all the APIs. It is created during
+     * client initialization, so connection pool and dispatcher are common for all REST API calls
+     */
+    protected OkHttpClient httpClient = null;
+
+    public synchronized ScanResultCache getScanResultCache() {
+        if (null == scanResultCache)
+            scanResultCache = new ScanResultCache(advancedSettings.getInt(AdvancedSettings.SettingInfo.SCAN_RESULT_ISSUES_MEMORY_THRESHOLD));
+        return scanResultCache;
+    }
+
     protected void setApiJwt(@NonNull final Jwt apiJwt) {
         boolean insecure = advancedSettings.getBoolean(AdvancedSettings.SettingInfo.LOGGING_HTTP_CREDENTIALS);
         for (Object api : apis) {
@@ -62,6 +94,43 @@ public abstract class AbstractApiClient {
         this.apiJwt = apiJwt;
     }
 
+    /**
+     * Get SignalR notifications hub for this client. Clients of the same API version that
+     * connect to the same PT AI server with the same credentials share process-wide hub
+     * if notifications.connection.shared advanced setting is on
+     */
+    protected NotificationHub notificationHub() {
+        BaseCredentials credentials = connectionSettings.getCredentials();
+        String identity = null;
+        if (credentials instanceof TokenCredentials)
+            identity = "token|" + ((TokenCredentials) credentials).getToken();
+        else if (credentials instanceof PasswordCredentials)
+            identity = "password|" + ((PasswordCredentials) credentials).getUser() + "|" + ((PasswordCredentials) credentials).getPassword();
+        if (null == identity || !advancedSettings.getBoolean(AdvancedSettings.SettingInfo.NOTIFICATIONS_CONNECTION_SHARED))
+            return new NotificationHub(UUID.randomUUID().toString());
+        return NotificationHub.get(HashHelper.md5(String.join("|",
+                getClass().getName(), connectionSettings.getUrl(), identity,
+                String.valueOf(connectionSettings.isInsecure()), String.valueOf(connectionSettings.getCaCertsPem()))));
+    }
+
+    /**
+     * Create client of the same version that shares JWT and HTTP connection pool with this one
+     * but has its own console, event consumer and scan results cache. Derived clients are used by
+     * jobs that are executed concurrently, so they do not authenticate on PT AI server separately
+     */
+    public AbstractApiClient derive() throws GenericException {
+        if (null == httpClient) throw GenericException.raise("API client derive failed", new IllegalStateException("API client isn't initialized"));
+        AbstractApiClient res = ClientRegistry.get(this).getClient().apply(connectionSettings, advancedSettings);
+        res.httpClient = call(() -> ApiClientHelper.initApiClient(res, httpClient), "API client initialization failed");
+        if (null != apiJwt)
+            res.setApiJwt(Jwt.builder()
+                    .accessToken(apiJwt.getAccessToken())
+                    .refreshToken(apiJwt.getRefreshToken())
+                    .expiredAt(apiJwt.getExpiredAt())
+                    .build());
+        return res;
+    }
+
     public abstract Jwt authenticate() throws GenericException;
 
     public abstract Map<ServerVersionTasks.Component, String> getCurrentApiVersion() throws GenericException;
@@ -72,7 +141,7 @@ public abstract class AbstractApiClient {
     public void init() throws GenericException {
         call(() -> {
             connectionSettings.setUrl(StringUtils.removeEnd(connectionSettings.getUrl().trim(), "/"));
-            ApiClientHelper.initApiClient(this);
+            httpClient = ApiClientHelper.initApiClient(this);
         }, "API client initialization failed");
     }
 }
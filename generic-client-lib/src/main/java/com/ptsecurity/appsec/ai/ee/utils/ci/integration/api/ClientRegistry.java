@@ -0,0 +1,176 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.api;
+
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.ConnectionSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.*;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * PT AI server API client implementations and their tasks constructors. As this table
+ * is checked by compiler, there's no need in runtime classpath scan and reflective
+ * tasks instantiation. Newer API versions go first as those are more likely to match
+ * PT AI server during version detection. Each client class must be annotated with {@link VersionRange}
+ */
+public final class ClientRegistry {
+    @Getter
+    @Builder
+    public static class Entry {
+        @NonNull
+        private final Class<? extends AbstractApiClient> clientClass;
+        @NonNull
+        private final BiFunction<ConnectionSettings, AdvancedSettings, AbstractApiClient> client;
+        @NonNull
+        private final Function<AbstractApiClient, CheckServerTasks> checkServerTasks;
+        @NonNull
+        private final Function<AbstractApiClient, ServerVersionTasks> serverVersionTasks;
+        @NonNull
+        private final Function<AbstractApiClient, ReportsTasks> reportsTasks;
+        @NonNull
+        private final Function<AbstractApiClient, ProjectTasks> projectTasks;
+        @NonNull
+        private final Function<AbstractApiClient, GenericAstTasks> genericAstTasks;
+
+        public VersionRange getVersionRange() {
+            return clientClass.getAnnotation(VersionRange.class);
+        }
+    }
+
+    private static final List<Entry> ENTRIES = Collections.unmodifiableList(Arrays.asList(
+            Entry.builder()
+                    .clientClass(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v481.ApiClient.class)
+                    .client(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v481.ApiClient::new)
+                    .checkServerTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v481.tasks.CheckServerTasksImpl::new)
+                    .serverVersionTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v481.tasks.ServerVersionTasksImpl::new)
+                    .reportsTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v481.tasks.ReportsTasksImpl::new)
+                    .projectTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v481.tasks.ProjectTasksImpl::new)
+                    .genericAstTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v481.tasks.GenericAstTasksImpl::new)
+                    .build(),
+            Entry.builder()
+                    .clientClass(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v480.ApiClient.class)
+                    .client(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v480.ApiClient::new)
+                    .checkServerTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v480.tasks.CheckServerTasksImpl::new)
+                    .serverVersionTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v480.tasks.ServerVersionTasksImpl::new)
+                    .reportsTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v480.tasks.ReportsTasksImpl::new)
+                    .projectTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v480.tasks.ProjectTasksImpl::new)
+                    .genericAstTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v480.tasks.GenericAstTasksImpl::new)
+                    .build(),
+            Entry.builder()
+                    .clientClass(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v472.ApiClient.class)
+                    .client(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v472.ApiClient::new)
+                    .checkServerTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v472.tasks.CheckServerTasksImpl::new)
+                    .serverVersionTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v472.tasks.ServerVersionTasksImpl::new)
+                    .reportsTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v472.tasks.ReportsTasksImpl::new)
+                    .projectTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v472.tasks.ProjectTasksImpl::new)
+                    .genericAstTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v472.tasks.GenericAstTasksImpl::new)
+                    .build(),
+            Entry.builder()
+                    .clientClass(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v471.ApiClient.class)
+                    .client(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v471.ApiClient::new)
+                    .checkServerTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v471.tasks.CheckServerTasksImpl::new)
+                    .serverVersionTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v471.tasks.ServerVersionTasksImpl::new)
+                    .reportsTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v471.tasks.ReportsTasksImpl::new)
+                    .projectTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v471.tasks.ProjectTasksImpl::new)
+                    .genericAstTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v471.tasks.GenericAstTasksImpl::new)
+                    .build(),
+            Entry.builder()
+                    .clientClass(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v470.ApiClient.class)
+                    .client(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v470.ApiClient::new)
+                    .checkServerTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v470.tasks.CheckServerTasksImpl::new)
+                    .serverVersionTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v470.tasks.ServerVersionTasksImpl::new)
+                    .reportsTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v470.tasks.ReportsTasksImpl::new)
+                    .projectTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v470.tasks.ProjectTasksImpl::new)
+                    .genericAstTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v470.tasks.GenericAstTasksImpl::new)
+                    .build(),
+            Entry.builder()
+                    .clientClass(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v460.ApiClient.class)
+                    .client(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v460.ApiClient::new)
+                    .checkServerTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v460.tasks.CheckServerTasksImpl::new)
+                    .serverVersionTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v460.tasks.ServerVersionTasksImpl::new)
+                    .reportsTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v460.tasks.ReportsTasksImpl::new)
+                    .projectTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v460.tasks.ProjectTasksImpl::new)
+                    .genericAstTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v460.tasks.GenericAstTasksImpl::new)
+                    .build(),
+            Entry.builder()
+                    .clientClass(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v450.ApiClient.class)
+                    .client(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v450.ApiClient::new)
+                    .checkServerTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v450.tasks.CheckServerTasksImpl::new)
+                    .serverVersionTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v450.tasks.ServerVersionTasksImpl::new)
+                    .reportsTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v450.tasks.ReportsTasksImpl::new)
+                    .projectTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v450.tasks.ProjectTasksImpl::new)
+                    .genericAstTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v450.tasks.GenericAstTasksImpl::new)
+                    .build(),
+            Entry.builder()
+                    .clientClass(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.ApiClient.class)
+                    .client(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.ApiClient::new)
+                    .checkServerTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.tasks.CheckServerTasksImpl::new)
+                    .serverVersionTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.tasks.ServerVersionTasksImpl::new)
+                    .reportsTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.tasks.ReportsTasksImpl::new)
+                    .projectTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.tasks.ProjectTasksImpl::new)
+                    .genericAstTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.tasks.GenericAstTasksImpl::new)
+                    .build(),
+            Entry.builder()
+                    .clientClass(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v430.ApiClient.class)
+                    .client(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v430.ApiClient::new)
+                    .checkServerTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v430.tasks.CheckServerTasksImpl::new)
+                    .serverVersionTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v430.tasks.ServerVersionTasksImpl::new)
+                    .reportsTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v430.tasks.ReportsTasksImpl::new)
+                    .projectTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v430.tasks.ProjectTasksImpl::new)
+                    .genericAstTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v430.tasks.GenericAstTasksImpl::new)
+                    .build(),
+            Entry.builder()
+                    .clientClass(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v420.ApiClient.class)
+                    .client(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v420.ApiClient::new)
+                    .checkServerTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v420.tasks.CheckServerTasksImpl::new)
+                    .serverVersionTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v420.tasks.ServerVersionTasksImpl::new)
+                    .reportsTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v420.tasks.ReportsTasksImpl::new)
+                    .projectTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v420.tasks.ProjectTasksImpl::new)
+                    .genericAstTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v420.tasks.GenericAstTasksImpl::new)
+                    .build(),
+            Entry.builder()
+                    .clientClass(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v411.ApiClient.class)
+                    .client(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v411.ApiClient::new)
+                    .checkServerTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v411.tasks.CheckServerTasksImpl::new)
+                    .serverVersionTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v411.tasks.ServerVersionTasksImpl::new)
+                    .reportsTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v411.tasks.ReportsTasksImpl::new)
+                    .projectTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v411.tasks.ProjectTasksImpl::new)
+                    .genericAstTasks(com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v411.tasks.GenericAstTasksImpl::new)
+                    .build()));
+
+    private static final Map<String, Entry> ENTRIES_BY_CLASS_NAME = new HashMap<>();
+
+    static {
+        for (Entry entry : ENTRIES)
+            ENTRIES_BY_CLASS_NAME.put(entry.getClientClass().getName(), entry);
+    }
+
+    private ClientRegistry() {}
+
+    @NonNull
+    public static List<Entry> entries() {
+        return ENTRIES;
+    }
+
+    /**
+     * @param clientClassName API client implementation class name
+     * @return Registry entry or null if there's no such API client implementation
+     */
+    public static Entry get(@NonNull final String clientClassName) {
+        return ENTRIES_BY_CLASS_NAME.get(clientClassName);
+    }
+
+    @NonNull
+    public static Entry get(@NonNull final AbstractApiClient client) throws GenericException {
+        for (Class<?> clazz = client.getClass(); null != clazz; clazz = clazz.getSuperclass()) {
+            Entry entry = ENTRIES_BY_CLASS_NAME.get(clazz.getName());
+            if (null != entry) return entry;
+        }
+        throw GenericException.raise("Unsupported API client implementation", new IllegalArgumentException(client.getClass().getName()));
+    }
+}
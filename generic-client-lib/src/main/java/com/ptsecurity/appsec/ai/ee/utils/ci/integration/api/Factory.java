@@ -3,70 +3,54 @@ package com.ptsecurity.appsec.ai.ee.utils.ci.integration.api;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.Resources;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.ConnectionSettings;
+import com.ptsecurity.misc.tools.Jwt;
 import com.ptsecurity.misc.tools.exceptions.GenericException;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.exceptions.VersionUnsupportedException;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.AbstractJob;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.*;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ServerVersionCache;
 import com.ptsecurity.misc.tools.helpers.VersionHelper;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpStatus;
-import org.reflections.Reflections;
 
 import javax.net.ssl.SSLHandshakeException;
-import java.lang.reflect.Modifier;
 import java.net.*;
 import java.security.cert.CertificateException;
-import java.time.Duration;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 import static com.ptsecurity.misc.tools.helpers.CallHelper.call;
-import static org.joor.Reflect.onClass;
 
 @Slf4j
 @RequiredArgsConstructor
 public class Factory {
     public CheckServerTasks checkServerTasks(@NonNull final AbstractApiClient client) throws GenericException {
-        String className = client.getClass().getPackage().getName() + "." + "tasks.CheckServerTasksImpl";
-        return onClass(className).create(client).get();
+        return ClientRegistry.get(client).getCheckServerTasks().apply(client);
     }
 
     public ServerVersionTasks serverVersionTasks(@NonNull final AbstractApiClient client) throws GenericException {
-        String className = client.getClass().getPackage().getName() + "." + "tasks.ServerVersionTasksImpl";
-        return onClass(className).create(client).get();
+        return ClientRegistry.get(client).getServerVersionTasks().apply(client);
     }
 
     public ReportsTasks reportsTasks(@NonNull final AbstractApiClient client) throws GenericException {
-        String className = client.getClass().getPackage().getName() + "." + "tasks.ReportsTasksImpl";
-        return onClass(className).create(client).get();
+        return ClientRegistry.get(client).getReportsTasks().apply(client);
     }
 
     public ProjectTasks projectTasks(@NonNull final AbstractApiClient client) throws GenericException {
-        String className = client.getClass().getPackage().getName() + "." + "tasks.ProjectTasksImpl";
-        return onClass(className).create(client).get();
+        return ClientRegistry.get(client).getProjectTasks().apply(client);
     }
 
     public GenericAstTasks genericAstTasks(@NonNull final AbstractApiClient client) throws GenericException {
-        String className = client.getClass().getPackage().getName() + "." + "tasks.GenericAstTasksImpl";
-        return onClass(className).create(client).get();
+        return ClientRegistry.get(client).getGenericAstTasks().apply(client);
     }
 
     public static List<Class<?>> getAllClientImplementations() {
-        // Search for available VersionRange-annotated non-abstract descendants of AbstractApiClient
-        log.debug("Scan PT AI server API client implementations");
-        Instant start = Instant.now();
-        Reflections reflections = new Reflections("com.ptsecurity.appsec.ai.ee.utils.ci.integration.api");
-        Set<Class<?>> classes = reflections.getTypesAnnotatedWith(VersionRange.class);
-        Duration classScanDuration = Duration.between(start, Instant.now());
-        log.debug("Scan took {} ns, {} client implementations found", classScanDuration.toNanos(), classes.size());
-        return new ArrayList<>(classes);
+        return ClientRegistry.entries().stream().map(ClientRegistry.Entry::getClientClass).collect(Collectors.toList());
     }
 
     /**
@@ -102,101 +86,173 @@ public class Factory {
         VERSION
     }
 
+    /**
+     * API client implementations that were detected as compatible with PT AI servers
+     */
+    private static final ServerVersionCache VERSION_CACHE = new ServerVersionCache(ServerVersionCache.DEFAULT_FILE);
+
     @NonNull
     public static AbstractApiClient client(@NonNull final ConnectionSettings connectionSettings, @NonNull AdvancedSettings advancedSettings) throws GenericException {
-        List<Class<?>> clients = getAllClientImplementations();
-        for (Class<?> clazz : clients) {
-            log.debug("Checking {} class", clazz.getCanonicalName());
-            if (!AbstractApiClient.class.isAssignableFrom(clazz)) continue;
-            if (Modifier.isAbstract(clazz.getModifiers())) continue;
-
-            ClientCreateStage stage = ClientCreateStage.INIT;
-            try {
-                AbstractApiClient client = onClass(clazz).create(connectionSettings.validate(), advancedSettings).get();
-                // Initialize all API clients with URL, timeouts, SSL settings etc.
-                client.init();
-                log.debug("Class {} instance created", clazz.getCanonicalName());
-
-                stage = ClientCreateStage.AUTH;
-                call(client::authenticate, "Authentication failed");
-                log.debug("Client authenticated");
-
-                stage = ClientCreateStage.VERSION;
-                String versionString = call(client::getCurrentApiVersion, "PT AI API version read failed")
-                        .get(ServerVersionTasks.Component.AIE);
-                if (StringUtils.isEmpty(versionString)) {
-                    log.debug("Empty PT AI API version");
-                    continue;
-                }
-                log.debug("PT AI API version string: {}", versionString);
-                List<Integer> version = call(
-                        () -> Arrays.stream(versionString.split("\\.")).map(Integer::valueOf).collect(Collectors.toList()),
-                        "Version string parse failed");
-                log.debug("PT AI API version parse complete");
-                // Client authenticated, but it doesn't mean anything: need to check if version from server lays in VersionRange
-                VersionRange versionRange = clazz.getAnnotation(VersionRange.class);
-                // Check if PT AI server API version greater than minimum
-                List<Integer> minimumVersion = new ArrayList<>();
-                for (int i : versionRange.min()) minimumVersion.add(i);
-                if (0 != versionRange.min().length && 1 == VersionHelper.compare(minimumVersion, version)) {
-                    log.debug("PT AI server API minimum version constraint violated");
-                    continue;
-                }
-                // Check if PT AI server API version less than maximum
-                List<Integer> maximumVersion = new ArrayList<>();
-                for (int i : versionRange.max()) maximumVersion.add(i);
-                if (0 != versionRange.max().length && 1 == VersionHelper.compare(version, maximumVersion)) {
-                    log.debug("PT AI server API maximum version constraint violated");
-                    continue;
-                }
-                return client;
-            } catch (GenericException e) {
-                log.trace("PT AI server connection exception", e);
-                // As getCause for GenericException may return non-null ApiException the root
-                // reason may reside deeper. Let's get them
-                Throwable e1 = e.getCause();
-                Throwable e2 = null == e1 ? null : e1.getCause();
-
-                if (e2 instanceof CertificateException) {
-                    log.trace("No need to continue iterate through API client versions as there's certificate problem");
-                    throw GenericException.raise(
-                            Resources.i18n_ast_settings_server_ca_pem_message_parse_failed_details(), e.getCause());
-                } else if (e2 instanceof UnknownHostException) {
-                    log.trace("No need to continue iterate through API client versions as there's no known {} host", connectionSettings.getUrl());
-                    throw GenericException.raise(
-                            Resources.i18n_ast_settings_server_check_message_connectionfailed(), e2);
-                } else if (e2 instanceof ConnectException || e2 instanceof NoRouteToHostException) {
-                    log.trace("No need to continue iterate through API client versions as connection to {} host failed", connectionSettings.getUrl());
-                    throw GenericException.raise(
-                            Resources.i18n_ast_settings_server_check_message_connectionfailed(), e2);
-                } else if (e2 instanceof SocketTimeoutException) {
-                    log.trace("No need to continue iterate through API client versions as connection to {} host timeout", connectionSettings.getUrl());
-                    throw GenericException.raise(
-                            Resources.i18n_ast_settings_server_check_message_connectiontimeout(), e2);
-                } else if (e2 instanceof SSLHandshakeException) {
-                    log.trace("No need to continue iterate through API client versions as there's SSL handshake problem");
-                    throw GenericException.raise(
-                            Resources.i18n_ast_settings_server_check_message_sslhandshakefailed(), e2);
-                } else if (HttpStatus.SC_NOT_FOUND == e.getCode()) {
-                    log.trace("Continue iterate through API client versions as 404 response");
-                } else if (HttpStatus.SC_UNAUTHORIZED == e.getCode()) {
-                    log.trace("No need to continue iterate through API client versions as authentication failed");
-                    throw GenericException.raise(
-                            Resources.i18n_ast_settings_server_check_message_unauthorized(), e.getCause());
-                } else {
-                    log.debug("PT AI server API check failed: {}", e.getDetailedMessage());
-                    log.trace("Exception details:", e);
-                }
+        int ttl = advancedSettings.getInt(AdvancedSettings.SettingInfo.SERVER_VERSION_CACHE_TTL);
+        boolean persistent = advancedSettings.getBoolean(AdvancedSettings.SettingInfo.SERVER_VERSION_CACHE_PERSISTENT);
+        String url = connectionSettings.getUrl();
+
+        ClientRegistry.Entry cachedEntry = null;
+        String cachedClassName = 0 < ttl ? VERSION_CACHE.get(url, ttl, persistent) : null;
+        if (null != cachedClassName) {
+            log.debug("Use cached {} API client for {}", cachedClassName, url);
+            cachedEntry = ClientRegistry.get(cachedClassName);
+            if (null != cachedEntry) {
+                AbstractApiClient client = createClient(cachedEntry, connectionSettings, advancedSettings);
+                if (null != client) return client;
             }
+            log.debug("Cached API client doesn't match PT AI server version, detect it again");
+            VERSION_CACHE.remove(url, persistent);
+        }
+
+        for (ClientRegistry.Entry entry : ClientRegistry.entries()) {
+            if (entry == cachedEntry) continue;
+            AbstractApiClient client = createClient(entry, connectionSettings, advancedSettings);
+            if (null == client) continue;
+            if (0 < ttl) VERSION_CACHE.put(url, entry.getClientClass().getName(), persistent);
+            return client;
         }
         throw GenericException.raise(Resources.i18n_ast_settings_server_check_message_endpointnotfound(), new VersionUnsupportedException());
     }
 
+    /**
+     * Create API client instance and check if it is compatible with PT AI server
+     * @param entry API client implementation
+     * @return Authenticated API client or null if client class doesn't match PT AI server version
+     * @throws GenericException There's no need to check other API client classes as server is
+     * unreachable, credentials are invalid etc.
+     */
+    private static AbstractApiClient createClient(
+            @NonNull final ClientRegistry.Entry entry,
+            @NonNull final ConnectionSettings connectionSettings,
+            @NonNull final AdvancedSettings advancedSettings) throws GenericException {
+        Class<?> clazz = entry.getClientClass();
+        log.debug("Checking {} class", clazz.getCanonicalName());
+
+        ClientCreateStage stage = ClientCreateStage.INIT;
+        try {
+            AbstractApiClient client = entry.getClient().apply(connectionSettings.validate(), advancedSettings);
+            // Initialize all API clients with URL, timeouts, SSL settings etc.
+            client.init();
+            log.debug("Class {} instance created", clazz.getCanonicalName());
+
+            stage = ClientCreateStage.AUTH;
+            call(client::authenticate, "Authentication failed");
+            log.debug("Client authenticated");
+
+            stage = ClientCreateStage.VERSION;
+            String versionString = call(client::getCurrentApiVersion, "PT AI API version read failed")
+                    .get(ServerVersionTasks.Component.AIE);
+            if (StringUtils.isEmpty(versionString)) {
+                log.debug("Empty PT AI API version");
+                return null;
+            }
+            log.debug("PT AI API version string: {}", versionString);
+            List<Integer> version = call(
+                    () -> Arrays.stream(versionString.split("\\.")).map(Integer::valueOf).collect(Collectors.toList()),
+                    "Version string parse failed");
+            log.debug("PT AI API version parse complete");
+            // Client authenticated, but it doesn't mean anything: need to check if version from server lays in VersionRange
+            VersionRange versionRange = entry.getVersionRange();
+            // Check if PT AI server API version greater than minimum
+            List<Integer> minimumVersion = new ArrayList<>();
+            for (int i : versionRange.min()) minimumVersion.add(i);
+            if (0 != versionRange.min().length && 1 == VersionHelper.compare(minimumVersion, version)) {
+                log.debug("PT AI server API minimum version constraint violated");
+                return null;
+            }
+            // Check if PT AI server API version less than maximum
+            List<Integer> maximumVersion = new ArrayList<>();
+            for (int i : versionRange.max()) maximumVersion.add(i);
+            if (0 != versionRange.max().length && 1 == VersionHelper.compare(version, maximumVersion)) {
+                log.debug("PT AI server API maximum version constraint violated");
+                return null;
+            }
+            return client;
+        } catch (GenericException e) {
+            log.trace("PT AI server connection exception", e);
+            // As getCause for GenericException may return non-null ApiException the root
+            // reason may reside deeper. Let's get them
+            Throwable e1 = e.getCause();
+            Throwable e2 = null == e1 ? null : e1.getCause();
+
+            if (e2 instanceof CertificateException) {
+                log.trace("No need to continue iterate through API client versions as there's certificate problem");
+                throw GenericException.raise(
+                        Resources.i18n_ast_settings_server_ca_pem_message_parse_failed_details(), e.getCause());
+            } else if (e2 instanceof UnknownHostException) {
+                log.trace("No need to continue iterate through API client versions as there's no known {} host", connectionSettings.getUrl());
+                throw GenericException.raise(
+                        Resources.i18n_ast_settings_server_check_message_connectionfailed(), e2);
+            } else if (e2 instanceof ConnectException || e2 instanceof NoRouteToHostException) {
+                log.trace("No need to continue iterate through API client versions as connection to {} host failed", connectionSettings.getUrl());
+                throw GenericException.raise(
+                        Resources.i18n_ast_settings_server_check_message_connectionfailed(), e2);
+            } else if (e2 instanceof SocketTimeoutException) {
+                log.trace("No need to continue iterate through API client versions as connection to {} host timeout", connectionSettings.getUrl());
+                throw GenericException.raise(
+                        Resources.i18n_ast_settings_server_check_message_connectiontimeout(), e2);
+            } else if (e2 instanceof SSLHandshakeException) {
+                log.trace("No need to continue iterate through API client versions as there's SSL handshake problem");
+                throw GenericException.raise(
+                        Resources.i18n_ast_settings_server_check_message_sslhandshakefailed(), e2);
+            } else if (HttpStatus.SC_NOT_FOUND == e.getCode()) {
+                log.trace("Continue iterate through API client versions as 404 response");
+            } else if (HttpStatus.SC_UNAUTHORIZED == e.getCode()) {
+                log.trace("No need to continue iterate through API client versions as authentication failed");
+                throw GenericException.raise(
+                        Resources.i18n_ast_settings_server_check_message_unauthorized(), e.getCause());
+            } else {
+                log.debug("PT AI server API check failed: {}", e.getDetailedMessage());
+                log.trace("Exception details:", e);
+            }
+
+        }
+        return null;
+    }
+
     @NonNull
     public static AbstractApiClient client(@NonNull final ConnectionSettings connectionSettings) throws GenericException {
         return client(connectionSettings, AdvancedSettings.getDefault());
     }
 
+    /**
+     * Create client of already detected API version that uses JWT acquired by other client,
+     * for example, on Jenkins controller. Neither PT AI server version detection nor authentication
+     * is done. As connection settings credentials may be absent, client is able to refresh JWT only
+     * @param clientClassName API client implementation class name
+     * @param jwt JWT that client is to use
+     */
+    @NonNull
+    public static AbstractApiClient client(
+            @NonNull final String clientClassName,
+            @NonNull final ConnectionSettings connectionSettings,
+            @NonNull final AdvancedSettings advancedSettings,
+            @NonNull final Jwt jwt) throws GenericException {
+        ClientRegistry.Entry entry = ClientRegistry.get(clientClassName);
+        if (null == entry)
+            throw GenericException.raise("Unsupported API client implementation", new IllegalArgumentException(clientClassName));
+        AbstractApiClient client = entry.getClient().apply(connectionSettings, advancedSettings);
+        client.init();
+        client.setApiJwt(jwt);
+        return client;
+    }
+
+    /**
+     * Create job client that is derived from shared one, so concurrent jobs reuse its authentication and connection pool
+     */
+    @NonNull
+    public static AbstractApiClient client(@NonNull final AbstractJob job, @NonNull final AbstractApiClient shared) throws GenericException {
+        AbstractApiClient result = shared.derive();
+        result.setConsole(job);
+        return result;
+    }
+
     @NonNull
     public static AbstractApiClient client(@NonNull final AbstractJob job) throws GenericException {
         AbstractApiClient result = client(job.getConnectionSettings(), job.getAdvancedSettings());
@@ -0,0 +1,323 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.api;
+
+import com.microsoft.signalr.HubConnection;
+import com.microsoft.signalr.HubConnectionState;
+import io.reactivex.rxjava3.core.Completable;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * SignalR notifications multiplexer. Hub owns single connection to PT AI server and routes scan
+ * notifications to listeners by scan result id, so concurrent AST jobs in the same JVM that use
+ * the same server and credentials do not open their own connections and do not receive each
+ * other's notifications several times. Connection is started when first listener is registered,
+ * stopped when last one is unregistered and restarted with exponential backoff if it is lost.
+ * As listeners belong to different clients, connection uses JWT of any client whose listener is
+ * still registered, and hub is removed from shared hubs when its last listener is unregistered
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class NotificationHub {
+    /**
+     * Maximum delay in seconds between reconnection attempts
+     */
+    protected static final long MAX_RECONNECT_DELAY = 60;
+
+    protected static final Map<String, NotificationHub> HUBS = new HashMap<>();
+
+    protected static final ScheduledExecutorService RECONNECT = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ptai-notifications-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Version-dependent SignalR connection operations
+     */
+    public interface Connector {
+        /**
+         * Create connection that isn't started yet. Connection handlers must route
+         * scan notifications to listeners using {@link NotificationHub#dispatch}
+         */
+        HubConnection create(@NonNull final NotificationHub hub) throws GenericException;
+
+        /**
+         * Subscribe started connection to scan notifications. Subscriptions use identifier
+         * filters, so PT AI server doesn't send notifications for other scans
+         * @param projectIds Projects of scans that hub listens to
+         * @param scanResultIds Scan results that hub listens to
+         */
+        void subscribe(@NonNull final HubConnection connection, @NonNull final Set<UUID> projectIds, @NonNull final Set<UUID> scanResultIds);
+
+        /**
+         * @return Current JWT of the client that registered listener or null if client isn't authenticated
+         */
+        String accessToken();
+
+        /**
+         * Re-authenticate client that registered listener
+         */
+        void refreshToken() throws GenericException;
+    }
+
+    /**
+     * Scan listener registration. Closing subscription unregisters listener
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    @RequiredArgsConstructor
+    protected static class Registration {
+        protected final UUID projectId;
+        protected final Object listener;
+        protected final Connector connector;
+    }
+
+    @Getter
+    @NonNull
+    protected final String key;
+
+    protected final Map<UUID, Registration> registrations = new HashMap<>();
+
+    protected HubConnection connection = null;
+
+    /**
+     * Connection start that is shared by listeners registered while connection is being started
+     */
+    protected Completable start = null;
+
+    protected ScheduledFuture<?> reconnect = null;
+
+    protected int attempt = 0;
+
+    /**
+     * Values that are shared by hub listeners, like scan agents list. Cache uses its
+     * own monitor as value loading must not block notifications dispatch
+     */
+    protected final Map<String, Map.Entry<Long, Object>> cache = new HashMap<>();
+
+    /**
+     * @return Hub that is shared by all the clients that use the same key
+     */
+    public static NotificationHub get(@NonNull final String key) {
+        synchronized (HUBS) {
+            return HUBS.computeIfAbsent(key, NotificationHub::new);
+        }
+    }
+
+    /**
+     * Register scan notifications listener. If there's no hub connection yet, it is created
+     * using connector and started. Connection start is awaited outside of hub monitor, so
+     * slow connect doesn't block other scans notifications dispatch
+     * @param listener Version-dependent listener that {@link #dispatch} passes to notification handler
+     */
+    public Subscription register(
+            @NonNull final UUID projectId, @NonNull final UUID scanResultId,
+            @NonNull final Object listener, @NonNull final Connector connector) throws GenericException {
+        synchronized (HUBS) {
+            synchronized (this) {
+                registrations.put(scanResultId, new Registration(projectId, listener, connector));
+                // Hub might be pruned after client got it, so share it again
+                HUBS.putIfAbsent(key, this);
+            }
+        }
+        Completable started = null;
+        try {
+            synchronized (this) {
+                if (null == connection) {
+                    log.debug("Start notification hub {} connection", key);
+                    HubConnection created = connector.create(this);
+                    created.onClosed(e -> closed(created, e));
+                    connection = created;
+                    start = created.start().cache();
+                    attempt = 0;
+                }
+                started = start;
+            }
+            started.blockingAwait();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                registrations.remove(scanResultId);
+                // Failed connection is dropped, so next registration creates new one
+                if (null != started && started == start) {
+                    connection = null;
+                    start = null;
+                }
+            }
+            prune();
+            throw GenericException.raise("Notification hub connection failed", e);
+        }
+        synchronized (this) {
+            if (null != connection && HubConnectionState.CONNECTED == connection.getConnectionState()) subscribe();
+        }
+        log.trace("Scan result {} listener registered in notification hub {}", scanResultId, key);
+        return () -> unregister(scanResultId);
+    }
+
+    /**
+     * Pass notification to listener of scan result. Notifications for scans that
+     * have no listeners or whose listener type doesn't match are skipped
+     */
+    public <T> void dispatch(final UUID scanResultId, @NonNull final Class<T> type, @NonNull final Consumer<T> handler) {
+        Registration registration;
+        synchronized (this) {
+            registration = null == scanResultId ? null : registrations.get(scanResultId);
+        }
+        if (null == registration || !type.isInstance(registration.listener)) {
+            log.trace("Skip notification for scan result {} as it have no listener", scanResultId);
+            return;
+        }
+        handler.accept(type.cast(registration.listener));
+    }
+
+    /**
+     * Send subscriptions for all the registered listeners
+     */
+    public synchronized void subscribe() {
+        Connector connector = connector();
+        if (null == connection || null == connector) return;
+        Set<UUID> projectIds = new HashSet<>();
+        for (Registration registration : registrations.values()) projectIds.add(registration.projectId);
+        connector.subscribe(connection, projectIds, new HashSet<>(registrations.keySet()));
+    }
+
+    /**
+     * @return JWT of any client whose listener is registered in hub
+     * @throws IllegalStateException There are no registered listeners of authenticated clients
+     */
+    public String accessToken() {
+        List<Connector> connectors = new ArrayList<>();
+        synchronized (this) {
+            for (Registration registration : registrations.values())
+                if (null != registration.connector) connectors.add(registration.connector);
+        }
+        for (Connector connector : connectors) {
+            String token = connector.accessToken();
+            if (null != token) return token;
+        }
+        throw new IllegalStateException("There are no authenticated notification hub " + key + " listeners");
+    }
+
+    /**
+     * Re-authenticate client of any registered listener. Authentication is done
+     * outside of hub monitor as it is a REST API call
+     */
+    public void refreshToken() throws GenericException {
+        Connector connector;
+        synchronized (this) {
+            connector = connector();
+        }
+        if (null != connector) connector.refreshToken();
+    }
+
+    /**
+     * @return Connector of any registered listener or null if there are no listeners
+     */
+    protected synchronized Connector connector() {
+        for (Registration registration : registrations.values())
+            if (null != registration.connector) return registration.connector;
+        return null;
+    }
+
+    /**
+     * Get value that is shared by hub listeners. Value is loaded if there's no cached one or
+     * if it is older than maxAge milliseconds. Null values are not cached
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T cached(@NonNull final String name, final long maxAge, @NonNull final Supplier<T> loader) {
+        synchronized (cache) {
+            Map.Entry<Long, Object> entry = cache.get(name);
+            if (null != entry && System.currentTimeMillis() - entry.getKey() < maxAge) return (T) entry.getValue();
+            T value = loader.get();
+            if (null == value)
+                cache.remove(name);
+            else
+                cache.put(name, new AbstractMap.SimpleImmutableEntry<>(System.currentTimeMillis(), value));
+            return value;
+        }
+    }
+
+    protected void unregister(@NonNull final UUID scanResultId) {
+        HubConnection stopped = null;
+        synchronized (this) {
+            registrations.remove(scanResultId);
+            log.trace("Scan result {} listener unregistered from notification hub {}", scanResultId, key);
+            if (registrations.isEmpty() && null != connection) {
+                stopped = connection;
+                connection = null;
+                start = null;
+                if (null != reconnect) reconnect.cancel(false);
+                reconnect = null;
+            } else if (null != connection && HubConnectionState.CONNECTED == connection.getConnectionState())
+                // Update subscription filters, so server stops sending notifications for this scan result
+                subscribe();
+        }
+        prune();
+        // Connection is stopped outside of monitor as onClosed callback may be called from another thread
+        if (null == stopped) return;
+        log.debug("Stop notification hub {} connection as there are no listeners", key);
+        try {
+            stopped.stop().blockingAwait();
+        } catch (RuntimeException e) {
+            log.debug("Notification hub connection stop failed");
+            log.trace("Exception details", e);
+        }
+    }
+
+    /**
+     * Remove hub from shared ones if it has no listeners. Client that got hub before
+     * its removal still may use it, it just won't be shared with new clients
+     */
+    protected void prune() {
+        synchronized (HUBS) {
+            synchronized (this) {
+                if (registrations.isEmpty() && this == HUBS.get(key)) {
+                    log.trace("Remove notification hub {} as there are no listeners", key);
+                    HUBS.remove(key);
+                }
+            }
+        }
+    }
+
+    protected synchronized void closed(@NonNull final HubConnection closed, final Exception e) {
+        if (closed != connection || registrations.isEmpty()) return;
+        if (null != reconnect && !reconnect.isDone()) return;
+        long delay = Math.min(MAX_RECONNECT_DELAY, 1L << Math.min(attempt++, 6));
+        log.debug("Notification hub {} connection lost, reconnect in {} s", key, delay);
+        if (null != e) log.trace("Exception details", e);
+        reconnect = RECONNECT.schedule(() -> reconnect(closed), delay, TimeUnit.SECONDS);
+    }
+
+    protected void reconnect(@NonNull final HubConnection closed) {
+        synchronized (this) {
+            if (closed != connection || registrations.isEmpty()) return;
+        }
+        log.debug("Restart notification hub {} connection", key);
+        // Do not block reconnect thread as it is shared by all the hubs
+        closed.start().subscribe(() -> {
+            synchronized (this) {
+                if (closed != connection) return;
+                attempt = 0;
+                subscribe();
+            }
+        }, e -> {
+            synchronized (this) {
+                reconnect = null;
+            }
+            closed(closed, e instanceof Exception ? (Exception) e : new Exception(e));
+        });
+    }
+}
@@ -13,14 +13,15 @@ import com.ptsecurity.appsec.ai.ee.server.v420.auth.model.AuthResultModel;
 import com.ptsecurity.appsec.ai.ee.server.v420.auth.model.UserLoginModel;
 import com.ptsecurity.appsec.ai.ee.server.v420.notifications.model.*;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.AbstractApiClient;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.NotificationHub;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.VersionRange;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v420.converters.EnumsConverter;
-import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v420.tasks.GenericAstTasksImpl;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v420.tasks.ServerVersionTasksImpl;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.*;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.ServerVersionTasks;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ApiClientHelper;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.LoggingInterceptor;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ScanCompletionWaiter;
 import com.ptsecurity.misc.tools.Jwt;
 import com.ptsecurity.misc.tools.exceptions.GenericException;
 import com.ptsecurity.misc.tools.helpers.CallHelper;
@@ -42,7 +43,6 @@ import java.lang.reflect.Type;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.BlockingQueue;
 
 import static com.ptsecurity.appsec.ai.ee.server.v420.auth.model.AuthScopeType.ACCESSTOKEN;
 import static com.ptsecurity.appsec.ai.ee.server.v420.auth.model.AuthScopeType.WEB;
@@ -199,13 +199,13 @@ public class ApiClient extends AbstractApiClient {
     @ToString.Exclude
     protected String connectedDate = "";
 
-    public HubConnection createSignalrConnection(
-            @NonNull final ScanBrief scanBrief,
-            final BlockingQueue<Stage> queue,
-            @NonNull GenericAstTasksImpl.ProjectPollingThread pollingThread) throws GenericException {
-        // Create accessTokenProvider to provide SignalR connection
-        // with jwt
-        Single<String> accessTokenProvider = Single.defer(() -> Single.just(apiJwt.getAccessToken()));
+    /**
+     * Create SignalR connection that passes scan notifications to listeners registered in hub
+     */
+    protected HubConnection createSignalrConnection(@NonNull final NotificationHub hub) throws GenericException {
+        // Connection may be shared by several clients, so JWT is taken
+        // from the ones whose listeners are still registered in hub
+        Single<String> accessTokenProvider = Single.defer(() -> Single.just(hub.accessToken()));
 
         final HubConnection connection = HubConnectionBuilder.create(connectionSettings.getUrl() + "/notifyApi/notifications?clientId=" + id)
                 .withAccessTokenProvider(accessTokenProvider)
@@ -238,15 +238,42 @@ public class ApiClient extends AbstractApiClient {
 
         connection.on("NeedRefreshToken", () -> {
             log.trace("Message of type NeedRefreshToken");
-            authenticate();
+            hub.refreshToken();
         });
 
         connection.on("NeedSyncClientState", () -> {
             log.trace("Message of type NeedSyncClientState");
-            subscribe(connection, scanBrief);
+            hub.subscribe();
         });
 
-        connection.on("ScanStarted", (data) -> {
+        connection.on("ScanStarted", (data) -> hub.dispatch(data.getScanResultId(), ScanListener.class, l -> l.onScanStarted(data)), ScanStartedEvent.class);
+
+        // Currently PT AI viewer have no stop scan feature but deletes scan result
+        connection.on("ScanResultRemoved", (data) -> hub.dispatch(data.getScanResultId(), ScanListener.class, l -> l.onScanResultRemoved(data)), ScanResultRemovedEvent.class);
+
+        connection.on("ScanProgress", (data) -> hub.dispatch(data.getScanResultId(), ScanListener.class, l -> l.onScanProgress(data)), ScanProgressEvent.class);
+
+        connection.on("ScanCompleted", (data) -> hub.dispatch(data.getScanResultId(), ScanListener.class, l -> l.onScanCompleted(data)), ScanCompleteEvent.class);
+
+        return connection;
+    }
+
+    /**
+     * Scan notifications handler. Listener belongs to the client that waits for scan completion, so
+     * notifications are passed to its console and event consumer even if connection is shared
+     */
+    @RequiredArgsConstructor
+    protected class ScanListener {
+        @NonNull
+        protected final NotificationHub hub;
+
+        @NonNull
+        protected final ScanBrief scanBrief;
+
+        @NonNull
+        protected final ScanCompletionWaiter waiter;
+
+        protected void onScanStarted(@NonNull final ScanStartedEvent data) {
             log.trace("Message of type ScanStartedEvent: {}", data);
             if (!scanBrief.getProjectId().equals(data.getProjectId()))
                 log.trace("Skip ScanStarted message as its projectId != {}", scanBrief.getProjectId());
@@ -256,32 +283,27 @@ public class ApiClient extends AbstractApiClient {
                 if (null != console)
                     console.info("Scan started. Project id: %s, scan result id: %s", data.getProjectId(), data.getScanResultId());
                 if (null != eventConsumer) eventConsumer.process(data);
-                List<ScanAgentModel> scanAgents = call(scanAgentApi::apiScanAgentsGet, "Get scan agents list failed", true);
-                if (null != scanAgents) {
-                    String agentName = scanAgents.stream()
-                            .filter(a -> scanBrief.getProjectId().equals(a.getProjectId()) && scanBrief.getId().equals(a.getScanResultId()))
-                            .map(ScanAgentModel::getAgentName).findAny().orElse(null);
-                    log.trace("Scan started on agent named {}", agentName);
-                    scanBrief.setPtaiAgentName(agentName);
-                }
-                pollingThread.reset();
+                // Scan agents list is shared by simultaneously started scans. If cached list doesn't
+                // contain this scan, it was loaded before scan start and is to be reloaded
+                String agentName = agentName(SCAN_AGENTS_MAX_AGE);
+                if (null == agentName) agentName = agentName(0);
+                log.trace("Scan started on agent named {}", agentName);
+                scanBrief.setPtaiAgentName(agentName);
+                waiter.reset();
             }
-        }, ScanStartedEvent.class);
+        }
 
-        // Currently PT AI viewer have no stop scan feature but deletes scan result
-        connection.on("ScanResultRemoved", (data) -> {
+        protected void onScanResultRemoved(@NonNull final ScanResultRemovedEvent data) {
             log.trace("Message of type ScanResultRemovedEvent: {}", data);
             if (!scanBrief.getId().equals(data.getScanResultId())) return;
             if (null != console) console.info("Scan result removed. Possibly job was terminated from PT AI UI");
             if (null != eventConsumer) eventConsumer.process(com.ptsecurity.appsec.ai.ee.scan.progress.Stage.ABORTED);
-            pollingThread.reset();
-            if (null != queue) {
-                log.debug("Scan result {} removed", scanBrief.getId());
-                queue.add(Stage.ABORTED);
-            }
-        }, ScanResultRemovedEvent.class);
+            waiter.reset();
+            log.debug("Scan result {} removed", scanBrief.getId());
+            waiter.complete(Stage.ABORTED);
+        }
 
-        connection.on("ScanProgress", (data) -> {
+        protected void onScanProgress(@NonNull final ScanProgressEvent data) {
             log.trace("Message of type ScanProgressEvent: {}", data);
             if (!scanBrief.getId().equals(data.getScanResultId()))
                 log.trace("Skip ScanProgress message as its projectId != {}", scanBrief.getProjectId());
@@ -306,33 +328,65 @@ public class ApiClient extends AbstractApiClient {
                 Optional<com.ptsecurity.appsec.ai.ee.server.v420.notifications.model.Stage> stage = Optional.of(data).map(ScanProgressEvent::getProgress).map(ScanProgressModel::getStage);
                 if (stage.isPresent()) {
                     if (null != eventConsumer) eventConsumer.process(EnumsConverter.convert(stage.get()));
-                    if (null != queue && (ABORTED == stage.get() || FAILED == stage.get())) {
+                    if (ABORTED == stage.get() || FAILED == stage.get()) {
                         if (null != console) console.info("Scan job was terminated with state " + stage.get());
-                        log.debug("ScanProgressEvent stage {} is to be put to AST task queue", stage.get());
-                        queue.add(EnumsConverter.convert(stage.get()));
+                        log.debug("ScanProgressEvent stage {} completes AST task", stage.get());
+                        waiter.complete(EnumsConverter.convert(stage.get()));
                     }
                 }
-                pollingThread.reset();
+                waiter.reset();
             }
-        }, ScanProgressEvent.class);
+        }
 
-        connection.on("ScanCompleted", (data) -> {
+        protected void onScanCompleted(@NonNull final ScanCompleteEvent data) {
             log.trace("Message of type ScanCompleteEvent: {}", data);
             if (!scanBrief.getProjectId().equals(data.getProjectId()))
                 log.trace("Skip ScanCompleted message as its projectId != {}", scanBrief.getProjectId());
             else if (!scanBrief.getId().equals(data.getScanResultId()))
                 log.trace("Skip ScanCompleted message as its scanResultId != {}", scanBrief.getId());
             else {
-                pollingThread.reset();
-                queue.add(EnumsConverter.convert(null == data.getStage() ? UNKNOWN : data.getStage()));
+                waiter.reset();
+                waiter.complete(EnumsConverter.convert(null == data.getStage() ? UNKNOWN : data.getStage()));
             }
-        }, ScanCompleteEvent.class);
+        }
 
-        return connection;
+        protected String agentName(final long maxAge) {
+            List<ScanAgentModel> scanAgents = hub.cached("scanAgents", maxAge,
+                    () -> call(scanAgentApi::apiScanAgentsGet, "Get scan agents list failed", true));
+            if (null == scanAgents) return null;
+            return scanAgents.stream()
+                    .filter(a -> scanBrief.getProjectId().equals(a.getProjectId()) && scanBrief.getId().equals(a.getScanResultId()))
+                    .map(ScanAgentModel::getAgentName).findAny().orElse(null);
+        }
     }
 
-    public void wait(@NonNull final HubConnection connection, @NonNull final ScanBrief scanBrief) {
-        connection.start().doOnComplete(() -> subscribe(connection, scanBrief)).blockingAwait();
+    /**
+     * Register scan listener in notification hub. Hub connection is created and started if needed.
+     * Listener is unregistered when returned subscription is closed
+     */
+    public NotificationHub.Subscription subscribe(@NonNull final ScanBrief scanBrief, @NonNull final ScanCompletionWaiter waiter) throws GenericException {
+        NotificationHub hub = notificationHub();
+        return hub.register(scanBrief.getProjectId(), scanBrief.getId(), new ScanListener(hub, scanBrief, waiter), new NotificationHub.Connector() {
+            @Override
+            public HubConnection create(@NonNull final NotificationHub hub) throws GenericException {
+                return createSignalrConnection(hub);
+            }
+
+            @Override
+            public void subscribe(@NonNull final HubConnection connection, @NonNull final Set<UUID> projectIds, @NonNull final Set<UUID> scanResultIds) {
+                ApiClient.this.subscribe(connection, projectIds, scanResultIds);
+            }
+
+            @Override
+            public String accessToken() {
+                return null == apiJwt ? null : apiJwt.getAccessToken();
+            }
+
+            @Override
+            public void refreshToken() throws GenericException {
+                authenticate();
+            }
+        });
     }
 
     @Getter
@@ -352,9 +406,11 @@ public class ApiClient extends AbstractApiClient {
 
     protected void subscribe(
             @NonNull final HubConnection connection,
-            @NonNull final ScanBrief scanBrief) {
+            @NonNull final Set<UUID> projectIds,
+            @NonNull final Set<UUID> scanResultIds) {
         SubscriptionOnNotification subscription = new SubscriptionOnNotification();
-        // subscription.Ids.add(scanResultId);
+        // Scan events subscriptions use scanResultId-based filtering, so server doesn't send other scans events
+        subscription.ids.addAll(scanResultIds);
 
         subscription.notificationTypeName = "ScanStarted";
         connection.send("SubscribeOnNotification", subscription);
@@ -367,7 +423,7 @@ public class ApiClient extends AbstractApiClient {
 
         // ScanResultRemoved event subscription uses projectId-based filtering
         subscription.ids.clear();
-        subscription.ids.add(scanBrief.getProjectId());
+        subscription.ids.addAll(projectIds);
         subscription.notificationTypeName = "ScanResultRemoved";
         connection.send("SubscribeOnNotification", subscription);
     }
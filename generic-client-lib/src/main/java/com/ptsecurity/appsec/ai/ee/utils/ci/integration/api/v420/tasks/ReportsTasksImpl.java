@@ -8,11 +8,13 @@ import com.ptsecurity.appsec.ai.ee.scan.result.ScanResult;
 import com.ptsecurity.appsec.ai.ee.server.v420.api.model.*;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.AbstractApiClient;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.Factory;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.GenericAstJob;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.subjobs.export.SonarGiif.SonarGiifReport;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.operations.FileOperations;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.GenericAstTasks;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.ReportsTasks;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ExportExecutor;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ReportUtils;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ScanResultHelper;
 import com.ptsecurity.misc.tools.TempFile;
@@ -157,31 +159,20 @@ public class ReportsTasksImpl extends AbstractTaskImpl implements ReportsTasks {
 
         UUID dummyTemplate = getDummyReportTemplateId(Locale.EN);
 
-        // final AtomicReference<UUID> finalProjectId = new AtomicReference<>(projectId);
-        List<Object> allReports = new ArrayList<>();
-        allReports.addAll(checkedReports.getReport());
-        allReports.addAll(checkedReports.getRaw());
-        allReports.addAll(checkedReports.getSarif());
-        allReports.addAll(checkedReports.getSonarGiif());
-        for (Object item : allReports) {
-            try {
-                if (item instanceof Report) {
-                    Report report = (Report) item;
-                    exportReport(projectId, scanResultId, report, fileOps);
-                } else if (item instanceof RawData) {
-                    RawData rawData = (RawData) item;
-                    exportRawJson(projectId, scanResultId, rawData, fileOps);
-                } else if (item instanceof Sarif) {
-                    Sarif sarif = (Sarif) item;
-                    exportSarif(projectId, scanResultId, sarif, fileOps);
-                } else if (item instanceof SonarGiif) {
-                    SonarGiif sonarGiif = (SonarGiif) item;
-                    exportSonarGiif(projectId, scanResultId, sonarGiif, fileOps);
-                }
-            } catch (GenericException e) {
-                warning(e);
-            }
-        }
+        // Exports are independent, so those may be executed concurrently. RAW JSON, SARIF and
+        // SonarQube GIIF exports share the same cached scan result that is loaded once
+        ExportExecutor executor = new ExportExecutor(this,
+                advancedSettings.getInt(AdvancedSettings.SettingInfo.REPORTS_EXPORT_PARALLELISM),
+                advancedSettings.getBoolean(AdvancedSettings.SettingInfo.REPORTS_EXPORT_FAIL_FAST));
+        for (Report report : checkedReports.getReport())
+            executor.add("Report " + report.getFileName() + " generation", () -> exportReport(projectId, scanResultId, report, fileOps));
+        for (RawData rawData : checkedReports.getRaw())
+            executor.add("Raw JSON " + rawData.getFileName() + " export", () -> exportRawJson(projectId, scanResultId, rawData, fileOps));
+        for (Sarif sarif : checkedReports.getSarif())
+            executor.add("SARIF report " + sarif.getFileName() + " generation", () -> exportSarif(projectId, scanResultId, sarif, fileOps));
+        for (SonarGiif sonarGiif : checkedReports.getSonarGiif())
+            executor.add("SonarQube GIIF report " + sonarGiif.getFileName() + " generation", () -> exportSonarGiif(projectId, scanResultId, sonarGiif, fileOps));
+        executor.execute();
     }
 
     @Override
@@ -237,20 +228,22 @@ public class ReportsTasksImpl extends AbstractTaskImpl implements ReportsTasks {
     public void exportRawJson(@NonNull UUID projectId, @NonNull UUID scanResultId, @NonNull RawData rawData, @NonNull FileOperations fileOps) throws GenericException {
         fine("Started: raw JSON data export for project id: %s, scan result id: %s", projectId, scanResultId);
         GenericAstTasks genericAstTasks = new Factory().genericAstTasks(client);
-        ScanResult scanResult = genericAstTasks.getScanResult(projectId, scanResultId);
-        ScanResultHelper.apply(scanResult, rawData.getFilters());
-        final ObjectMapper mapper = createObjectMapper();
-        File json = call(
-                () -> {
-                    Path temp = Files.createTempFile("ptai-", "-scanresult");
-                    log.debug("Created file {} for temporal raw scan result store", temp);
-                    mapper.writeValue(temp.toFile(), scanResult);
-                    log.debug("Raw scan result data saved to {}", temp);
-                    return temp.toFile();
-                }, "Raw scan result save failed");
-        call(() -> fileOps.saveArtifact(rawData.getFileName(), json), "Raw JSON result save failed");
-        log.debug("Deleting temporal raw scan results file {}", json.getAbsolutePath());
-        call(json::delete, "Temporal file " + json.getAbsolutePath() + " delete failed", true);
+        ScanResult cachedScanResult = client.getScanResultCache().get(
+                projectId, scanResultId, () -> genericAstTasks.getScanResult(projectId, scanResultId));
+        try (ScanResult scanResult = ScanResultHelper.filter(cachedScanResult, rawData.getFilters())) {
+            final ObjectMapper mapper = createObjectMapper();
+            File json = call(
+                    () -> {
+                        Path temp = Files.createTempFile("ptai-", "-scanresult");
+                        log.debug("Created file {} for temporal raw scan result store", temp);
+                        mapper.writeValue(temp.toFile(), scanResult);
+                        log.debug("Raw scan result data saved to {}", temp);
+                        return temp.toFile();
+                    }, "Raw scan result save failed");
+            call(() -> fileOps.saveArtifact(rawData.getFileName(), json), "Raw JSON result save failed");
+            log.debug("Deleting temporal raw scan results file {}", json.getAbsolutePath());
+            call(json::delete, "Temporal file " + json.getAbsolutePath() + " delete failed", true);
+        }
         fine("Finished: raw JSON data export for project id: %s, scan result id: %s", projectId, scanResultId);
     }
 
@@ -259,15 +252,16 @@ public class ReportsTasksImpl extends AbstractTaskImpl implements ReportsTasks {
         fine("Started: SARIF report generation for project id: %s, scan result id: %s", projectId, scanResultId);
 
         GenericAstTasks genericAstTasks = new Factory().genericAstTasks(client);
-        ScanResult scanResult = genericAstTasks.getScanResult(projectId, scanResultId);
-        ScanResultHelper.apply(scanResult, sarif.getFilters());
-
-        SarifSchema210 sarifSchema = com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.subjobs.export.Sarif.convert(scanResult, true);
-        try (TempFile temporalReportFile = TempFile.createFile()) {
-            CallHelper.call(
-                    () -> createObjectMapper().writerWithDefaultPrettyPrinter().writeValue(temporalReportFile.toFile(), sarifSchema),
-                    "SARIF report serialization failed");
-            call(() -> fileOps.saveArtifact(sarif.getFileName(), temporalReportFile.toFile()), "SARIF report save failed");
+        ScanResult cachedScanResult = client.getScanResultCache().get(
+                projectId, scanResultId, () -> genericAstTasks.getScanResult(projectId, scanResultId));
+        try (ScanResult scanResult = ScanResultHelper.filter(cachedScanResult, sarif.getFilters())) {
+            SarifSchema210 sarifSchema = com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.subjobs.export.Sarif.convert(scanResult, true);
+            try (TempFile temporalReportFile = TempFile.createFile()) {
+                CallHelper.call(
+                        () -> createObjectMapper().writerWithDefaultPrettyPrinter().writeValue(temporalReportFile.toFile(), sarifSchema),
+                        "SARIF report serialization failed");
+                call(() -> fileOps.saveArtifact(sarif.getFileName(), temporalReportFile.toFile()), "SARIF report save failed");
+            }
         }
         fine("Finished: SARIF report generation for project id: %s, scan result id: %s", projectId, scanResultId);
     }
@@ -277,15 +271,16 @@ public class ReportsTasksImpl extends AbstractTaskImpl implements ReportsTasks {
         fine("Started: SonarQube GIIF report generation for project id: %s, scan result id: %s", projectId, scanResultId);
 
         GenericAstTasks genericAstTasks = new Factory().genericAstTasks(client);
-        ScanResult scanResult = genericAstTasks.getScanResult(projectId, scanResultId);
-        ScanResultHelper.apply(scanResult, sonarGiif.getFilters());
-
-        SonarGiifReport giifReport = com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.subjobs.export.SonarGiif.convert(scanResult);
-        try (TempFile temporalReportFile = TempFile.createFile()) {
-            CallHelper.call(
-                    () -> createObjectMapper().writerWithDefaultPrettyPrinter().writeValue(temporalReportFile.toFile(), giifReport),
-                    "SonarQube GIIF report serialization failed");
-            call(() -> fileOps.saveArtifact(sonarGiif.getFileName(), temporalReportFile.toFile()), "SonarQube GIIF report save failed");
+        ScanResult cachedScanResult = client.getScanResultCache().get(
+                projectId, scanResultId, () -> genericAstTasks.getScanResult(projectId, scanResultId));
+        try (ScanResult scanResult = ScanResultHelper.filter(cachedScanResult, sonarGiif.getFilters())) {
+            SonarGiifReport giifReport = com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.subjobs.export.SonarGiif.convert(scanResult);
+            try (TempFile temporalReportFile = TempFile.createFile()) {
+                CallHelper.call(
+                        () -> createObjectMapper().writerWithDefaultPrettyPrinter().writeValue(temporalReportFile.toFile(), giifReport),
+                        "SonarQube GIIF report serialization failed");
+                call(() -> fileOps.saveArtifact(sonarGiif.getFileName(), temporalReportFile.toFile()), "SonarQube GIIF report save failed");
+            }
         }
         fine("Finished: SonarQube GIIF report generation for project id: %s, scan result id: %s", projectId, scanResultId);
     }
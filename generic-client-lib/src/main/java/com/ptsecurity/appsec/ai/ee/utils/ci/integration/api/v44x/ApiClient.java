@@ -13,13 +13,14 @@ import com.ptsecurity.appsec.ai.ee.server.v44x.auth.model.AuthResultModel;
 import com.ptsecurity.appsec.ai.ee.server.v44x.auth.model.UserLoginModel;
 import com.ptsecurity.appsec.ai.ee.server.v44x.notifications.model.*;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.AbstractApiClient;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.NotificationHub;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.VersionRange;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.converters.EnumsConverter;
-import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.tasks.GenericAstTasksImpl;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.tasks.ServerVersionTasksImpl;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.*;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.ServerVersionTasks;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.LoggingInterceptor;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ScanCompletionWaiter;
 import com.ptsecurity.misc.tools.Jwt;
 import com.ptsecurity.misc.tools.exceptions.GenericException;
 import com.ptsecurity.misc.tools.helpers.CertificateHelper;
@@ -39,7 +40,6 @@ import javax.net.ssl.X509TrustManager;
 import java.lang.reflect.Type;
 import java.security.SecureRandom;
 import java.util.*;
-import java.util.concurrent.BlockingQueue;
 
 import static com.ptsecurity.appsec.ai.ee.server.v44x.auth.model.AuthScopeType.ACCESSTOKEN;
 import static com.ptsecurity.appsec.ai.ee.server.v44x.auth.model.AuthScopeType.WEB;
@@ -196,13 +196,13 @@ public class ApiClient extends AbstractApiClient {
     @ToString.Exclude
     protected String connectedDate = "";
 
-    public HubConnection createSignalrConnection(
-            @NonNull final ScanBrief scanBrief,
-            final BlockingQueue<Stage> queue,
-            @NonNull GenericAstTasksImpl.ProjectPollingThread pollingThread) throws GenericException {
-        // Create accessTokenProvider to provide SignalR connection
-        // with jwt
-        Single<String> accessTokenProvider = Single.defer(() -> Single.just(apiJwt.getAccessToken()));
+    /**
+     * Create SignalR connection that passes scan notifications to listeners registered in hub
+     */
+    protected HubConnection createSignalrConnection(@NonNull final NotificationHub hub) throws GenericException {
+        // Connection may be shared by several clients, so JWT is taken
+        // from the ones whose listeners are still registered in hub
+        Single<String> accessTokenProvider = Single.defer(() -> Single.just(hub.accessToken()));
 
         final HubConnection connection = HubConnectionBuilder.create(connectionSettings.getUrl() + "/notifyApi/notifications?clientId=" + id)
                 .withAccessTokenProvider(accessTokenProvider)
@@ -235,15 +235,42 @@ public class ApiClient extends AbstractApiClient {
 
         connection.on("NeedRefreshToken", () -> {
             log.trace("Message of type NeedRefreshToken");
-            authenticate();
+            hub.refreshToken();
         });
 
         connection.on("NeedSyncClientState", () -> {
             log.trace("Message of type NeedSyncClientState");
-            subscribe(connection, scanBrief);
+            hub.subscribe();
         });
 
-        connection.on("ScanStarted", (data) -> {
+        connection.on("ScanStarted", (data) -> hub.dispatch(data.getScanResultId(), ScanListener.class, l -> l.onScanStarted(data)), ScanStarted.class);
+
+        // Currently PT AI viewer have no stop scan feature but deletes scan result
+        connection.on("ScanResultRemoved", (data) -> hub.dispatch(data.getScanResultId(), ScanListener.class, l -> l.onScanResultRemoved(data)), ScanResultRemoved.class);
+
+        connection.on("ScanProgress", (data) -> hub.dispatch(data.getScanResultId(), ScanListener.class, l -> l.onScanProgress(data)), ScanProgress.class);
+
+        connection.on("ScanCompleted", (data) -> hub.dispatch(data.getScanResultId(), ScanListener.class, l -> l.onScanCompleted(data)), ScanCompleted.class);
+
+        return connection;
+    }
+
+    /**
+     * Scan notifications handler. Listener belongs to the client that waits for scan completion, so
+     * notifications are passed to its console and event consumer even if connection is shared
+     */
+    @RequiredArgsConstructor
+    protected class ScanListener {
+        @NonNull
+        protected final NotificationHub hub;
+
+        @NonNull
+        protected final ScanBrief scanBrief;
+
+        @NonNull
+        protected final ScanCompletionWaiter waiter;
+
+        protected void onScanStarted(@NonNull final ScanStarted data) {
             log.trace("Message of type ScanStartedEvent: {}", data);
             if (!scanBrief.getProjectId().equals(data.getProjectId()))
                 log.trace("Skip ScanStarted message as its projectId != {}", scanBrief.getProjectId());
@@ -253,32 +280,27 @@ public class ApiClient extends AbstractApiClient {
                 if (null != console)
                     console.info("Scan started. Project id: %s, scan result id: %s", data.getProjectId(), data.getScanResultId());
                 if (null != eventConsumer) eventConsumer.process(data);
-                List<ScanAgentModel> scanAgents = call(scanAgentApi::apiScanAgentsGet, "Get scan agents list failed", true);
-                if (null != scanAgents) {
-                    String agentName = scanAgents.stream()
-                            .filter(a -> scanBrief.getProjectId().equals(a.getProjectId()) && scanBrief.getId().equals(a.getScanResultId()))
-                            .map(ScanAgentModel::getAgentName).findAny().orElse(null);
-                    log.trace("Scan started on agent named {}", agentName);
-                    scanBrief.setPtaiAgentName(agentName);
-                }
-                pollingThread.reset();
+                // Scan agents list is shared by simultaneously started scans. If cached list doesn't
+                // contain this scan, it was loaded before scan start and is to be reloaded
+                String agentName = agentName(SCAN_AGENTS_MAX_AGE);
+                if (null == agentName) agentName = agentName(0);
+                log.trace("Scan started on agent named {}", agentName);
+                scanBrief.setPtaiAgentName(agentName);
+                waiter.reset();
             }
-        }, ScanStarted.class);
+        }
 
-        // Currently PT AI viewer have no stop scan feature but deletes scan result
-        connection.on("ScanResultRemoved", (data) -> {
+        protected void onScanResultRemoved(@NonNull final ScanResultRemoved data) {
             log.trace("Message of type ScanResultRemovedEvent: {}", data);
             if (!scanBrief.getId().equals(data.getScanResultId())) return;
             if (null != console) console.info("Scan result removed. Possibly job was terminated from PT AI UI");
             if (null != eventConsumer) eventConsumer.process(Stage.ABORTED);
-            pollingThread.reset();
-            if (null != queue) {
-                log.debug("Scan result {} removed", scanBrief.getId());
-                queue.add(Stage.ABORTED);
-            }
-        }, ScanResultRemoved.class);
+            waiter.reset();
+            log.debug("Scan result {} removed", scanBrief.getId());
+            waiter.complete(Stage.ABORTED);
+        }
 
-        connection.on("ScanProgress", (data) -> {
+        protected void onScanProgress(@NonNull final ScanProgress data) {
             log.trace("Message of type ScanProgressEvent: {}", data);
             if (!scanBrief.getId().equals(data.getScanResultId()))
                 log.trace("Skip ScanProgress message as its projectId != {}", scanBrief.getProjectId());
@@ -303,33 +325,65 @@ public class ApiClient extends AbstractApiClient {
                 Optional<com.ptsecurity.appsec.ai.ee.server.v44x.notifications.model.Stage> stage = Optional.of(data).map(ScanProgress::getProgress).map(ScanProgressModel::getStage);
                 if (stage.isPresent()) {
                     if (null != eventConsumer) eventConsumer.process(EnumsConverter.convert(stage.get()));
-                    if (null != queue && (ABORTED == stage.get() || FAILED == stage.get())) {
+                    if (ABORTED == stage.get() || FAILED == stage.get()) {
                         if (null != console) console.info("Scan job was terminated with state " + stage.get());
-                        log.debug("ScanProgressEvent stage {} is to be put to AST task queue", stage.get());
-                        queue.add(EnumsConverter.convert(stage.get()));
+                        log.debug("ScanProgressEvent stage {} completes AST task", stage.get());
+                        waiter.complete(EnumsConverter.convert(stage.get()));
                     }
                 }
-                pollingThread.reset();
+                waiter.reset();
             }
-        }, ScanProgress.class);
+        }
 
-        connection.on("ScanCompleted", (data) -> {
+        protected void onScanCompleted(@NonNull final ScanCompleted data) {
             log.trace("Message of type ScanCompleteEvent: {}", data);
             if (!scanBrief.getProjectId().equals(data.getProjectId()))
                 log.trace("Skip ScanCompleted message as its projectId != {}", scanBrief.getProjectId());
             else if (!scanBrief.getId().equals(data.getScanResultId()))
                 log.trace("Skip ScanCompleted message as its scanResultId != {}", scanBrief.getId());
             else {
-                pollingThread.reset();
-                queue.add(EnumsConverter.convert(null == data.getStage() ? UNKNOWN : data.getStage()));
+                waiter.reset();
+                waiter.complete(EnumsConverter.convert(null == data.getStage() ? UNKNOWN : data.getStage()));
             }
-        }, ScanCompleted.class);
+        }
 
-        return connection;
+        protected String agentName(final long maxAge) {
+            List<ScanAgentModel> scanAgents = hub.cached("scanAgents", maxAge,
+                    () -> call(scanAgentApi::apiScanAgentsGet, "Get scan agents list failed", true));
+            if (null == scanAgents) return null;
+            return scanAgents.stream()
+                    .filter(a -> scanBrief.getProjectId().equals(a.getProjectId()) && scanBrief.getId().equals(a.getScanResultId()))
+                    .map(ScanAgentModel::getAgentName).findAny().orElse(null);
+        }
     }
 
-    public void wait(@NonNull final HubConnection connection, @NonNull final ScanBrief scanBrief) {
-        connection.start().doOnComplete(() -> subscribe(connection, scanBrief)).blockingAwait();
+    /**
+     * Register scan listener in notification hub. Hub connection is created and started if needed.
+     * Listener is unregistered when returned subscription is closed
+     */
+    public NotificationHub.Subscription subscribe(@NonNull final ScanBrief scanBrief, @NonNull final ScanCompletionWaiter waiter) throws GenericException {
+        NotificationHub hub = notificationHub();
+        return hub.register(scanBrief.getProjectId(), scanBrief.getId(), new ScanListener(hub, scanBrief, waiter), new NotificationHub.Connector() {
+            @Override
+            public HubConnection create(@NonNull final NotificationHub hub) throws GenericException {
+                return createSignalrConnection(hub);
+            }
+
+            @Override
+            public void subscribe(@NonNull final HubConnection connection, @NonNull final Set<UUID> projectIds, @NonNull final Set<UUID> scanResultIds) {
+                ApiClient.this.subscribe(connection, projectIds, scanResultIds);
+            }
+
+            @Override
+            public String accessToken() {
+                return null == apiJwt ? null : apiJwt.getAccessToken();
+            }
+
+            @Override
+            public void refreshToken() throws GenericException {
+                authenticate();
+            }
+        });
     }
 
     @Getter
@@ -349,9 +403,11 @@ public class ApiClient extends AbstractApiClient {
 
     protected void subscribe(
             @NonNull final HubConnection connection,
-            @NonNull final ScanBrief scanBrief) {
+            @NonNull final Set<UUID> projectIds,
+            @NonNull final Set<UUID> scanResultIds) {
         SubscriptionOnNotification subscription = new SubscriptionOnNotification();
-        // subscription.Ids.add(scanResultId);
+        // Scan events subscriptions use scanResultId-based filtering, so server doesn't send other scans events
+        subscription.ids.addAll(scanResultIds);
 
         subscription.notificationTypeName = "ScanStarted";
         connection.send("SubscribeOnNotification", subscription);
@@ -364,7 +420,7 @@ public class ApiClient extends AbstractApiClient {
 
         // ScanResultRemoved event subscription uses projectId-based filtering
         subscription.ids.clear();
-        subscription.ids.add(scanBrief.getProjectId());
+        subscription.ids.addAll(projectIds);
         subscription.notificationTypeName = "ScanResultRemoved";
         connection.send("SubscribeOnNotification", subscription);
     }
@@ -7,10 +7,13 @@ import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.*;
 import com.ptsecurity.appsec.ai.ee.scan.settings.Policy;
 import com.ptsecurity.appsec.ai.ee.server.v44x.api.model.*;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.ServerVersionTasks;
+import com.ptsecurity.misc.tools.helpers.BaseJsonHelper;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
 import java.time.LocalTime;
 import java.time.ZonedDateTime;
@@ -193,6 +196,38 @@ public class IssuesConverter {
         return res;
     }
 
+    /**
+     * Method converts PT AI v.4.3 API scan result and issues JSON stream to API version independent scan result.
+     * Issues are deserialized and converted one by one, so the whole PT AI v.4.3 API scan issues list
+     * never resides in memory
+     * @param scanResult PT AI v.4.3 API scan result that contains scan statistic
+     * @param issues Stream that contains PT AI v.4.3 API scan issues JSON array
+     * @param scanSettings PT AI v.4.3 API scan settings
+     * @param issuesMemoryThreshold Maximum number of issues to be kept on heap, zero means no limit
+     * @return PT AI API version independent scan results instance
+     * @throws IOException If issues stream read or parse failed
+     */
+    public static ScanResult convert(
+            @NonNull final String projectName,
+            @NonNull final ScanResultModel scanResult,
+            @NonNull final InputStream issues,
+            @NonNull final Map<Reports.Locale, Map<String, String>> localizedIssuesHeaders,
+            @NonNull final ScanSettingsModel scanSettings,
+            @NonNull final String ptaiUrl,
+            @NonNull final Map<ServerVersionTasks.Component, String> versions,
+            final int issuesMemoryThreshold) throws IOException {
+        ScanResult res = new ScanResult();
+        if (0 < issuesMemoryThreshold) res.useDiskBackedIssues(issuesMemoryThreshold);
+        convertInto(projectName, scanResult, scanSettings, versions, res);
+        res.setApiVersion(V44X);
+        res.setPtaiServerUrl(ptaiUrl);
+
+        long count = BaseJsonHelper.processArray(issues, VulnerabilityModel.class, issue -> convert(issue, localizedIssuesHeaders, res));
+        log.debug("{} issues are converted", count);
+        res.setIssuesParseOk(true);
+        return res;
+    }
+
     /**
      * Convert PT AI version-dependent sacn statistics into version-agnostic data
      * @param statistic PT AI 4.4.X scan statistics
@@ -1,13 +1,14 @@
 package com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.tasks;
 
-import com.microsoft.signalr.HubConnection;
 import com.ptsecurity.appsec.ai.ee.scan.errors.Error;
 import com.ptsecurity.appsec.ai.ee.scan.progress.Stage;
 import com.ptsecurity.appsec.ai.ee.scan.reports.Reports;
 import com.ptsecurity.appsec.ai.ee.scan.result.ScanBrief;
 import com.ptsecurity.appsec.ai.ee.scan.result.ScanResult;
+import com.ptsecurity.appsec.ai.ee.server.v44x.api.ApiException;
 import com.ptsecurity.appsec.ai.ee.server.v44x.api.model.*;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.AbstractApiClient;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.NotificationHub;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.ApiClient;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.converters.EnumsConverter;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.converters.IssuesConverter;
@@ -15,22 +16,29 @@ import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.converters.Scan
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.GenericAstTasks;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.ServerVersionTasks;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ChunkedUploader;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ScanCompletionWaiter;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ZipStreamBody;
 import com.ptsecurity.misc.tools.exceptions.GenericException;
 import lombok.NonNull;
-import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.MultipartBody;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 import java.io.File;
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static com.ptsecurity.appsec.ai.ee.scan.progress.Stage.*;
 import static com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v44x.converters.IssuesConverter.convert;
+import static com.ptsecurity.misc.tools.helpers.CallHelper.await;
 import static com.ptsecurity.misc.tools.helpers.CallHelper.call;
+import static com.ptsecurity.misc.tools.helpers.CallHelper.callAsync;
 
 @Slf4j
 public class GenericAstTasksImpl extends AbstractTaskImpl implements GenericAstTasks {
@@ -39,7 +47,56 @@ public class GenericAstTasksImpl extends AbstractTaskImpl implements GenericAstT
     }
 
     public void upload(@NonNull final UUID projectId, @NonNull final File sources) throws GenericException {
-        call(() -> client.getStoreApi().apiStoreProjectIdSourcesPost(projectId, true, true, sources), "PT AI project sources upload failed");
+        ChunkedUploader uploader = new ChunkedUploader(this, advancedSettings);
+        if (!uploader.isChunked(sources)) {
+            call(() -> client.getStoreApi().apiStoreProjectIdSourcesPost(projectId, true, true, sources), "PT AI project sources upload failed");
+            return;
+        }
+        uploader.upload(sources, new ChunkedUploader.UploadSession() {
+            @Override
+            public ChunkedUploader.Session create() throws ApiException {
+                UploadSessionModel session = client.getStoreApi().apiStoreUploadSessionPost();
+                return new ChunkedUploader.Session(Objects.requireNonNull(session.getId()), session.getMaxBytes());
+            }
+
+            @Override
+            public void add(@NonNull final UUID uploadId, @NonNull final String fileName, @NonNull final RequestBody chunk) throws ApiException {
+                // Generated API call has no form parameters, so we need to set multipart request body manually
+                Call call = client.getStoreApi().apiStoreUploadSessionUploadIdAddPostCall(uploadId, null);
+                Request request = call.request().newBuilder()
+                        .post(new MultipartBody.Builder()
+                                .setType(MultipartBody.FORM)
+                                .addFormDataPart("files", fileName, chunk)
+                                .build())
+                        .build();
+                client.getStoreApi().getApiClient().execute(client.getStoreApi().getApiClient().getHttpClient().newCall(request));
+            }
+
+            @Override
+            public void cancel(@NonNull final UUID uploadId) throws ApiException {
+                client.getStoreApi().apiStoreUploadSessionUploadIdCancelPost(uploadId);
+            }
+
+            @Override
+            public void complete(@NonNull final UUID uploadId) throws ApiException {
+                client.getStoreApi().apiStoreUploadSessionUploadIdProjectProjectIdPost(uploadId, projectId, true);
+            }
+        });
+    }
+
+    public void upload(@NonNull final UUID projectId, @NonNull final ZipStreamBody sources) throws GenericException {
+        call(() -> {
+            // Generated API call requires sources file, so we pass file name placeholder to let it
+            // build URL, query and authentication headers and set multipart request body manually then
+            Call call = client.getStoreApi().apiStoreProjectIdSourcesPostCall(projectId, true, true, new File(ZipStreamBody.FILE_NAME), null);
+            Request request = call.request().newBuilder()
+                    .post(new MultipartBody.Builder()
+                            .setType(MultipartBody.FORM)
+                            .addFormDataPart("files", ZipStreamBody.FILE_NAME, sources)
+                            .build())
+                    .build();
+            client.getStoreApi().getApiClient().execute(client.getStoreApi().getApiClient().getHttpClient().newCall(request));
+        }, "PT AI project sources upload failed");
     }
 
     @Override
@@ -61,96 +118,32 @@ public class GenericAstTasksImpl extends AbstractTaskImpl implements GenericAstT
                 "Failed to get AST result URL");
     }
 
-    public static class ProjectPollingThread implements Runnable {
-        protected final ApiClient client;
-
-        protected final UUID projectId;
-        protected final UUID scanResultId;
-        protected final BlockingQueue<Stage> queue;
-
-        protected final Thread thread;
-
-        protected boolean exit = false;
-
-        public ProjectPollingThread(@NonNull final ApiClient client, @NonNull final ScanBrief scanBrief, final BlockingQueue<@NonNull Stage> queue) {
-            log.trace("AST job state polling thread created for project {}, scan result {}", scanBrief);
-            this.client = client;
-            this.projectId = scanBrief.getProjectId();
-            this.scanResultId = scanBrief.getId();
-            this.queue = queue;
-
-            this.thread = new Thread(this);
-            this.thread.start();
-        }
-
-        @Override
-        public void run() {
-            final int interval = client.getAdvancedSettings().getInt(AdvancedSettings.SettingInfo.AST_JOB_POLL_INTERVAL);
-            while (true) {
-                try {
-                    Thread.sleep(1000);
-                    if (exit) break;
-                    if (interval > Duration.between(lastResetTime, LocalDateTime.now()).getSeconds()) continue;
-                    log.trace("Poll {} project {} scan state", projectId, scanResultId);
-                    ScanResultModel scanResult = call(
-                            () -> client.getProjectsApi().apiProjectsProjectIdScanResultsScanResultIdGet(projectId, scanResultId),
-                            "Get project scan result failed");
-                    reset();
-                    // TODO: Properly process this
-                    if (null == scanResult.getProgress()) break;
-                    if (null == scanResult.getProgress().getStage()) break;
-                    @NonNull Stage stage = EnumsConverter.convert(scanResult.getProgress().getStage());
-                    if (DONE != stage && ABORTED != stage && FAILED != stage) continue;
-                    log.trace("Stop job from polling thread");
-                    queue.add(stage);
-                    break;
-                } catch (GenericException e) {
-                    log.error("Project polling thread failed to get scan state", e);
-                    break;
-                } catch (InterruptedException e) {
-                    log.error("Project polling thread interrupted", e);
-                    break;
-                }
-            }
-        }
-
-        public void stop() {
-            exit = true;
-        }
-
-        @ToString.Exclude
-        @NonNull
-        protected LocalDateTime lastResetTime = LocalDateTime.now();
-
-        public synchronized void reset() {
-            lastResetTime = LocalDateTime.now();
-            log.trace("Reset polling thread last activity time to {}", lastResetTime);
-        }
-    }
-
     @Override
     public void waitForComplete(@NonNull final ScanBrief scanBrief) throws InterruptedException {
-        // Semaphore-based implementation was replaced by queue-based as
-        // waitForComplete unblocking may be done on several events like
-        // ScanCompleted and ScanProgress with aborted and failed stage values
-        BlockingQueue<Stage> queue = new LinkedBlockingDeque<>();
-
-        // As sometimes notifications get lost somewhere we need to implement parallel polling thread
-        ProjectPollingThread pollingThread = new ProjectPollingThread(client, scanBrief, queue);
-        HubConnection connection = client.createSignalrConnection(scanBrief, queue, pollingThread);
-        client.wait(connection, scanBrief);
-
-        Stage stage = queue.take();
-        connection.stop().blockingAwait();
-        pollingThread.stop();
+        // Waiter may be completed on several events like ScanCompleted and ScanProgress with aborted
+        // and failed stage values. As sometimes notifications get lost somewhere, waiter also polls scan state
+        try (ScanCompletionWaiter waiter = new ScanCompletionWaiter(client.getAdvancedSettings(), () -> {
+            ScanResultModel scanResult = call(
+                    () -> client.getProjectsApi().apiProjectsProjectIdScanResultsScanResultIdGet(scanBrief.getProjectId(), scanBrief.getId()),
+                    "Get project scan result failed");
+            return null == scanResult.getProgress() || null == scanResult.getProgress().getStage()
+                    ? null
+                    : EnumsConverter.convert(scanResult.getProgress().getStage());
+        })) {
+            // Scan notifications are received using SignalR connection that may be shared with other AST jobs
+            Stage stage;
+            try (NotificationHub.Subscription ignored = client.subscribe(scanBrief, waiter)) {
+                stage = waiter.await();
+            }
 
-        scanBrief.setState(FAILED == stage
-                ? ScanBrief.State.FAILED
-                : ABORTED == stage
-                ? ScanBrief.State.ABORTED
-                : DONE == stage
-                ? ScanBrief.State.DONE
-                : ScanBrief.State.UNKNOWN);
+            scanBrief.setState(FAILED == stage
+                    ? ScanBrief.State.FAILED
+                    : ABORTED == stage
+                    ? ScanBrief.State.ABORTED
+                    : DONE == stage
+                    ? ScanBrief.State.DONE
+                    : ScanBrief.State.UNKNOWN);
+        }
     }
 
     public void stop(@NonNull UUID scanResultId) throws GenericException {
@@ -166,19 +159,24 @@ public class GenericAstTasksImpl extends AbstractTaskImpl implements GenericAstT
     @NonNull
     @Override
     public ScanBrief createScanBrief(@NonNull final UUID projectId, @NonNull final UUID scanResultId) throws GenericException {
-        String projectName = new ProjectTasksImpl(client).searchProject(projectId);
-        ScanResultModel scanResult = call(
+        // Load project name, scan settings and server versions concurrently
+        CompletableFuture<String> projectNameFuture = callAsync(
+                () -> new ProjectTasksImpl(client).searchProject(projectId),
+                "Project search failed");
+        CompletableFuture<ScanSettingsModel> scanSettingsFuture = callAsync(
                 () -> client.getProjectsApi().apiProjectsProjectIdScanResultsScanResultIdGet(projectId, scanResultId),
-                "Get project scan result failed");
-        log.debug("Project {} scan result {} load complete", projectId, scanResultId);
+                "Get project scan result failed")
+                .thenCompose(scanResult -> callAsync(
+                        () -> client.getProjectsApi().apiProjectsProjectIdScanSettingsScanSettingsIdGet(projectId, scanResult.getSettingsId()),
+                        "Get project scan settings failed"));
+        ServerVersionTasks serverVersionTasks = new ServerVersionTasksImpl(client);
+        CompletableFuture<Map<ServerVersionTasks.Component, String>> versionsFuture = callAsync(
+                serverVersionTasks::current, "PT AI server API version read failed");
 
-        ScanSettingsModel scanSettings = call(
-                () -> client.getProjectsApi().apiProjectsProjectIdScanSettingsScanSettingsIdGet(projectId, scanResult.getSettingsId()),
-                "Get project scan settings failed");
+        String projectName = await(projectNameFuture);
+        ScanSettingsModel scanSettings = await(scanSettingsFuture);
         log.debug("Project {} scan result {} settings loaded", projectId, scanResultId);
-
-        ServerVersionTasks serverVersionTasks = new ServerVersionTasksImpl(client);
-        Map<ServerVersionTasks.Component, String> versions = call(serverVersionTasks::current, "PT AI server API version read ailed");
+        Map<ServerVersionTasks.Component, String> versions = await(versionsFuture);
 
         return ScanBrief.builder()
                 .apiVersion(client.getApiVersion())
@@ -221,38 +219,52 @@ public class GenericAstTasksImpl extends AbstractTaskImpl implements GenericAstT
 
     @Override
     public ScanResult getScanResult(@NonNull UUID projectId, @NonNull UUID scanResultId) throws GenericException {
-        ScanResultModel scanResult = call(
+        // Scan result, localized issues headers, project name and server versions are
+        // independent from each other, so let's load them concurrently. Scan settings
+        // load depends on scan result only
+        log.trace("Loading project {} scan result {} data", projectId, scanResultId);
+        CompletableFuture<ScanResultModel> scanResultFuture = callAsync(
                 () -> client.getProjectsApi().apiProjectsProjectIdScanResultsScanResultIdGet(projectId, scanResultId),
                 "Get project scan result failed");
-        log.debug("Project {} scan result {} load complete", projectId, scanResultId);
-        List<VulnerabilityModel> issues = call(
-                () -> client.getProjectsApi().apiProjectsProjectIdScanResultsScanResultIdIssuesGet(projectId, scanResultId),
-                "Get project scan result failed");
-        log.debug("Project {} scan result {} issues load complete", projectId, scanResultId);
-
-        log.trace("Loading issues into temporal files");
-        Map<Reports.Locale, Map<String, String>> localizedIssuesHeaders = new HashMap<>();
-        for (Reports.Locale locale : Reports.Locale.values()) {
-            log.trace("Getting issues data using {} locale", locale);
-            Map<String, String> headers = call(
+        CompletableFuture<ScanSettingsModel> scanSettingsFuture = scanResultFuture.thenCompose(model -> callAsync(
+                () -> client.getProjectsApi().apiProjectsProjectIdScanSettingsScanSettingsIdGet(projectId, model.getSettingsId()),
+                "Get project scan settings failed"));
+        Map<Reports.Locale, CompletableFuture<Map<String, String>>> localizedIssuesHeadersFutures = new HashMap<>();
+        for (Reports.Locale locale : Reports.Locale.values())
+            localizedIssuesHeadersFutures.put(locale, callAsync(
                     () -> client.getProjectsApi().apiProjectsProjectIdScanResultsScanResultIdIssuesHeadersGet(projectId, scanResultId, locale.getValue()),
-                    "PT AI project localized scan status JSON read failed");
-            log.debug("Localized ({}) issues load complete", locale);
-            localizedIssuesHeaders.put(locale, headers);
-        }
-
-        log.trace("Loading project {} scan settings {}", projectId, scanResult.getSettingsId());
-        ScanSettingsModel scanSettings = call(
-                () -> client.getProjectsApi().apiProjectsProjectIdScanSettingsScanSettingsIdGet(projectId, scanResult.getSettingsId()),
-                "Get project scan settings failed");
-        log.debug("Project {} scan result {} settings loaded", projectId, scanResultId);
-
-        String projectName = call(() -> Objects.requireNonNull(new ProjectTasksImpl(client).searchProject(projectId)), "Project not found");
+                    "PT AI project localized scan status JSON read failed"));
+        CompletableFuture<String> projectNameFuture = callAsync(
+                () -> Objects.requireNonNull(new ProjectTasksImpl(client).searchProject(projectId)),
+                "Project not found");
         ServerVersionTasks serverVersionTasks = new ServerVersionTasksImpl(client);
-        Map<ServerVersionTasks.Component, String> versions = call(serverVersionTasks::current, "PT AI server API version read ailed");
+        CompletableFuture<Map<ServerVersionTasks.Component, String>> versionsFuture = callAsync(
+                serverVersionTasks::current, "PT AI server API version read failed");
 
+        ScanResultModel scanResult = await(scanResultFuture);
+        ScanSettingsModel scanSettings = await(scanSettingsFuture);
+        Map<Reports.Locale, Map<String, String>> localizedIssuesHeaders = new HashMap<>();
+        for (Reports.Locale locale : Reports.Locale.values())
+            localizedIssuesHeaders.put(locale, await(localizedIssuesHeadersFutures.get(locale)));
+        String projectName = await(projectNameFuture);
+        Map<ServerVersionTasks.Component, String> versions = await(versionsFuture);
+        log.debug("Project {} scan result {} data load complete", projectId, scanResultId);
+
+        // As issues list may be huge, there's no need to deserialize it into
+        // List<VulnerabilityModel> with generated API method. Let's read response
+        // body as a stream and convert issues one by one instead
+        log.trace("Loading and converting project {} scan result {} issues", projectId, scanResultId);
         ScanResult res = call(
-                () -> convert(projectName, scanResult, issues, localizedIssuesHeaders, scanSettings, client.getConnectionSettings().getUrl(), versions), "Project scan result convert failed");
+                () -> {
+                    Call call = client.getProjectsApi().apiProjectsProjectIdScanResultsScanResultIdIssuesGetCall(projectId, scanResultId, null);
+                    try (Response response = call.execute()) {
+                        ResponseBody body = Objects.requireNonNull(response.body(), "Scan result issues response body is null");
+                        if (!response.isSuccessful())
+                            throw new ApiException(response.message(), response.code(), response.headers().toMultimap(), body.string());
+                        return convert(projectName, scanResult, body.byteStream(), localizedIssuesHeaders, scanSettings, client.getConnectionSettings().getUrl(), versions,
+                                advancedSettings.getInt(AdvancedSettings.SettingInfo.SCAN_RESULT_ISSUES_MEMORY_THRESHOLD));
+                    }
+                }, "Project scan result issues load and convert failed");
 
         log.debug("Project scan result conversion complete");
         return res;
@@ -38,8 +38,77 @@ public class AdvancedSettings implements Serializable {
         HTTP_REQUEST_WRITE_TIMEOUT("http.request.write.timeout", SettingType.INTEGER, 3600, Resources::i18n_ast_settings_advanced_http_request_write_timeout),
         AST_RESULT_REST_URL_FILENAME("ast.result.rest.url.filename", SettingType.STRING, "", Resources::i18n_ast_settings_advanced_ast_result_rest_url_filename),
         AST_DIAGNOSTIC_JSON_FILENAME("ast.diagnostic.json.filename", SettingType.STRING, "", Resources::i18n_ast_settings_advanced_ast_diagnostic_json_filename),
+        /**
+         * Size of report chunks that were transferred to Jenkins build agent separately
+         * @deprecated Reports are streamed without splitting into chunks, use {@link #JENKINS_DATA_BUFFER_SIZE} instead
+         */
+        @Deprecated
         JENKINS_DATA_CHUNK_SIZE("jenkins.data.chunk.size", SettingType.INTEGER, 10 * 1024 * 1024, Resources::i18n_ast_settings_advanced_jenkins_data_chunk_size),
-        AST_JOB_POLL_INTERVAL("ast.job.poll.interval", SettingType.INTEGER, 15, Resources::i18n_ast_settings_advanced_ast_job_poll_interval);
+        /**
+         * Size of buffer that AST report is streamed from Jenkins controller to build agent with
+         */
+        JENKINS_DATA_BUFFER_SIZE("jenkins.data.buffer.size", SettingType.INTEGER, 64 * 1024, Resources::i18n_ast_settings_advanced_jenkins_data_buffer_size),
+        /**
+         * Collect, pack and upload sources on Jenkins build agent, so sources archive isn't transferred to controller
+         */
+        JENKINS_AGENT_UPLOAD("jenkins.agent.upload", SettingType.BOOLEAN, Boolean.FALSE, Resources::i18n_ast_settings_advanced_jenkins_agent_upload),
+        /**
+         * Minimum and maximum AST task state polling intervals in seconds. Interval grows from minimum to
+         * maximum while scan state doesn't change and is reset by scan notifications
+         */
+        AST_JOB_POLL_MIN_INTERVAL("ast.job.poll.min.interval", SettingType.INTEGER, 2, Resources::i18n_ast_settings_advanced_ast_job_poll_min_interval),
+        AST_JOB_POLL_INTERVAL("ast.job.poll.interval", SettingType.INTEGER, 15, Resources::i18n_ast_settings_advanced_ast_job_poll_interval),
+        /**
+         * Share single SignalR connection between concurrent AST jobs that use the same server and credentials
+         */
+        NOTIFICATIONS_CONNECTION_SHARED("notifications.connection.shared", SettingType.BOOLEAN, Boolean.TRUE, Resources::i18n_ast_settings_advanced_notifications_connection_shared),
+        /**
+         * Maximum number of scan result issues to be kept on heap. Zero means no limit
+         */
+        SCAN_RESULT_ISSUES_MEMORY_THRESHOLD("scan.result.issues.memory.threshold", SettingType.INTEGER, 0, Resources::i18n_ast_settings_advanced_scan_result_issues_memory_threshold),
+        /**
+         * Maximum number of concurrently generated reports and data exports
+         */
+        REPORTS_EXPORT_PARALLELISM("reports.export.parallelism", SettingType.INTEGER, 1, Resources::i18n_ast_settings_advanced_reports_export_parallelism),
+        REPORTS_EXPORT_FAIL_FAST("reports.export.fail.fast", SettingType.BOOLEAN, Boolean.FALSE, Resources::i18n_ast_settings_advanced_reports_export_fail_fast),
+        /**
+         * Connection pool and dispatcher settings of OkHttpClient that is shared by all the PT AI REST API clients
+         */
+        HTTP_CONNECTION_POOL_MAX_IDLE("http.connection.pool.max.idle", SettingType.INTEGER, 5, Resources::i18n_ast_settings_advanced_http_connection_pool_max_idle),
+        HTTP_CONNECTION_POOL_KEEP_ALIVE("http.connection.pool.keep.alive", SettingType.INTEGER, 300, Resources::i18n_ast_settings_advanced_http_connection_pool_keep_alive),
+        HTTP_DISPATCHER_MAX_REQUESTS("http.dispatcher.max.requests", SettingType.INTEGER, 64, Resources::i18n_ast_settings_advanced_http_dispatcher_max_requests),
+        HTTP_DISPATCHER_MAX_REQUESTS_PER_HOST("http.dispatcher.max.requests.per.host", SettingType.INTEGER, 5, Resources::i18n_ast_settings_advanced_http_dispatcher_max_requests_per_host),
+        HTTP_PROTOCOL_HTTP2("http.protocol.http2", SettingType.BOOLEAN, Boolean.FALSE, Resources::i18n_ast_settings_advanced_http_protocol_http2),
+        /**
+         * Time in seconds detected PT AI server version is cached for. Zero value disables cache
+         */
+        SERVER_VERSION_CACHE_TTL("server.version.cache.ttl", SettingType.INTEGER, 3600, Resources::i18n_ast_settings_advanced_server_version_cache_ttl),
+        SERVER_VERSION_CACHE_PERSISTENT("server.version.cache.persistent", SettingType.BOOLEAN, Boolean.FALSE, Resources::i18n_ast_settings_advanced_server_version_cache_persistent),
+        /**
+         * Sources zip archive creation settings. Zero threads count means number of available processors
+         */
+        FILE_COLLECTOR_PACK_THREADS("file.collector.pack.threads", SettingType.INTEGER, 1, Resources::i18n_ast_settings_advanced_file_collector_pack_threads),
+        FILE_COLLECTOR_COMPRESSION_LEVEL("file.collector.compression.level", SettingType.INTEGER, -1, Resources::i18n_ast_settings_advanced_file_collector_compression_level),
+        FILE_COLLECTOR_STORED_EXTENSIONS("file.collector.stored.extensions", SettingType.STRING, "", Resources::i18n_ast_settings_advanced_file_collector_stored_extensions),
+        /**
+         * Collect files using NIO file tree walk with precompiled patterns instead of Ant directory scanner
+         */
+        FILE_COLLECTOR_WALK("file.collector.walk", SettingType.BOOLEAN, Boolean.FALSE, Resources::i18n_ast_settings_advanced_file_collector_walk),
+        /**
+         * Skip sources zip and upload if collected files are the same as ones uploaded by previous AST job
+         */
+        FILE_COLLECTOR_INCREMENTAL("file.collector.incremental", SettingType.BOOLEAN, Boolean.FALSE, Resources::i18n_ast_settings_advanced_file_collector_incremental),
+        /**
+         * Sources upload chunk size in bytes. Zero value means that sources are uploaded using single request
+         */
+        UPLOAD_CHUNK_SIZE("upload.chunk.size", SettingType.INTEGER, 0, Resources::i18n_ast_settings_advanced_upload_chunk_size),
+        UPLOAD_PARALLELISM("upload.parallelism", SettingType.INTEGER, 1, Resources::i18n_ast_settings_advanced_upload_parallelism),
+        UPLOAD_CHUNK_RETRIES("upload.chunk.retries", SettingType.INTEGER, 3, Resources::i18n_ast_settings_advanced_upload_chunk_retries),
+        /**
+         * Pack sources directly into upload request stream without intermediate archive file
+         */
+        UPLOAD_STREAMING("upload.streaming", SettingType.BOOLEAN, Boolean.FALSE, Resources::i18n_ast_settings_advanced_upload_streaming),
+        UPLOAD_STREAMING_BUFFER_SIZE("upload.streaming.buffer.size", SettingType.INTEGER, 1024 * 1024, Resources::i18n_ast_settings_advanced_upload_streaming_buffer_size);
 
         private final String name;
         private final SettingType type;
@@ -43,16 +43,25 @@ public abstract class AbstractJob extends AbstractTool {
     @Builder.Default
     protected AbstractApiClient client = null;
 
+    /**
+     * Already authenticated client that job's own client is derived from. If
+     * there's no shared client, job creates and authenticates new one
+     */
+    @Builder.Default
+    protected AbstractApiClient sharedClient = null;
+
     public JobExecutionResult execute() {
         try {
             init();
             validate();
-            client = Factory.client(this);
+            client = null == sharedClient ? Factory.client(this) : Factory.client(this, sharedClient);
 
             unsafeExecute();
             return JobExecutionResult.SUCCESS;
         } catch (GenericException e) {
             return processException(e);
+        } finally {
+            if (null != client) client.getScanResultCache().close();
         }
     }
 
@@ -14,6 +14,7 @@ import com.ptsecurity.appsec.ai.ee.utils.ci.integration.operations.AstOperations
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.operations.FileOperations;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.operations.SetupOperations;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.GenericAstTasks;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.SourcesManifest;
 import com.ptsecurity.misc.tools.helpers.BaseJsonHelper;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
@@ -57,6 +58,7 @@ public abstract class GenericAstJob extends AbstractJob implements EventConsumer
     @Builder.Default
     protected UUID projectId = null;
 
+    @Getter
     @Builder.Default
     protected UUID scanResultId = null;
 
@@ -80,6 +82,24 @@ public abstract class GenericAstJob extends AbstractJob implements EventConsumer
     @ToString.Exclude
     protected ScanBrief scanBrief = null;
 
+    /**
+     * Set if incremental sources collection found no changes since last upload,
+     * so sources weren't zipped and uploaded and scan uses sources that are already on server
+     */
+    @Getter
+    @Setter
+    @Builder.Default
+    protected boolean sourcesUnchanged = false;
+
+    /**
+     * Manifest of incrementally collected sources. It is saved after scan start
+     * together with scan result ID, see {@link SourcesManifest}
+     */
+    @Setter
+    @ToString.Exclude
+    @Builder.Default
+    protected SourcesManifest sourcesManifest = null;
+
     @Builder.Default
     protected List<Base> subJobs = new ArrayList<>();
 
@@ -113,14 +133,21 @@ public abstract class GenericAstJob extends AbstractJob implements EventConsumer
             job.validate();
 
         // Setup project
+        sourcesUnchanged = false;
+        sourcesManifest = null;
         projectId = setupOps.setupProject();
         info("PT AI project ID is " + projectId);
+        if (sourcesUnchanged) info("Scan will use previously uploaded sources");
 
         // Start scan
         process(Stage.ENQUEUED);
         GenericAstTasks genericAstTasks = new Factory().genericAstTasks(client);
         scanResultId = genericAstTasks.startScan(projectId, fullScanMode);
         info("Scan enqueued, project name: %s, id: %s, result id: %s", projectName, projectId, scanResultId);
+        if (null != sourcesManifest) {
+            sourcesManifest.setScanResultId(scanResultId);
+            sourcesManifest.save(SourcesManifest.file(client.getConnectionSettings().getUrl(), projectId));
+        }
         // Now we know scan result ID, so create initial scan brief with ID's and scan settings
         scanBrief = genericAstTasks.createScanBrief(projectId, scanResultId);
         scanBrief.setUseAsyncScan(async);
@@ -2,13 +2,18 @@ package com.ptsecurity.appsec.ai.ee.utils.ci.integration.operations;
 
 import com.ptsecurity.appsec.ai.ee.scan.progress.Stage;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.Factory;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
 import com.ptsecurity.misc.tools.exceptions.GenericException;
+import com.ptsecurity.misc.tools.helpers.CallHelper;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.GenericAstJob;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.GenericAstTasks;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.SourcesManifest;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ZipStreamBody;
 import lombok.NonNull;
 import lombok.experimental.SuperBuilder;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.UUID;
 
 @SuperBuilder
@@ -19,6 +24,49 @@ public abstract class AbstractSetupOperations implements SetupOperations {
     protected void uploadSources(@NonNull final UUID projectId) throws GenericException {
         // Zip sources and upload to server. Throw an exception if there are problems
         owner.process(Stage.ZIP);
+        SourcesManifest manifest = null;
+        if (owner.getAdvancedSettings().getBoolean(AdvancedSettings.SettingInfo.FILE_COLLECTOR_INCREMENTAL)) {
+            Path manifestFile = SourcesManifest.file(owner.getClient().getConnectionSettings().getUrl(), projectId);
+            SourcesManifest previous = SourcesManifest.load(manifestFile);
+            manifest = owner.getAstOps().createManifest(previous);
+            if (null != manifest && null != previous && manifest.sameContent(previous) && isLatestScan(projectId, previous)) {
+                owner.info("Sources are not changed since last upload, skip zip and upload");
+                owner.setSourcesUnchanged(true);
+                owner.setSourcesManifest(manifest);
+                return;
+            }
+        }
+        zipAndUpload(projectId);
+        // Manifest is saved by job after scan start, so it refers to scan result that uses these sources
+        owner.setSourcesManifest(manifest);
+    }
+
+    /**
+     * Check if project's latest scan result is the one that was started after manifest sources
+     * upload. If it isn't, project sources may be replaced by other AST job
+     */
+    private boolean isLatestScan(@NonNull final UUID projectId, @NonNull final SourcesManifest manifest) {
+        if (null == manifest.getScanResultId()) return false;
+        UUID latest = CallHelper.call(
+                () -> new Factory().projectTasks(owner.getClient()).getLatestAstResult(projectId),
+                "Latest project scan result read failed", true);
+        if (manifest.getScanResultId().equals(latest)) return true;
+        owner.fine("Project sources may be changed by other AST job since last upload");
+        return false;
+    }
+
+    private void zipAndUpload(@NonNull final UUID projectId) throws GenericException {
+        if (owner.getAstOps().uploadSources(projectId)) return;
+        ZipStreamBody.Writer writer = owner.getAdvancedSettings().getBoolean(AdvancedSettings.SettingInfo.UPLOAD_STREAMING)
+                ? owner.getAstOps().createZipWriter()
+                : null;
+        if (null != writer) {
+            // Sources are zipped while being uploaded
+            owner.process(Stage.UPLOAD);
+            long bufferSize = owner.getAdvancedSettings().getInt(AdvancedSettings.SettingInfo.UPLOAD_STREAMING_BUFFER_SIZE);
+            new Factory().genericAstTasks(owner.getClient()).upload(projectId, new ZipStreamBody(writer, bufferSize));
+            return;
+        }
         File sources = owner.getAstOps().createZip();
 
         owner.process(Stage.UPLOAD);
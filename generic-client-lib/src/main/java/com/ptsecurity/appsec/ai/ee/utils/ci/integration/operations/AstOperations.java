@@ -2,6 +2,8 @@ package com.ptsecurity.appsec.ai.ee.utils.ci.integration.operations;
 
 import com.ptsecurity.appsec.ai.ee.scan.result.ScanBrief;
 import com.ptsecurity.appsec.ai.ee.scan.result.ScanBriefDetailed;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.SourcesManifest;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ZipStreamBody;
 import com.ptsecurity.misc.tools.exceptions.GenericException;
 import lombok.NonNull;
 
@@ -25,6 +27,37 @@ public interface AstOperations {
      */
     File createZip() throws GenericException;
 
+    /**
+     * Create writer that packs sources directly into upload request stream, so there's no need
+     * for intermediate archive file. Environments that pack sources remotely, i.e. on Jenkins
+     * build agent, may return null and sources are uploaded using {@link #createZip()} then
+     * @return Zipped sources writer or null if streaming upload isn't supported
+     */
+    default ZipStreamBody.Writer createZipWriter() throws GenericException {
+        return null;
+    }
+
+    /**
+     * Collect, pack and upload sources directly from environment where those are located. For
+     * example, Jenkins plugin may upload sources from build agent, so archive isn't
+     * transferred to controller
+     * @param projectId PT AI project ID to upload sources to
+     * @return False if direct upload isn't supported, so sources are uploaded using {@link #createZip()}
+     */
+    default boolean uploadSources(@NonNull final UUID projectId) throws GenericException {
+        return false;
+    }
+
+    /**
+     * Collect sources and create their manifest that is used to check if sources
+     * are changed since last upload
+     * @param previous Manifest of last uploaded sources. May be null
+     * @return Sources manifest or null if incremental sources upload isn't supported
+     */
+    default SourcesManifest createManifest(final SourcesManifest previous) throws GenericException {
+        return null;
+    }
+
     /**
      * Callback method is being called when AST job is started on PT AI server.
      * AstJob descendants may use this callback to prepare for safe build
@@ -3,6 +3,7 @@ package com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks;
 import com.ptsecurity.appsec.ai.ee.scan.errors.Error;
 import com.ptsecurity.appsec.ai.ee.scan.result.ScanBrief;
 import com.ptsecurity.appsec.ai.ee.scan.result.ScanResult;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ZipStreamBody;
 import com.ptsecurity.misc.tools.exceptions.GenericException;
 import lombok.NonNull;
 
@@ -16,6 +17,11 @@ import java.util.UUID;
 public interface GenericAstTasks {
     void upload(@NonNull final UUID projectId, @NonNull final File sources) throws GenericException;
 
+    /**
+     * Upload sources that are zipped on the fly while request is being sent
+     */
+    void upload(@NonNull final UUID projectId, @NonNull final ZipStreamBody sources) throws GenericException;
+
     UUID startScan(@NonNull final UUID projectId, boolean fullScanMode) throws GenericException;
 
     String getScanResultUrl(@NonNull final UUID projectId, @NonNull final UUID scanResultId) throws GenericException;
@@ -6,6 +6,8 @@ import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.ConnectionSetting
 import com.ptsecurity.misc.tools.helpers.CertificateHelper;
 import lombok.NonNull;
 import lombok.SneakyThrows;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
 import org.apache.commons.lang3.StringUtils;
@@ -19,9 +21,11 @@ import java.security.KeyStore;
 import java.security.SecureRandom;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static com.ptsecurity.misc.tools.helpers.CertificateHelper.createTrustManager;
 import static org.joor.Reflect.on;
@@ -29,7 +33,7 @@ import static org.joor.Reflect.on;
 /**
  * As different openapi-generated XxxApi and ApiClient classes aren't implement
  * common interfaces and aren't inherited from some base class, we need easy way
- * to call methods with same signatures like setWriteTimeout etc. We'll use
+ * to call methods with same signatures like setBasePath etc. We'll use
  * reflection to do that
  */
 public class ApiClientHelper {
@@ -42,51 +46,81 @@ public class ApiClientHelper {
 
     /**
      * Initialize XxxApi's ApiClient: set up URL, timeouts, trusted
-     * certificate chains and jwt authentication class
+     * certificate chains and jwt authentication class. All the APIs share single
+     * OkHttpClient instance, so TLS sessions and idle connections are reused
      * @param client from where to get URL, timeouts etc. and whom APIs to init with these values
+     * @return OkHttpClient shared by all the client's APIs
      */
     @SneakyThrows
-    public static void initApiClient(@NonNull final AbstractApiClient client) {
+    public static OkHttpClient initApiClient(@NonNull final AbstractApiClient client) {
         @NonNull ConnectionSettings connectionSettings = client.getConnectionSettings();
 
+        OkHttpClient httpClient = null;
         for (Object api : client.getApis()) {
-            // Set API client URL and timeout
-            ApiClientHelper helper = new ApiClientHelper(api)
-                    .setBasePath(connectionSettings.getUrl())
-                    .setReadTimeout(1000 * client.getAdvancedSettings().getInt(AdvancedSettings.SettingInfo.HTTP_REQUEST_READ_TIMEOUT))
-                    .setWriteTimeout(1000 * client.getAdvancedSettings().getInt(AdvancedSettings.SettingInfo.HTTP_REQUEST_WRITE_TIMEOUT));
+            // Set API client URL
+            ApiClientHelper helper = new ApiClientHelper(api).setBasePath(connectionSettings.getUrl());
             // If custom certificates are defined, set API clients with those
-            if (null != client.getConnectionSettings().getCaCertsPem())
+            if (null != connectionSettings.getCaCertsPem())
                 helper.setSslCaCert(CertificateHelper.cleanupCaPem(connectionSettings.getCaCertsPem()));
-
-            X509TrustManager trustManager = createTrustManager(connectionSettings.getCaCertsPem(), connectionSettings.isInsecure());
-
-            OkHttpClient.Builder builder = helper.getHttpClient().newBuilder()
-                    .hostnameVerifier((hostname, session) -> true)
-                    .authenticator(new JwtAuthenticator(client))
-                    .addInterceptor(new LoggingInterceptor(client.getAdvancedSettings()))
-                    .protocols(Collections.singletonList(Protocol.HTTP_1_1));
-            if (null != trustManager) {
-                SSLContext sslContext = SSLContext.getInstance("TLS");
-                sslContext.init(null, new TrustManager[] { trustManager }, new SecureRandom());
-                builder.sslSocketFactory(sslContext.getSocketFactory(), trustManager);
-            }
-            helper.setHttpClient(builder.build());
+            // Use first API's generated OkHttpClient as a template for shared one
+            if (null == httpClient) httpClient = createHttpClient(client, helper.getHttpClient().newBuilder());
+            helper.setHttpClient(httpClient);
         }
+        return httpClient;
     }
 
-    protected ApiClientHelper setBasePath(String path) {
-        on(apiClient).call("setBasePath", path);
-        return this;
+    /**
+     * Initialize XxxApi's ApiClient using OkHttpClient of another client as a template. Connection
+     * pool, dispatcher, timeouts and TLS settings are shared with template while authentication
+     * is done on behalf of client being initialized
+     * @param client Client whom APIs to init
+     * @param template OkHttpClient of already initialized client
+     * @return OkHttpClient shared by all the client's APIs
+     */
+    public static OkHttpClient initApiClient(@NonNull final AbstractApiClient client, @NonNull final OkHttpClient template) {
+        OkHttpClient httpClient = template.newBuilder().authenticator(new JwtAuthenticator(client)).build();
+        for (Object api : client.getApis())
+            new ApiClientHelper(api).setBasePath(client.getConnectionSettings().getUrl()).setHttpClient(httpClient);
+        return httpClient;
     }
 
-    protected ApiClientHelper setReadTimeout(int value) {
-        on(apiClient).call("setReadTimeout", value);
-        return this;
+    @SneakyThrows
+    protected static OkHttpClient createHttpClient(@NonNull final AbstractApiClient client, @NonNull final OkHttpClient.Builder builder) {
+        @NonNull ConnectionSettings connectionSettings = client.getConnectionSettings();
+        @NonNull AdvancedSettings settings = client.getAdvancedSettings();
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(settings.getInt(AdvancedSettings.SettingInfo.HTTP_DISPATCHER_MAX_REQUESTS));
+        dispatcher.setMaxRequestsPerHost(settings.getInt(AdvancedSettings.SettingInfo.HTTP_DISPATCHER_MAX_REQUESTS_PER_HOST));
+        ConnectionPool connectionPool = new ConnectionPool(
+                settings.getInt(AdvancedSettings.SettingInfo.HTTP_CONNECTION_POOL_MAX_IDLE),
+                settings.getInt(AdvancedSettings.SettingInfo.HTTP_CONNECTION_POOL_KEEP_ALIVE), TimeUnit.SECONDS);
+        // HTTP/2 is negotiated using TLS ALPN, so plain HTTP connections will still use HTTP/1.1
+        List<Protocol> protocols = settings.getBoolean(AdvancedSettings.SettingInfo.HTTP_PROTOCOL_HTTP2)
+                ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                : Collections.singletonList(Protocol.HTTP_1_1);
+
+        builder
+                .readTimeout(settings.getInt(AdvancedSettings.SettingInfo.HTTP_REQUEST_READ_TIMEOUT), TimeUnit.SECONDS)
+                .writeTimeout(settings.getInt(AdvancedSettings.SettingInfo.HTTP_REQUEST_WRITE_TIMEOUT), TimeUnit.SECONDS)
+                .dispatcher(dispatcher)
+                .connectionPool(connectionPool)
+                .hostnameVerifier((hostname, session) -> true)
+                .authenticator(new JwtAuthenticator(client))
+                .addInterceptor(new LoggingInterceptor(settings))
+                .protocols(protocols);
+
+        X509TrustManager trustManager = createTrustManager(connectionSettings.getCaCertsPem(), connectionSettings.isInsecure());
+        if (null != trustManager) {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, new TrustManager[] { trustManager }, new SecureRandom());
+            builder.sslSocketFactory(sslContext.getSocketFactory(), trustManager);
+        }
+        return builder.build();
     }
 
-    protected ApiClientHelper setWriteTimeout(int value) {
-        on(apiClient).call("setWriteTimeout", value);
+    protected ApiClientHelper setBasePath(String path) {
+        on(apiClient).call("setBasePath", path);
         return this;
     }
 
@@ -0,0 +1,219 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.functions.TextOutput;
+import com.ptsecurity.misc.tools.TempFile;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import com.ptsecurity.misc.tools.helpers.CallHelper;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.FilenameUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.FileCollector.bytesToString;
+
+/**
+ * Uploads sources archive to PT AI server using store API upload session. Archive entries are
+ * copied as is to a split zip archive, so each chunk is a valid multi-volume zip part (name.z01,
+ * name.z02, ..., name.zip). Each chunk is sent as a separate request and retried independently,
+ * so network failure doesn't restart the whole upload from byte zero
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ChunkedUploader {
+    /**
+     * Version-dependent store API upload session calls
+     */
+    public interface UploadSession {
+        /**
+         * @return New upload session ID and maximum chunk size in bytes (or null if there's no such limit)
+         */
+        Session create() throws Exception;
+
+        void add(@NonNull final UUID uploadId, @NonNull final String fileName, @NonNull final RequestBody chunk) throws Exception;
+
+        void cancel(@NonNull final UUID uploadId) throws Exception;
+
+        /**
+         * Replace project sources with the ones uploaded during session
+         */
+        void complete(@NonNull final UUID uploadId) throws Exception;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Session {
+        @NonNull
+        private final UUID id;
+        private final Integer maxBytes;
+    }
+
+    /**
+     * Split zip archive volume size limits
+     */
+    public static final long MIN_CHUNK_SIZE = 64 * 1024;
+    public static final long MAX_CHUNK_SIZE = 4L * 1024 * 1024 * 1024 - 1;
+
+    @NonNull
+    protected final TextOutput output;
+
+    @NonNull
+    protected final AdvancedSettings settings;
+
+    /**
+     * @return True if sources archive is to be uploaded in chunks
+     */
+    public boolean isChunked(@NonNull final File sources) {
+        int chunkSize = settings.getInt(AdvancedSettings.SettingInfo.UPLOAD_CHUNK_SIZE);
+        return 0 < chunkSize && sources.length() > chunkSize;
+    }
+
+    public void upload(@NonNull final File sources, @NonNull final UploadSession uploadSession) throws GenericException {
+        Session session = CallHelper.call(uploadSession::create, "Upload session creation failed");
+        long chunkSize = settings.getInt(AdvancedSettings.SettingInfo.UPLOAD_CHUNK_SIZE);
+        if (null != session.getMaxBytes() && 0 < session.getMaxBytes() && session.getMaxBytes() < chunkSize)
+            chunkSize = session.getMaxBytes();
+        chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, chunkSize));
+        try (TempFile folder = TempFile.createFolder()) {
+            List<File> parts = split(sources, new File(folder.toFile(), FilenameUtils.getBaseName(sources.getName()) + ".zip"), chunkSize);
+            output.fine("Upload %s sources in %d chunks using session %s", bytesToString(sources.length()), parts.size(), session.getId());
+            upload(parts, session, uploadSession);
+        }
+    }
+
+    /**
+     * Copy zip archive entries to split zip archive without recompression
+     * @param sources Single-volume zip archive
+     * @param target Split archive last volume file. Other volumes are created in the same folder
+     * @param chunkSize Split archive volume size
+     * @return Split archive volumes in order
+     */
+    protected static List<File> split(@NonNull final File sources, @NonNull final File target, final long chunkSize) throws GenericException {
+        CallHelper.call(() -> {
+            try (ZipFile zip = new ZipFile(sources); ZipArchiveOutputStream out = new ZipArchiveOutputStream(target, chunkSize)) {
+                zip.copyRawEntries(out, entry -> true);
+            }
+        }, "Sources archive split failed");
+        String baseName = FilenameUtils.getBaseName(target.getName());
+        List<File> res = new ArrayList<>();
+        for (int i = 1; ; i++) {
+            File part = new File(target.getParentFile(), chunkName(baseName, i));
+            if (!part.isFile()) break;
+            res.add(part);
+        }
+        res.add(target);
+        return res;
+    }
+
+    protected void upload(
+            @NonNull final List<File> parts, @NonNull final Session session,
+            @NonNull final UploadSession uploadSession) throws GenericException {
+        int chunks = parts.size();
+
+        int threads = Math.max(1, Math.min(settings.getInt(AdvancedSettings.SettingInfo.UPLOAD_PARALLELISM), chunks));
+        final AtomicInteger counter = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ptai-upload-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (File part : parts)
+                futures.add(executor.submit(() -> {
+                    uploadChunk(session.getId(), uploadSession, part.getName(), chunk(part, 0, part.length()));
+                    return null;
+                }));
+            for (Future<Void> future : futures) future.get();
+            CallHelper.call(() -> uploadSession.complete(session.getId()), "Upload session completion failed");
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            log.debug("Cancel upload session {}", session.getId());
+            try {
+                uploadSession.cancel(session.getId());
+            } catch (Exception ce) {
+                log.debug("Upload session cancel failed", ce);
+            }
+            throw GenericException.raise("PT AI project sources upload failed", e instanceof ExecutionException ? e.getCause() : e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Upload single chunk. As chunk request body is re-read from file on each attempt, failed chunk upload
+     * may be retried without affecting other chunks
+     */
+    protected void uploadChunk(
+            @NonNull final UUID uploadId, @NonNull final UploadSession uploadSession,
+            @NonNull final String name, @NonNull final RequestBody chunk) throws GenericException, InterruptedException {
+        int retries = Math.max(0, settings.getInt(AdvancedSettings.SettingInfo.UPLOAD_CHUNK_RETRIES));
+        for (int attempt = 0; ; attempt++) {
+            try {
+                long start = System.nanoTime();
+                uploadSession.add(uploadId, name, chunk);
+                output.fine("Chunk %s uploaded in %.1fs", name, (System.nanoTime() - start) / 1e9d);
+                return;
+            } catch (Exception e) {
+                if (attempt >= retries)
+                    throw GenericException.raise("Chunk " + name + " upload failed", e);
+                log.debug("Chunk {} upload attempt {} failed", name, attempt + 1);
+                log.trace("Exception details", e);
+                output.fine("Chunk %s upload failed, retry in %d seconds", name, attempt + 1);
+                TimeUnit.SECONDS.sleep(attempt + 1);
+            }
+        }
+    }
+
+    /**
+     * Multi-volume zip archive part name: all parts except last one have z01, z02 etc. extensions
+     */
+    protected static String chunkName(@NonNull final String baseName, final int number) {
+        return String.format("%s.z%02d", baseName, number);
+    }
+
+    /**
+     * Create request body that streams file region
+     */
+    protected static RequestBody chunk(@NonNull final File file, final long offset, final long length) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return MediaType.parse("application/octet-stream");
+            }
+
+            @Override
+            public long contentLength() {
+                return length;
+            }
+
+            @Override
+            public void writeTo(@NonNull final BufferedSink sink) throws IOException {
+                try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+                    WritableByteChannel target = Channels.newChannel(sink.outputStream());
+                    // Channel transfer may write less bytes than requested
+                    for (long done = 0; done < length; )
+                        done += channel.transferTo(offset + done, length - done, target);
+                }
+            }
+        };
+    }
+}
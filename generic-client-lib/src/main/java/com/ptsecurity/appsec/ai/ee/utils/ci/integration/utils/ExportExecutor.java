@@ -0,0 +1,99 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.functions.TextOutput;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import com.ptsecurity.misc.tools.helpers.CallHelper;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes independent report exports using no more than parallelism threads. If parallelism
+ * equals 1, exports are executed sequentially in the calling thread. Export failures are
+ * either reported as warnings (collect-all mode) or stop remaining exports and are thrown
+ * to the caller (fail-fast mode)
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ExportExecutor {
+    @NonNull
+    protected final TextOutput output;
+
+    /**
+     * Maximum number of concurrently running exports
+     */
+    protected final int parallelism;
+
+    /**
+     * If true, first export failure cancels remaining exports
+     */
+    protected final boolean failFast;
+
+    protected final List<Pair<String, CallHelper.Runnable>> exports = new ArrayList<>();
+
+    public ExportExecutor add(@NonNull final String name, @NonNull final CallHelper.Runnable export) {
+        exports.add(new ImmutablePair<>(name, export));
+        return this;
+    }
+
+    public void execute() throws GenericException {
+        if (exports.isEmpty()) return;
+        int threads = Math.max(1, Math.min(parallelism, exports.size()));
+        log.debug("Execute {} exports using {} thread(s)", exports.size(), threads);
+        if (1 == threads) {
+            for (Pair<String, CallHelper.Runnable> export : exports)
+                processResult(export(export));
+            return;
+        }
+
+        final AtomicInteger counter = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ptai-export-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<GenericException> completionService = new ExecutorCompletionService<>(executor);
+            for (Pair<String, CallHelper.Runnable> export : exports)
+                completionService.submit(() -> export(export));
+            for (int i = 0; i < exports.size(); i++)
+                processResult(completionService.take().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw GenericException.raise("Reports export interrupted", e);
+        } catch (ExecutionException e) {
+            throw GenericException.raise("Reports export failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Execute single export and measure its duration
+     * @return Export failure or null if export succeeded
+     */
+    protected GenericException export(@NonNull final Pair<String, CallHelper.Runnable> export) {
+        long start = System.nanoTime();
+        GenericException res = null;
+        try {
+            CallHelper.call(export.getRight(), export.getLeft() + " failed");
+        } catch (GenericException e) {
+            res = e;
+        }
+        output.fine("%s %s in %.1fs", export.getLeft(), null == res ? "finished" : "failed", (System.nanoTime() - start) / 1e9d);
+        return res;
+    }
+
+    protected void processResult(final GenericException e) throws GenericException {
+        if (null == e) return;
+        if (failFast) throw e;
+        output.warning(e);
+    }
+}
@@ -3,19 +3,20 @@ package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
 import com.ptsecurity.appsec.ai.ee.scan.sources.Transfer;
 import com.ptsecurity.appsec.ai.ee.scan.sources.Transfers;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.AbstractTool;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
 import com.ptsecurity.misc.tools.TempFile;
 import com.ptsecurity.misc.tools.exceptions.GenericException;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.compress.archivers.ArchiveException;
-import org.apache.commons.compress.archivers.ArchiveOutputStream;
-import org.apache.commons.compress.archivers.ArchiveStreamFactory;
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.FileBasedScatterGatherBackingStore;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.Project;
@@ -26,13 +27,19 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
 
 import static com.ptsecurity.misc.tools.helpers.CallHelper.call;
-import static org.apache.commons.compress.archivers.ArchiveStreamFactory.ZIP;
 import static org.joor.Reflect.on;
 
 @Slf4j
-@RequiredArgsConstructor
 public class FileCollector {
 
     /**
@@ -60,6 +67,43 @@ public class FileCollector {
 
     private final AbstractTool owner;
 
+    /**
+     * Number of threads used to compress collected files and to walk transfers. If equals 1, files
+     * are compressed sequentially in calling thread. Zero value means number of available processors
+     */
+    private final int threads;
+
+    /**
+     * Use {@link TransferWalker} instead of Ant directory scanner to collect files
+     */
+    private final boolean walk;
+
+    /**
+     * Deflate compression level from 0 to 9 or -1 for default level
+     */
+    private final int compressionLevel;
+
+    /**
+     * Lower-case extensions of already compressed files like jar or png. Those files are
+     * added to zip without compression as deflating them takes time but doesn't reduce size
+     */
+    private final Set<String> storedExtensions;
+
+    public FileCollector(final Transfers transfers, final AbstractTool owner) {
+        this.transfers = transfers;
+        this.owner = owner;
+        AdvancedSettings settings = null == owner ? AdvancedSettings.getDefault() : owner.getAdvancedSettings();
+        int threads = settings.getInt(AdvancedSettings.SettingInfo.FILE_COLLECTOR_PACK_THREADS);
+        this.threads = 0 < threads ? threads : Runtime.getRuntime().availableProcessors();
+        this.compressionLevel = settings.getInt(AdvancedSettings.SettingInfo.FILE_COLLECTOR_COMPRESSION_LEVEL);
+        this.walk = settings.getBoolean(AdvancedSettings.SettingInfo.FILE_COLLECTOR_WALK);
+        this.storedExtensions = Arrays.stream(settings.getString(AdvancedSettings.SettingInfo.FILE_COLLECTOR_STORED_EXTENSIONS).split(","))
+                .map(String::trim)
+                .map(String::toLowerCase)
+                .filter(StringUtils::isNotEmpty)
+                .collect(Collectors.toSet());
+    }
+
     public void collect(@NonNull final File dir, @NonNull final File zip) throws GenericException {
         List<Entry> fileEntries = collectFiles(dir);
         call(
@@ -74,35 +118,73 @@ public class FileCollector {
 
     public static File collect(Transfers transfers, @NonNull final File dir, @NonNull final File zip, @NonNull AbstractTool owner) throws GenericException {
         return call(() -> {
-            owner.fine("Environment variables:");
-            final Map<String, String> environmentVariables = System.getenv();
-            environmentVariables.keySet().stream().sorted().forEach(key -> owner.fine("%s = %s", key, environmentVariables.get(key)));
-            owner.fine("Properties:");
-            Properties properties = System.getProperties();
-            properties.stringPropertyNames().forEach(key -> owner.fine("%s = %s", key, properties.getProperty(key)));
-
-            owner.fine("Create file collector");
             FileCollector collector = new FileCollector(transfers, owner);
-
-            if (!dir.exists() || !dir.canRead()) {
-                String reason = "Unknown problem with source folder " + dir.getAbsolutePath();
-                if (!dir.exists())
-                    reason = "Source folder " + dir.getAbsolutePath() + " does not exist";
-                else if (!dir.canRead())
-                    reason = "Source folder " + dir.getAbsolutePath() + " can not be read";
-                throw GenericException.raise("File collect failed", new IllegalArgumentException(reason));
-            } else
-                owner.info("Folder to collect files from is %s", dir.getAbsolutePath());
+            List<Entry> fileEntries = collector.collectSources(dir);
             owner.info("Sources will be zipped to %s", zip.getAbsolutePath());
-            List<Entry> fileEntries = collector.collectFiles(dir);
-            if (fileEntries.isEmpty())
-                throw new IllegalArgumentException("No files are match defined transfer settings");
             collector.packCollectedFiles(zip, fileEntries);
             owner.info("Zipped sources size is %s (%d bytes)", bytesToString(zip.length()), zip.length());
             return zip;
         }, "File collect failed");
     }
 
+    /**
+     * Collect files and write zipped sources to output stream. As output stream isn't seekable,
+     * files are always packed sequentially and STORED entries are read twice to calculate CRC
+     * @param output Stream that zipped sources are written to. Stream is closed after pack
+     */
+    public static void collect(Transfers transfers, @NonNull final File dir, @NonNull final OutputStream output, @NonNull AbstractTool owner) throws GenericException {
+        call(() -> {
+            FileCollector collector = new FileCollector(transfers, owner);
+            List<Entry> fileEntries = collector.collectSources(dir);
+            owner.info("Sources will be zipped to upload stream");
+            CountingOutputStream counter = new CountingOutputStream(output);
+            try (ZipArchiveOutputStream as = new ZipArchiveOutputStream(counter)) {
+                as.setLevel(collector.compressionLevel);
+                collector.packSequentially(as, fileEntries);
+                as.finish();
+            }
+            owner.info("Zipped sources size is %s (%d bytes)", bytesToString(counter.getByteCount()), counter.getByteCount());
+        }, "File collect failed");
+    }
+
+    /**
+     * Collect files and create their manifest. Sources aren't zipped
+     * @param previous Manifest of last uploaded sources. Its hashes are reused for files
+     *                 with the same size and modification time. May be null
+     */
+    public static SourcesManifest manifest(Transfers transfers, @NonNull final File dir, final SourcesManifest previous, @NonNull AbstractTool owner) throws GenericException {
+        return call(() -> {
+            FileCollector collector = new FileCollector(transfers, owner);
+            List<Entry> fileEntries = collector.collectSources(dir);
+            SourcesManifest manifest = SourcesManifest.create(fileEntries, previous);
+            owner.fine("Sources manifest contains %d entries", manifest.getItems().size());
+            return manifest;
+        }, "Sources manifest create failed");
+    }
+
+    private List<Entry> collectSources(@NonNull final File dir) throws GenericException {
+        owner.fine("Environment variables:");
+        final Map<String, String> environmentVariables = System.getenv();
+        environmentVariables.keySet().stream().sorted().forEach(key -> owner.fine("%s = %s", key, environmentVariables.get(key)));
+        owner.fine("Properties:");
+        Properties properties = System.getProperties();
+        properties.stringPropertyNames().forEach(key -> owner.fine("%s = %s", key, properties.getProperty(key)));
+
+        if (!dir.exists() || !dir.canRead()) {
+            String reason = "Unknown problem with source folder " + dir.getAbsolutePath();
+            if (!dir.exists())
+                reason = "Source folder " + dir.getAbsolutePath() + " does not exist";
+            else if (!dir.canRead())
+                reason = "Source folder " + dir.getAbsolutePath() + " can not be read";
+            throw GenericException.raise("File collect failed", new IllegalArgumentException(reason));
+        } else
+            owner.info("Folder to collect files from is %s", dir.getAbsolutePath());
+        List<Entry> fileEntries = collectFiles(dir);
+        if (fileEntries.isEmpty())
+            throw new IllegalArgumentException("No files are match defined transfer settings");
+        return fileEntries;
+    }
+
     private static final int MAX_DETAILS = 20;
 
     private void verboseCollectionDetails(String[] items, String prefix) {
@@ -137,17 +219,10 @@ public class FileCollector {
             log.debug("Transfers is null, use default transfers list");
             transfers = new Transfers().addTransfer(new Transfer());
         }
+        if (walk) return walkFiles(dir, transfers);
 
         for (Transfer transfer : transfers) {
-            // Normalize prefix
-            String removePrefix = Optional.ofNullable(
-                    FilenameUtils.separatorsToUnix(
-                            FilenameUtils.normalize(transfer.getRemovePrefix() + "/")))
-                    .orElse("");
-            if ('/' == removePrefix.charAt(0))
-                removePrefix = removePrefix.substring(1);
             verbose("Pattern separator = %s", transfer.getPatternSeparator().isEmpty() ? "[empty]" : transfer.getPatternSeparator());
-            verbose("Remove prefix = %s", removePrefix.isEmpty() ? "[empty]" : removePrefix);
             verbose("Includes = %s", transfer.getIncludes().isEmpty() ? "[empty]" : transfer.getIncludes());
             verbose("Use default excludes = %s", transfer.isUseDefaultExcludes());
 
@@ -176,28 +251,77 @@ public class FileCollector {
             verboseCollectionDetails(fileSet.getDirectoryScanner().getNotIncludedFiles(), "Not included files");
             verboseCollectionDetails(fileSet.getDirectoryScanner().getDeselectedFiles(), "Deselected files");
             verboseCollectionDetails(fileSet.getDirectoryScanner().getExcludedFiles(), "Excluded files");
-            // files is an array of this.srcDir - relative paths to files
-            Path parentFolder = dir.isDirectory() ? dir.toPath() : dir.getParentFile().toPath();
-            for (int i = 0 ; i < 2 ; i++) {
-                // Add all the folders then files
-                String[] items = 0 == i ? dirs : files;
-                for (String item : items) {
-                    // Normalize relative path
-                    Path itemPath = parentFolder.resolve(item);
-                    String relativePath = itemPath.toUri().normalize().getPath();
-                    relativePath = StringUtils.removeStart(relativePath, parentFolder.toUri().normalize().getPath());
-                    String entryName;
-                    if (transfer.isFlatten()) {
-                        if (0 == i) continue;
-                        entryName = itemPath.getFileName().toString();
-                    } else {
-                        if (!relativePath.startsWith(removePrefix))
-                            throw GenericException.raise("File collect failed", new IllegalArgumentException(String.format("File's %s does not starts with prefix %s", item, removePrefix)));
-                        entryName = StringUtils.removeStart(relativePath, removePrefix);
-                    }
-                    verbose("File %s will be added as %s", itemPath.toString(), entryName);
-                    res.add(new Entry(itemPath, entryName));
+            res.addAll(createEntries(transfer, dir, dirs, files));
+        }
+        return res;
+    }
+
+    /**
+     * Collect files using {@link TransferWalker}. Transfers are walked concurrently
+     * and resulting entries are merged in transfers order
+     */
+    private List<Entry> walkFiles(@NonNull final File dir, @NonNull final Transfers transfers) throws GenericException {
+        verbose("Walk %d transfers using %d threads", transfers.size(), Math.min(threads, transfers.size()));
+        final AtomicInteger counter = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, transfers.size())), runnable -> {
+            Thread thread = new Thread(runnable, "ptai-walk-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<TransferWalker>> walkers = new ArrayList<>();
+            for (Transfer transfer : transfers)
+                walkers.add(executor.submit(() -> new TransferWalker(transfer).walk(dir)));
+            List<Entry> res = new ArrayList<>();
+            for (int i = 0; i < transfers.size(); i++) {
+                final Future<TransferWalker> future = walkers.get(i);
+                TransferWalker walker = call(() -> future.get(), "File collect failed");
+                verboseCollectionDetails(walker.getFiles().toArray(new String[0]), "Included files");
+                verboseCollectionDetails(walker.getPrunedDirs().toArray(new String[0]), "Pruned dirs");
+                res.addAll(createEntries(transfers.get(i), dir, walker.getDirs().toArray(new String[0]), walker.getFiles().toArray(new String[0])));
+            }
+            return res;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Create collected folders and files entries applying transfer's remove prefix and flatten settings
+     * @param dirs Included folders relative paths
+     * @param files Included files relative paths
+     */
+    private List<Entry> createEntries(@NonNull final Transfer transfer, @NonNull final File dir, final String[] dirs, final String[] files) throws GenericException {
+        List<Entry> res = new ArrayList<>();
+        // Normalize prefix
+        String removePrefix = Optional.ofNullable(
+                FilenameUtils.separatorsToUnix(
+                        FilenameUtils.normalize(transfer.getRemovePrefix() + "/")))
+                .orElse("");
+        if ('/' == removePrefix.charAt(0))
+            removePrefix = removePrefix.substring(1);
+        verbose("Remove prefix = %s", removePrefix.isEmpty() ? "[empty]" : removePrefix);
+        // files is an array of this.srcDir - relative paths to files
+        Path parentFolder = dir.isDirectory() ? dir.toPath() : dir.getParentFile().toPath();
+        for (int i = 0 ; i < 2 ; i++) {
+            // Add all the folders then files
+            String[] items = 0 == i ? dirs : files;
+            for (String item : items) {
+                // Normalize relative path
+                Path itemPath = parentFolder.resolve(item);
+                String relativePath = itemPath.toUri().normalize().getPath();
+                relativePath = StringUtils.removeStart(relativePath, parentFolder.toUri().normalize().getPath());
+                String entryName;
+                if (transfer.isFlatten()) {
+                    if (0 == i) continue;
+                    entryName = itemPath.getFileName().toString();
+                } else {
+                    if (!relativePath.startsWith(removePrefix))
+                        throw GenericException.raise("File collect failed", new IllegalArgumentException(String.format("File's %s does not starts with prefix %s", item, removePrefix)));
+                    entryName = StringUtils.removeStart(relativePath, removePrefix);
                 }
+                verbose("File %s will be added as %s", itemPath.toString(), entryName);
+                res.add(new Entry(itemPath, entryName));
             }
         }
         return res;
@@ -214,7 +338,7 @@ public class FileCollector {
     ZipParameter.setFileNameInZip, but there's no way to pass array of ZipParameters into createSplitZipFile
     method.
      */
-    private void packCollectedFiles(@NonNull final File zip, final List<Entry> files) throws IOException, ArchiveException {
+    private void packCollectedFiles(@NonNull final File zip, final List<Entry> files) throws IOException, InterruptedException, ExecutionException {
         verbose("Pack collected files to %s", zip.getAbsolutePath());
         File destDir = zip.getParentFile();
 
@@ -222,22 +346,25 @@ public class FileCollector {
             verbose("Destination folder %s doesn't exist, creating", destDir.getAbsolutePath());
             destDir.mkdirs();
         }
-        OutputStream zfs = new FileOutputStream(zip);
-        ArchiveOutputStream as = new ArchiveStreamFactory().createArchiveOutputStream(ZIP, zfs);
-        verbose("Zip stream created");
+        // Zip file output stream is seekable, so there's no need to know STORED entries size and CRC in advance
+        try (ZipArchiveOutputStream as = new ZipArchiveOutputStream(zip)) {
+            as.setLevel(compressionLevel);
+            verbose("Zip stream created");
+            if (1 == threads)
+                packSequentially(as, files);
+            else
+                packConcurrently(as, files, destDir);
+            verbose("Closing zip stream");
+            as.finish();
+        }
+    }
 
+    private void packSequentially(@NonNull final ZipArchiveOutputStream as, final List<Entry> files) throws IOException {
         for (Entry entry : files) {
-            verbose("Add %s file as %s to zip stream", entry.path, entry.entryName);
-            // Check if this is symlink with missing destination
-            if (Files.isSymbolicLink(entry.path)) {
-                verbose("%s is a symbolic link, let's check if its destination exist", entry.path);
-                if (!Files.readSymbolicLink(entry.path).toFile().exists()) {
-                    verbose("Skip %s as there's no target file exist", entry.path);
-                    continue;
-                }
-            }
-
-            as.putArchiveEntry(new ZipArchiveEntry(entry.entryName));
+            if (skip(entry)) continue;
+            ZipArchiveEntry zipEntry = createArchiveEntry(entry);
+            if (!as.isSeekable() && ZipEntry.STORED == zipEntry.getMethod()) setChecksum(zipEntry, entry.path);
+            as.putArchiveEntry(zipEntry);
             if (!Files.isDirectory(entry.path)) {
                 BufferedInputStream is = new BufferedInputStream(new FileInputStream(entry.path.toFile()));
                 int size = IOUtils.copy(is, as);
@@ -247,9 +374,74 @@ public class FileCollector {
             as.closeArchiveEntry();
             verbose("File %s added as %s", entry.path, entry.entryName);
         }
-        verbose("Closing zip stream");
-        as.finish();
-        zfs.close();
+    }
+
+    /**
+     * Deflate collected files on a thread pool. Compressed entries are stored in temporary
+     * files in zip destination folder and then merged into zip archive in files list order
+     */
+    private void packConcurrently(@NonNull final ZipArchiveOutputStream as, final List<Entry> files, @NonNull final File tempDir) throws IOException, InterruptedException, ExecutionException {
+        verbose("Pack collected files using %d threads", threads);
+        final AtomicInteger counter = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ptai-zip-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ParallelScatterZipCreator creator = new ParallelScatterZipCreator(
+                executor,
+                () -> new FileBasedScatterGatherBackingStore(Files.createTempFile(tempDir.toPath(), "ptai-zip", ".tmp").toFile()),
+                compressionLevel);
+        try {
+            for (Entry entry : files) {
+                if (skip(entry)) continue;
+                ZipArchiveEntry zipEntry = createArchiveEntry(entry);
+                creator.addArchiveEntry(zipEntry, () -> Files.isDirectory(entry.path)
+                        ? new ByteArrayInputStream(new byte[0])
+                        : call(() -> new BufferedInputStream(new FileInputStream(entry.path.toFile())), "File open failed"));
+            }
+            // Method call blocks until all the entries are compressed and shuts executor down
+            creator.writeTo(as);
+        } finally {
+            executor.shutdownNow();
+        }
+        verbose("Files zipped: %s", creator.getStatisticsMessage());
+    }
+
+    /**
+     * Check if this is symlink with missing destination
+     */
+    private boolean skip(@NonNull final Entry entry) throws IOException {
+        verbose("Add %s file as %s to zip stream", entry.path, entry.entryName);
+        if (!Files.isSymbolicLink(entry.path)) return false;
+        verbose("%s is a symbolic link, let's check if its destination exist", entry.path);
+        if (Files.readSymbolicLink(entry.path).toFile().exists()) return false;
+        verbose("Skip %s as there's no target file exist", entry.path);
+        return true;
+    }
+
+    private ZipArchiveEntry createArchiveEntry(@NonNull final Entry entry) {
+        ZipArchiveEntry res = new ZipArchiveEntry(entry.entryName);
+        boolean stored = Files.isDirectory(entry.path) || storedExtensions.contains(FilenameUtils.getExtension(entry.entryName).toLowerCase());
+        res.setMethod(stored ? ZipEntry.STORED : ZipEntry.DEFLATED);
+        return res;
+    }
+
+    /**
+     * Zip stream that isn't seekable requires STORED entry size and CRC to be written in local
+     * file header before entry data, so we need to read file in advance
+     */
+    private static void setChecksum(@NonNull final ZipArchiveEntry zipEntry, @NonNull final Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        long size = 0;
+        if (!Files.isDirectory(path))
+            try (InputStream is = Files.newInputStream(path)) {
+                byte[] buffer = new byte[8192];
+                for (int count; IOUtils.EOF != (count = is.read(buffer)); size += count)
+                    crc.update(buffer, 0, count);
+            }
+        zipEntry.setSize(size);
+        zipEntry.setCrc(crc.getValue());
     }
 
     private static final double LOG1024 = Math.log10(1024);
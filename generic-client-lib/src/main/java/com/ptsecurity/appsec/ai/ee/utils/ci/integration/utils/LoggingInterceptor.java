@@ -7,7 +7,6 @@ import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import okio.Buffer;
 import okio.BufferedSink;
-import okio.BufferedSource;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -71,18 +70,19 @@ public class LoggingInterceptor implements Interceptor {
 
         if (logBody) {
             int maxBody = advancedSettings.getInt(LOGGING_HTTP_RESPONSE_MAX_BODY_SIZE);
-            if (0 != maxBody && null != response.body()) {
-                BufferedSource source = response.body().source();
-                source.request(Long.MAX_VALUE); // Buffer the entire body.
-                Buffer buffer = source.getBuffer();
-                if (buffer.size() < maxBody) maxBody = (int) buffer.size();
-                String bufferData = buffer.clone().readString(maxBody, StandardCharsets.UTF_8);
-
-                if (maxBody >= bufferData.length()) {
+            // Do not buffer the entire response body as it breaks streaming processing
+            // of huge responses like scan result issues. Peek first maxBody bytes only
+            if (log.isTraceEnabled() && 0 != maxBody && null != response.body()) {
+                long contentLength = response.body().contentLength();
+                ResponseBody peekedBody = response.peekBody(maxBody);
+                long peekedLength = peekedBody.contentLength();
+                String bufferData = peekedBody.string();
+
+                if (peekedLength < maxBody || peekedLength == contentLength) {
                     log.trace("Response body: {}", StringUtils.isEmpty(bufferData) ? "[empty]" : bufferData);
                 } else {
-                    log.trace("Response body trimmed to first {} bytes as it {} bytes long", maxBody, bufferData.length());
-                    log.trace("Trimmed response body: {}", bufferData.substring(0, maxBody));
+                    log.trace("Response body trimmed to first {} bytes as it {} bytes long", maxBody, -1L == contentLength ? "unknown" : contentLength);
+                    log.trace("Trimmed response body: {}", bufferData);
                 }
             }
         } else
@@ -0,0 +1,201 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.scan.progress.Stage;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ptsecurity.appsec.ai.ee.scan.progress.Stage.*;
+
+/**
+ * Waits for AST job completion that is signalled by SignalR notification or detected by scan
+ * state polling as notifications may get lost. Polling is adaptive: first poll is done after
+ * ast.job.poll.min.interval seconds and interval is doubled after each poll that doesn't show
+ * scan stage change up to ast.job.poll.interval seconds. Stage change detected by polling resets
+ * interval to minimum. Scan notification proves that notifications connection is alive, so it
+ * postpones next poll by maximum interval, and polls aren't sent while notifications are being
+ * delivered. Polls of all the waiters are executed by shared scheduler
+ */
+@Slf4j
+public class ScanCompletionWaiter implements AutoCloseable {
+    /**
+     * Version-dependent scan state REST API call
+     */
+    @FunctionalInterface
+    public interface StagePoller {
+        /**
+         * @return Current scan stage or null if it is unknown
+         */
+        Stage poll() throws Exception;
+    }
+
+    /**
+     * Delayed poll executor. Default one is shared by all the waiters
+     */
+    public interface Scheduler {
+        Future<?> schedule(@NonNull final Runnable task, final long delayMillis);
+
+        void shutdown();
+    }
+
+    protected static final AtomicInteger COUNTER = new AtomicInteger(0);
+
+    /**
+     * Maximum number of concurrently executed polls of all the waiters
+     */
+    protected static final int SCHEDULER_POOL_SIZE = 4;
+
+    protected static final Scheduler SHARED_SCHEDULER = sharedScheduler();
+
+    /**
+     * Completed with final scan stage. Completion cancels polling
+     */
+    @Getter
+    protected final CompletableFuture<Stage> result = new CompletableFuture<>();
+
+    @NonNull
+    protected final StagePoller poller;
+
+    protected final long minInterval;
+
+    protected final long maxInterval;
+
+    protected final Scheduler scheduler;
+
+    protected long interval;
+
+    protected Stage lastStage = null;
+
+    protected Future<?> next = null;
+
+    /**
+     * Incremented each time poll is scheduled, so poll that was superseded by reset doesn't schedule next one
+     */
+    protected long generation = 0;
+
+    public ScanCompletionWaiter(@NonNull final AdvancedSettings settings, @NonNull final StagePoller poller) {
+        this(poller,
+                TimeUnit.SECONDS.toMillis(settings.getInt(AdvancedSettings.SettingInfo.AST_JOB_POLL_MIN_INTERVAL)),
+                TimeUnit.SECONDS.toMillis(settings.getInt(AdvancedSettings.SettingInfo.AST_JOB_POLL_INTERVAL)));
+    }
+
+    protected ScanCompletionWaiter(@NonNull final StagePoller poller, final long minInterval, final long maxInterval) {
+        this(poller, minInterval, maxInterval, SHARED_SCHEDULER);
+    }
+
+    protected ScanCompletionWaiter(
+            @NonNull final StagePoller poller, final long minInterval, final long maxInterval,
+            @NonNull final Scheduler scheduler) {
+        this.poller = poller;
+        this.maxInterval = Math.max(1, maxInterval);
+        this.minInterval = Math.max(1, Math.min(minInterval, this.maxInterval));
+        this.interval = this.minInterval;
+        this.scheduler = scheduler;
+        result.whenComplete((stage, e) -> {
+            synchronized (this) {
+                if (null != next) next.cancel(false);
+            }
+            scheduler.shutdown();
+        });
+        schedule(interval);
+    }
+
+    /**
+     * Scan notification received: postpone next poll by maximum interval. Current
+     * interval is kept, so polling continues from it if notifications stop
+     */
+    public synchronized void reset() {
+        if (result.isDone()) return;
+        log.trace("Postpone scan state poll");
+        if (null != next) next.cancel(false);
+        schedule(maxInterval);
+    }
+
+    /**
+     * Scan completion notification received
+     */
+    public void complete(@NonNull final Stage stage) {
+        log.trace("Scan complete with stage {}", stage);
+        result.complete(stage);
+    }
+
+    public Stage await() throws InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException | CancellationException e) {
+            log.debug("Scan completion wait failed");
+            log.trace("Exception details", e);
+            return UNKNOWN;
+        }
+    }
+
+    @Override
+    public void close() {
+        result.cancel(false);
+    }
+
+    protected synchronized void schedule(final long delay) {
+        if (result.isDone()) return;
+        try {
+            final long current = ++generation;
+            next = scheduler.schedule(() -> poll(current), delay);
+        } catch (RejectedExecutionException e) {
+            log.trace("Scan state polling is already stopped");
+        }
+    }
+
+    protected void poll(final long current) {
+        if (result.isDone()) return;
+        Stage stage = null;
+        try {
+            log.trace("Poll scan state");
+            stage = poller.poll();
+        } catch (Exception e) {
+            log.debug("Scan state poll failed");
+            log.trace("Exception details", e);
+        }
+        if (DONE == stage || ABORTED == stage || FAILED == stage) {
+            log.trace("Scan completion detected by polling");
+            result.complete(stage);
+            return;
+        }
+        synchronized (this) {
+            if (current != generation) return;
+            interval = null != stage && stage != lastStage ? minInterval : Math.min(maxInterval, interval * 2);
+            if (null != stage) lastStage = stage;
+            log.trace("Next scan state poll in {} ms", interval);
+            schedule(interval);
+        }
+    }
+
+    /**
+     * Create scheduler that is shared by all the waiters in process. As polls are blocking REST API
+     * calls, scheduler uses small thread pool whose idle threads are released after a minute
+     */
+    protected static Scheduler sharedScheduler() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(SCHEDULER_POOL_SIZE, runnable -> {
+            Thread thread = new Thread(runnable, "ptai-scan-poll-" + COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        // Each notification cancels pending poll, so cancelled ones must not stay in queue until their time
+        executor.setRemoveOnCancelPolicy(true);
+        return new Scheduler() {
+            @Override
+            public Future<?> schedule(@NonNull final Runnable task, final long delayMillis) {
+                return executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public void shutdown() {
+                // Shared executor is never stopped, waiter cancels its pending poll on completion
+            }
+        };
+    }
+}
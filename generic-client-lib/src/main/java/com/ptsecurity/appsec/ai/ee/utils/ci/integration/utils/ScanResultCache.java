@@ -0,0 +1,112 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanResult;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import com.ptsecurity.misc.tools.helpers.CallHelper;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Scan results that are already loaded from PT AI server. As full scan result
+ * load and conversion is expensive (issues JSON may be tens of megabytes), we need
+ * to load it once and share between RAW JSON, SARIF and SonarQube GIIF exports etc.
+ * Cached scan results must not be modified by their consumers, use
+ * {@link ScanResultHelper#filter} to get filtered copy. Cache stores scan result
+ * load futures, so load is done outside of map locks and concurrent consumers of
+ * the same scan result wait for its single load. As cached scan result is kept for
+ * the whole job and each export makes its filtered copy, cached scan results always
+ * use disk-backed issues storage, so neither cached result nor its copies keep all
+ * the issues on heap
+ */
+@Slf4j
+public class ScanResultCache implements Closeable {
+    /**
+     * Maximum number of cached scan result issues to be kept on heap if
+     * scan.result.issues.memory.threshold advanced setting isn't defined
+     */
+    public static final int DEFAULT_ISSUES_MEMORY_THRESHOLD = 10_000;
+
+    @Getter
+    protected final int issuesMemoryThreshold;
+
+    public ScanResultCache() {
+        this(0);
+    }
+
+    /**
+     * @param issuesMemoryThreshold Maximum number of cached scan result issues to be kept on heap.
+     *                              Non-positive value means {@link #DEFAULT_ISSUES_MEMORY_THRESHOLD}
+     */
+    public ScanResultCache(final int issuesMemoryThreshold) {
+        this.issuesMemoryThreshold = 0 < issuesMemoryThreshold ? issuesMemoryThreshold : DEFAULT_ISSUES_MEMORY_THRESHOLD;
+    }
+
+    private final Map<Pair<UUID, UUID>, CompletableFuture<ScanResult>> scanResults = new ConcurrentHashMap<>();
+
+    /**
+     * Get cached scan result or load it using loader function if there's no such scan result in cache.
+     * Concurrent calls for the same scan result are waiting for the single load to complete
+     * @param projectId PT AI project ID
+     * @param scanResultId PT AI scan result ID
+     * @param loader Function that loads scan result from PT AI server
+     * @return Cached scan result
+     * @throws GenericException Scan result load failed
+     */
+    @NonNull
+    public ScanResult get(
+            @NonNull final UUID projectId, @NonNull final UUID scanResultId,
+            @NonNull final CallHelper.Callable<ScanResult> loader) throws GenericException {
+        Pair<UUID, UUID> key = new ImmutablePair<>(projectId, scanResultId);
+        CompletableFuture<ScanResult> future = new CompletableFuture<>();
+        CompletableFuture<ScanResult> existing = scanResults.putIfAbsent(key, future);
+        if (null != existing) return await(existing);
+
+        log.debug("Scan result {} for project {} not found in cache, loading it", scanResultId, projectId);
+        try {
+            ScanResult res = CallHelper.call(loader, "Scan result load failed");
+            // Does nothing if loader already used disk-backed storage
+            res.useDiskBackedIssues(issuesMemoryThreshold);
+            future.complete(res);
+            return res;
+        } catch (RuntimeException e) {
+            // Failed load must not be cached, so next call will retry it
+            scanResults.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    protected static ScanResult await(@NonNull final CompletableFuture<ScanResult> future) throws GenericException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw GenericException.raise("Scan result load wait interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GenericException) throw (GenericException) e.getCause();
+            throw GenericException.raise("Scan result load failed", e.getCause());
+        }
+    }
+
+    /**
+     * Remove all cached scan results and release resources they use
+     */
+    @Override
+    public void close() {
+        for (CompletableFuture<ScanResult> future : scanResults.values()) {
+            if (!future.isDone() || future.isCompletedExceptionally()) continue;
+            future.join().close();
+        }
+        scanResults.clear();
+    }
+}
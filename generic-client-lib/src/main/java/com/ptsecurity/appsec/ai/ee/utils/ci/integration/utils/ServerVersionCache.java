@@ -0,0 +1,137 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PT AI API client implementations that were detected as compatible with PT AI servers.
+ * As server version detection requires sequential authentication attempts using
+ * each of the registered API client versions, we store detection results in memory
+ * and, optionally, in a file. Cache entry value is an API client class name
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ServerVersionCache {
+    /**
+     * Default persistent cache file that resides in user cache directory
+     */
+    public static final Path DEFAULT_FILE = Paths.get(System.getProperty("user.home"), ".cache", "ptai", "server-versions.properties");
+
+    /**
+     * Persistent cache file
+     */
+    @NonNull
+    @Getter
+    protected final Path file;
+
+    @RequiredArgsConstructor
+    protected static class Entry {
+        @NonNull
+        protected final String clientClassName;
+        @NonNull
+        protected final Instant timestamp;
+    }
+
+    protected final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Get API client class name that was detected as compatible with PT AI server
+     * @param url PT AI server URL
+     * @param ttl Cache entry time-to-live in seconds
+     * @param persistent If true and there's no entry in memory, cache file is also checked
+     * @return API client class name or null if there's no such entry or entry is expired
+     */
+    public String get(@NonNull final String url, final int ttl, final boolean persistent) {
+        String key = key(url);
+        Entry entry = entries.get(key);
+        if (null == entry && persistent) {
+            entry = load().get(key);
+            if (null != entry) entries.put(key, entry);
+        }
+        if (null == entry) return null;
+        if (Duration.between(entry.timestamp, Instant.now()).getSeconds() >= ttl) {
+            log.debug("Cached API client {} for {} is expired", entry.clientClassName, url);
+            return null;
+        }
+        return entry.clientClassName;
+    }
+
+    public void put(@NonNull final String url, @NonNull final String clientClassName, final boolean persistent) {
+        entries.put(key(url), new Entry(clientClassName, Instant.now()));
+        if (persistent) save(key(url));
+    }
+
+    public void remove(@NonNull final String url, final boolean persistent) {
+        entries.remove(key(url));
+        if (persistent) save(key(url));
+    }
+
+    protected static String key(@NonNull final String url) {
+        return StringUtils.removeEnd(url.trim(), "/").toLowerCase();
+    }
+
+    /**
+     * Read cache file entries. As cache is an optimization only, file read
+     * errors are logged and cause empty result
+     */
+    protected synchronized Map<String, Entry> load() {
+        Map<String, Entry> res = new ConcurrentHashMap<>();
+        if (!file.toFile().isFile()) return res;
+        Properties properties = new Properties();
+        try (InputStream is = Files.newInputStream(file)) {
+            properties.load(is);
+        } catch (Exception e) {
+            log.debug("Server version cache file {} read failed", file);
+            log.trace("Exception details", e);
+            return res;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            String[] value = properties.getProperty(key).split("\\|");
+            if (2 != value.length || !StringUtils.isNumeric(value[1])) continue;
+            res.put(key, new Entry(value[0], Instant.ofEpochMilli(Long.parseLong(value[1]))));
+        }
+        return res;
+    }
+
+    /**
+     * Update cache file entry with in-memory one. File is written to temporary
+     * one and moved then, so concurrent readers never see partial data
+     */
+    protected synchronized void save(@NonNull final String key) {
+        Map<String, Entry> merged = load();
+        Entry current = entries.get(key);
+        if (null == current)
+            merged.remove(key);
+        else
+            merged.put(key, current);
+        Properties properties = new Properties();
+        for (Map.Entry<String, Entry> entry : merged.entrySet())
+            properties.setProperty(entry.getKey(), entry.getValue().clientClassName + "|" + entry.getValue().timestamp.toEpochMilli());
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try (OutputStream os = Files.newOutputStream(temp)) {
+                properties.store(os, "PT AI server API client versions cache");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.debug("Server version cache file {} write failed", file);
+            log.trace("Exception details", e);
+        }
+    }
+}
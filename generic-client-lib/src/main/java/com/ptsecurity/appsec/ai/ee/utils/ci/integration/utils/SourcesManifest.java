@@ -0,0 +1,176 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.misc.tools.helpers.HashHelper;
+import lombok.*;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Collected sources manifest: entry name to file size, modification time and SHA-256 hash map.
+ * Manifest of last uploaded sources is stored in user cache directory, so next AST job may
+ * compare it with current sources and skip zip and upload if nothing is changed. As project
+ * sources may be replaced by other AST jobs, manifest also stores ID of the scan result that was
+ * started using these sources. Upload may be skipped only if it is still project's latest scan result
+ */
+@Slf4j
+@ToString
+@NoArgsConstructor
+public class SourcesManifest implements Serializable {
+    /**
+     * Default folder where manifests of uploaded sources are stored
+     */
+    public static final Path DEFAULT_FOLDER = Paths.get(System.getProperty("user.home"), ".cache", "ptai", "manifests");
+
+    /**
+     * Manifest file key of scan result ID. Entry names are relative, so this key can't clash with them
+     */
+    protected static final String SCAN_RESULT_ID_KEY = "/scanResultId";
+
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class Item implements Serializable {
+        private final long size;
+        private final long lastModified;
+        /**
+         * File contents SHA-256 hash. Empty string for folders
+         */
+        @NonNull
+        private final String hash;
+    }
+
+    @Getter
+    protected final Map<String, Item> items = new TreeMap<>();
+
+    /**
+     * ID of the scan result that was started using these sources
+     */
+    @Getter
+    @Setter
+    protected UUID scanResultId = null;
+
+    /**
+     * Create manifest for collected files. If previous manifest contains item with the same
+     * size and modification time, its hash is reused and file isn't read
+     * @param previous Manifest of last uploaded sources. May be null
+     */
+    public static SourcesManifest create(@NonNull final List<FileCollector.Entry> entries, final SourcesManifest previous) throws IOException {
+        SourcesManifest res = new SourcesManifest();
+        for (FileCollector.Entry entry : entries) {
+            // Skip broken symlinks as those aren't added to zip
+            if (!Files.exists(entry.getPath())) continue;
+            long lastModified = Files.getLastModifiedTime(entry.getPath()).toMillis();
+            if (Files.isDirectory(entry.getPath())) {
+                res.items.put(entry.getEntryName(), new Item(0, lastModified, ""));
+                continue;
+            }
+            long size = Files.size(entry.getPath());
+            Item item = null == previous ? null : previous.items.get(entry.getEntryName());
+            if (null == item || item.size != size || item.lastModified != lastModified)
+                item = new Item(size, lastModified, hash(entry.getPath()));
+            res.items.put(entry.getEntryName(), item);
+        }
+        return res;
+    }
+
+    /**
+     * Check if manifests describe the same sources. Modification time is ignored
+     * as files may be touched, i.e. during repository checkout, without changes
+     */
+    public boolean sameContent(@NonNull final SourcesManifest other) {
+        if (!items.keySet().equals(other.items.keySet())) return false;
+        for (Map.Entry<String, Item> entry : items.entrySet()) {
+            Item item = other.items.get(entry.getKey());
+            if (entry.getValue().size != item.size || !entry.getValue().hash.equals(item.hash)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Manifest file for PT AI server project
+     */
+    public static Path file(@NonNull final String url, @NonNull final UUID projectId) {
+        return DEFAULT_FOLDER.resolve(HashHelper.md5(StringUtils.removeEnd(url.trim(), "/").toLowerCase() + "|" + projectId) + ".properties");
+    }
+
+    /**
+     * Read manifest file. As manifest is an optimization only, file read
+     * errors are logged and cause null result
+     * @return Manifest or null if there's no file or it can't be read
+     */
+    public static SourcesManifest load(@NonNull final Path file) {
+        if (!file.toFile().isFile()) return null;
+        Properties properties = new Properties();
+        try (InputStream is = Files.newInputStream(file)) {
+            properties.load(is);
+        } catch (Exception e) {
+            log.debug("Sources manifest file {} read failed", file);
+            log.trace("Exception details", e);
+            return null;
+        }
+        SourcesManifest res = new SourcesManifest();
+        for (String key : properties.stringPropertyNames()) {
+            if (SCAN_RESULT_ID_KEY.equals(key)) {
+                try {
+                    res.scanResultId = UUID.fromString(properties.getProperty(key));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+                continue;
+            }
+            String[] value = properties.getProperty(key).split("\\|", -1);
+            if (3 != value.length || !StringUtils.isNumeric(value[0]) || !StringUtils.isNumeric(value[1])) return null;
+            res.items.put(key, new Item(Long.parseLong(value[0]), Long.parseLong(value[1]), value[2]));
+        }
+        return res;
+    }
+
+    /**
+     * Write manifest to temporary file and move it then, so concurrent readers never see partial data
+     */
+    public void save(@NonNull final Path file) {
+        Properties properties = new Properties();
+        for (Map.Entry<String, Item> entry : items.entrySet())
+            properties.setProperty(entry.getKey(), entry.getValue().size + "|" + entry.getValue().lastModified + "|" + entry.getValue().hash);
+        if (null != scanResultId) properties.setProperty(SCAN_RESULT_ID_KEY, scanResultId.toString());
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try (OutputStream os = Files.newOutputStream(temp)) {
+                properties.store(os, "PT AI uploaded sources manifest");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.debug("Sources manifest file {} write failed", file);
+            log.trace("Exception details", e);
+        }
+    }
+
+    protected static String hash(@NonNull final Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 algorithm isn't supported", e);
+        }
+        try (InputStream is = Files.newInputStream(path)) {
+            byte[] buffer = new byte[8192];
+            for (int count; -1 != (count = is.read(buffer)); )
+                digest.update(buffer, 0, count);
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+}
@@ -0,0 +1,171 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.scan.sources.Transfer;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.tools.ant.DirectoryScanner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Alternative to Ant DirectoryScanner that uses {@link Files#walkFileTree}. Transfer's Ant-style include
+ * and exclude patterns are compiled to regular expressions once. Folders that match exclude patterns
+ * ending with "**", like default "**&#47;.git/**" one, are pruned without visiting their contents
+ */
+@Slf4j
+public class TransferWalker {
+    /**
+     * Included folders paths relative to walk root. Paths use "/" as a separator
+     */
+    @Getter
+    protected final List<String> dirs = new ArrayList<>();
+
+    /**
+     * Included files paths relative to walk root
+     */
+    @Getter
+    protected final List<String> files = new ArrayList<>();
+
+    /**
+     * Excluded folders that weren't walked into
+     */
+    @Getter
+    protected final List<String> prunedDirs = new ArrayList<>();
+
+    protected final List<Pattern> includes = new ArrayList<>();
+
+    protected final List<Pattern> excludes = new ArrayList<>();
+
+    /**
+     * Exclude patterns that match all the folder contents if folder itself is matched
+     */
+    protected final List<Pattern> pruning = new ArrayList<>();
+
+    public TransferWalker(@NonNull final Transfer transfer) {
+        if (null != transfer.getIncludes())
+            for (String pattern : transfer.getIncludes().split(transfer.getPatternSeparator()))
+                if (StringUtils.isNotEmpty(pattern)) includes.add(compile(pattern));
+        // Ant includes everything if there's no include patterns
+        if (includes.isEmpty()) includes.add(compile("**"));
+        List<String> excludePatterns = new ArrayList<>();
+        if (null != transfer.getExcludes())
+            excludePatterns.addAll(Arrays.asList(transfer.getExcludes().split(transfer.getPatternSeparator())));
+        if (transfer.isUseDefaultExcludes())
+            excludePatterns.addAll(Arrays.asList(DirectoryScanner.getDefaultExcludes()));
+        for (String pattern : excludePatterns) {
+            if (StringUtils.isEmpty(pattern)) continue;
+            Pattern regex = compile(pattern);
+            excludes.add(regex);
+            if (normalize(pattern).endsWith("**")) pruning.add(regex);
+        }
+    }
+
+    /**
+     * Walk folder tree and collect included folders and files. Symbolic links are followed. If
+     * folder is a regular file, then that single file is checked against patterns
+     */
+    public TransferWalker walk(@NonNull final File dir) throws IOException {
+        if (!dir.isDirectory()) {
+            if (isIncluded(dir.getName())) files.add(dir.getName());
+            return this;
+        }
+        final Path root = dir.toPath();
+        Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path path, final BasicFileAttributes attrs) {
+                String relativePath = relativize(root, path);
+                if (!relativePath.isEmpty() && pruning.stream().anyMatch(p -> p.matcher(relativePath).matches())) {
+                    prunedDirs.add(relativePath);
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (isIncluded(relativePath)) dirs.add(relativePath);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path path, final BasicFileAttributes attrs) {
+                // Broken symbolic links are visited here too, those are skipped later during pack
+                String relativePath = relativize(root, path);
+                if (isIncluded(relativePath)) files.add(relativePath);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(final Path path, final IOException e) {
+                // Ant scanner silently skips unreadable folders and symbolic link loops, so do we
+                log.debug("Skip {} as it can't be visited", path);
+                log.trace("Exception details", e);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return this;
+    }
+
+    protected boolean isIncluded(@NonNull final String relativePath) {
+        return includes.stream().anyMatch(p -> p.matcher(relativePath).matches())
+                && excludes.stream().noneMatch(p -> p.matcher(relativePath).matches());
+    }
+
+    protected static String relativize(@NonNull final Path root, @NonNull final Path path) {
+        return FilenameUtils.separatorsToUnix(root.relativize(path).toString());
+    }
+
+    /**
+     * Ant treats pattern that ends with separator as if it ends with "**"
+     */
+    protected static String normalize(@NonNull final String pattern) {
+        String res = FilenameUtils.separatorsToUnix(pattern);
+        return res.endsWith("/") ? res + "**" : res;
+    }
+
+    /**
+     * Compile Ant-style pattern to regular expression that matches "/"-separated relative path. As
+     * in Ant, "**" token matches zero or more folders, "*" and "?" match characters inside single
+     * path token and pattern that consists of "**" tokens only is the only one that matches empty path
+     */
+    protected static Pattern compile(@NonNull final String pattern) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : StringUtils.split(normalize(pattern), '/'))
+            // Consecutive "**" tokens are the same as single one
+            if (!"**".equals(token) || tokens.isEmpty() || !"**".equals(tokens.get(tokens.size() - 1))) tokens.add(token);
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean last = i == tokens.size() - 1;
+            if ("**".equals(tokens.get(i))) {
+                if (!last)
+                    regex.append("(?:[^/]+/)*");
+                else if (0 == i)
+                    regex.append(".*");
+                else {
+                    // Trailing "**" also matches folder itself, so remove separator after previous token
+                    regex.setLength(regex.length() - 1);
+                    regex.append("(?:/.*)?");
+                }
+                continue;
+            }
+            // Path token is never empty
+            regex.append("(?=[^/])");
+            StringBuilder literal = new StringBuilder();
+            for (char c : tokens.get(i).toCharArray()) {
+                if ('*' != c && '?' != c) {
+                    literal.append(c);
+                    continue;
+                }
+                if (0 < literal.length()) regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+                regex.append('*' == c ? "[^/]*" : "[^/]");
+            }
+            if (0 < literal.length()) regex.append(Pattern.quote(literal.toString()));
+            if (!last) regex.append('/');
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,90 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Pipe;
+import okio.Source;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Request body that packs sources directly into HTTP request stream. Packer thread writes zip
+ * data into bounded in-memory pipe while OkHttp reads it and sends to PT AI server, so sources
+ * compression and upload overlap and there's no need for intermediate archive file. As archive
+ * size is unknown in advance, body is sent using chunked transfer encoding
+ */
+@RequiredArgsConstructor
+public class ZipStreamBody extends RequestBody {
+    /**
+     * Sources archive file name that is sent in multipart request
+     */
+    public static final String FILE_NAME = "sources.zip";
+
+    /**
+     * Writes zipped sources to output stream. Writer is called once per request body write,
+     * so if OkHttp retries request, sources are packed again
+     */
+    @FunctionalInterface
+    public interface Writer {
+        void write(@NonNull final OutputStream output) throws Exception;
+    }
+
+    @NonNull
+    protected final Writer writer;
+
+    /**
+     * Maximum number of bytes buffered between packer and request stream
+     */
+    protected final long bufferSize;
+
+    protected static final AtomicInteger COUNTER = new AtomicInteger(0);
+
+    @Override
+    public MediaType contentType() {
+        return MediaType.parse("application/zip");
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(@NonNull final BufferedSink sink) throws IOException {
+        final Pipe pipe = new Pipe(bufferSize);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread packer = new Thread(() -> {
+            try (BufferedSink pipeSink = Okio.buffer(pipe.sink()); OutputStream output = pipeSink.outputStream()) {
+                writer.write(output);
+            } catch (Throwable t) {
+                error.set(t);
+            }
+        }, "ptai-zip-stream-" + COUNTER.incrementAndGet());
+        packer.setDaemon(true);
+        packer.start();
+        // Closing pipe source makes blocked packer writes fail, so packer
+        // thread terminates even if request stream write is failed
+        try (Source source = pipe.source()) {
+            sink.writeAll(source);
+        } finally {
+            try {
+                packer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Sources packer thread join interrupted");
+            }
+        }
+        // Packer failure results in truncated archive. Throw exception before
+        // OkHttp finishes request body, so server never gets partial sources
+        if (null != error.get())
+            throw new IOException("Sources packing failed", error.get());
+    }
+}
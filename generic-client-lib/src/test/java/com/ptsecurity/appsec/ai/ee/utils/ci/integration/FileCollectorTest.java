@@ -2,11 +2,14 @@ package com.ptsecurity.appsec.ai.ee.utils.ci.integration;
 
 import com.ptsecurity.appsec.ai.ee.scan.sources.Transfer;
 import com.ptsecurity.appsec.ai.ee.scan.sources.Transfers;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.FileCollector;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ZipStreamBody;
 import com.ptsecurity.misc.tools.BaseTest;
 import com.ptsecurity.misc.tools.TempFile;
 import com.ptsecurity.misc.tools.helpers.ArchiveHelper;
 import lombok.SneakyThrows;
+import okio.Buffer;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.SystemUtils;
 import org.junit.jupiter.api.Assertions;
@@ -18,11 +21,14 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import static org.junit.jupiter.api.condition.OS.LINUX;
 
@@ -80,6 +86,75 @@ public class FileCollectorTest extends BaseTest {
         }
     }
 
+    @SneakyThrows
+    @Test
+    @DisplayName("Pack sources concurrently and store already compressed files without compression")
+    public void createZipConcurrently(@TempDir final Path sources) {
+        createSampleFileSystem(sources);
+        Path jar = sources.resolve("lib").resolve("library.jar");
+        Files.createDirectories(jar.getParent());
+        Files.write(jar, UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+
+        AdvancedSettings settings = new AdvancedSettings();
+        settings.apply(
+                AdvancedSettings.SettingInfo.FILE_COLLECTOR_PACK_THREADS.getName() + " = 4\n" +
+                AdvancedSettings.SettingInfo.FILE_COLLECTOR_COMPRESSION_LEVEL.getName() + " = 9\n" +
+                AdvancedSettings.SettingInfo.FILE_COLLECTOR_STORED_EXTENSIONS.getName() + " = JAR, png");
+        Tool tool = new Tool();
+        tool.setAdvancedSettings(settings);
+        File zip = FileCollector.collect(null, sources.toFile(), tool);
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            Assertions.assertEquals(ZipEntry.STORED, zipFile.getEntry("lib/library.jar").getMethod());
+            Assertions.assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("module/submodule/src/main/java/module/submodule/Source.java").getMethod());
+        }
+        try (
+                InputStream stream = new FileInputStream(zip);
+                TempFile destination = TempFile.createFolder()) {
+            ArchiveHelper.extractZipStream(stream, destination.toPath());
+            for (String nationalFileName : NATIONAL_FILE_NAMES.values())
+                Assertions.assertTrue(destination.toPath().resolve(nationalFileName).toFile().exists());
+            Assertions.assertArrayEquals(Files.readAllBytes(jar), Files.readAllBytes(destination.toPath().resolve("lib").resolve("library.jar")));
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Zip sources directly into upload request body")
+    public void createZipStream(@TempDir final Path sources) {
+        createSampleFileSystem(sources);
+        Path jar = sources.resolve("lib").resolve("library.jar");
+        Files.createDirectories(jar.getParent());
+        Files.write(jar, UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+
+        AdvancedSettings settings = new AdvancedSettings();
+        settings.apply(AdvancedSettings.SettingInfo.FILE_COLLECTOR_STORED_EXTENSIONS.getName() + " = jar");
+        Tool tool = new Tool();
+        tool.setAdvancedSettings(settings);
+        // Use small pipe buffer to make packer thread block on writes
+        ZipStreamBody body = new ZipStreamBody(output -> FileCollector.collect(null, sources.toFile(), output, tool), 64);
+        Assertions.assertEquals(-1, body.contentLength());
+        try (TempFile zip = TempFile.createFile()) {
+            Buffer buffer = new Buffer();
+            body.writeTo(buffer);
+            Files.write(zip.toPath(), buffer.readByteArray());
+            try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+                Assertions.assertEquals(ZipEntry.STORED, zipFile.getEntry("lib/library.jar").getMethod());
+                Assertions.assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("module/submodule/src/main/java/module/submodule/Source.java").getMethod());
+            }
+            try (
+                    InputStream stream = new FileInputStream(zip.toFile());
+                    TempFile destination = TempFile.createFolder()) {
+                ArchiveHelper.extractZipStream(stream, destination.toPath());
+                for (String nationalFileName : NATIONAL_FILE_NAMES.values())
+                    Assertions.assertTrue(destination.toPath().resolve(nationalFileName).toFile().exists());
+                Assertions.assertArrayEquals(Files.readAllBytes(jar), Files.readAllBytes(destination.toPath().resolve("lib").resolve("library.jar")));
+            }
+        }
+        // Missing sources folder must fail request body write
+        ZipStreamBody failed = new ZipStreamBody(output -> FileCollector.collect(null, sources.resolve("missing").toFile(), output, tool), 64);
+        Assertions.assertThrows(IOException.class, () -> failed.writeTo(new Buffer()));
+    }
+
     @SneakyThrows
     public void createSampleFileSystem(@TempDir final Path sources) {
         Path classFile = sources
@@ -102,16 +177,67 @@ public class FileCollectorTest extends BaseTest {
         Files.write(sourceFile, UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
     }
 
-    @SneakyThrows
     @Test
     @DisplayName("Include / exclude Ant mask")
     public void includeAndExclude(@TempDir final Path sources) {
+        checkIncludeAndExclude(sources, new Tool());
+    }
+
+    @Test
+    @DisplayName("Include / exclude Ant mask using NIO file tree walk")
+    public void includeAndExcludeWalk(@TempDir final Path sources) {
+        checkIncludeAndExclude(sources, walkTool());
+    }
+
+    protected Tool walkTool() {
+        AdvancedSettings settings = new AdvancedSettings();
+        settings.apply(
+                AdvancedSettings.SettingInfo.FILE_COLLECTOR_WALK.getName() + " = true\n" +
+                AdvancedSettings.SettingInfo.FILE_COLLECTOR_PACK_THREADS.getName() + " = 2");
+        Tool tool = new Tool();
+        tool.setAdvancedSettings(settings);
+        return tool;
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Collect the same entries using Ant scanner and NIO file tree walk")
+    public void walkLikeAnt(@TempDir final Path sources) {
+        createSampleFileSystem(sources);
+        Path git = sources.resolve("module").resolve(".git").resolve("objects");
+        Files.createDirectories(git);
+        Files.write(git.resolve("HEAD"), new byte[0]);
+        Files.write(sources.resolve("module").resolve("Source.java~"), new byte[0]);
+        Files.createDirectories(sources.resolve("empty"));
+
+        Transfers transfers = new Transfers()
+                .addTransfer(Transfer.builder().useDefaultExcludes(true).build())
+                .addTransfer(Transfer.builder().includes("module/**/*.java, **/build/").excludes("**/classes/**/module/").build())
+                .addTransfer(Transfer.builder().includes("module/**/*.java").flatten(true).build())
+                .addTransfer(Transfer.builder().includes("module/submodule/src/**").removePrefix("module/submodule").build());
+        for (Transfer transfer : transfers) {
+            Transfers single = new Transfers().addTransfer(transfer);
+            Set<String> ant = new HashSet<>();
+            new FileCollector(single, new Tool()).collectFiles(sources.toFile()).forEach(e -> ant.add(e.getEntryName()));
+            Set<String> walk = new HashSet<>();
+            new FileCollector(single, walkTool()).collectFiles(sources.toFile()).forEach(e -> walk.add(e.getEntryName()));
+            Assertions.assertEquals(ant, walk, transfer.toString());
+        }
+        List<String> entries = new ArrayList<>();
+        new FileCollector(transfers, walkTool()).collectFiles(sources.toFile()).forEach(e -> entries.add(e.getEntryName()));
+        Assertions.assertFalse(entries.stream().anyMatch(e -> e.contains(".git")));
+        // Entries are merged in transfers order: last transfer entries have removed prefix
+        Assertions.assertEquals("src/main/java/module/submodule/Source.java", entries.get(entries.size() - 1));
+    }
+
+    @SneakyThrows
+    protected void checkIncludeAndExclude(final Path sources, final Tool tool) {
         createSampleFileSystem(sources);
         Transfers transfers = new Transfers();
         transfers.addTransfer(Transfer.builder()
                 .excludes("./module/*/build/*/*.class")
                 .build());
-        FileCollector collector = new FileCollector(transfers, new Tool());
+        FileCollector collector = new FileCollector(transfers, tool);
         List<FileCollector.Entry> entries = collector.collectFiles(sources.toFile());
         Assertions.assertEquals(4, entries.stream().map(FileCollector.Entry::getPath).filter(p -> !p.toFile().isDirectory()).count());
 
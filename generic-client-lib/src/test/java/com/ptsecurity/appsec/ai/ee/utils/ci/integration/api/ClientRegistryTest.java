@@ -0,0 +1,62 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.api;
+
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanBrief;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.ConnectionSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.TokenCredentials;
+import com.ptsecurity.misc.tools.Jwt;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test API client implementations registry")
+public class ClientRegistryTest {
+    @Test
+    @DisplayName("Create version-specific clients and tasks without reflection")
+    public void createClientsAndTasks() {
+        ConnectionSettings connectionSettings = ConnectionSettings.builder()
+                .url("https://ptai.domain.org")
+                .credentials(new TokenCredentials("token"))
+                .build();
+        Factory factory = new Factory();
+        Set<ScanBrief.ApiVersion> versions = new HashSet<>();
+        for (ClientRegistry.Entry entry : ClientRegistry.entries()) {
+            assertNotNull(entry.getVersionRange(), entry.getClientClass().getName());
+            AbstractApiClient client = entry.getClient().apply(connectionSettings, AdvancedSettings.getDefault());
+            assertEquals(entry.getClientClass(), client.getClass());
+            assertSame(entry, ClientRegistry.get(client));
+            assertSame(entry, ClientRegistry.get(entry.getClientClass().getName()));
+            assertTrue(versions.add(client.getApiVersion()));
+            // Tasks must belong to the same API version package as client
+            String clientPackage = client.getClass().getPackage().getName() + ".tasks";
+            assertEquals(clientPackage, factory.checkServerTasks(client).getClass().getPackage().getName());
+            assertEquals(clientPackage, factory.serverVersionTasks(client).getClass().getPackage().getName());
+            assertEquals(clientPackage, factory.reportsTasks(client).getClass().getPackage().getName());
+            assertEquals(clientPackage, factory.projectTasks(client).getClass().getPackage().getName());
+            assertEquals(clientPackage, factory.genericAstTasks(client).getClass().getPackage().getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Create client of known API version using existing JWT")
+    public void createClientWithJwt() {
+        ConnectionSettings connectionSettings = ConnectionSettings.builder()
+                .url("https://ptai.domain.org/")
+                .credentials(new TokenCredentials(""))
+                .build();
+        Jwt jwt = Jwt.builder().accessToken("access").refreshToken("refresh").build();
+        for (ClientRegistry.Entry entry : ClientRegistry.entries()) {
+            AbstractApiClient client = Factory.client(entry.getClientClass().getName(), connectionSettings, AdvancedSettings.getDefault(), jwt);
+            assertEquals(entry.getClientClass(), client.getClass());
+            assertSame(jwt, client.getApiJwt());
+            assertNotNull(client.getHttpClient());
+        }
+        assertThrows(GenericException.class, () -> Factory.client(
+                "unknown", connectionSettings, AdvancedSettings.getDefault(), jwt));
+    }
+}
@@ -0,0 +1,124 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.api;
+
+import com.microsoft.signalr.HubConnection;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test SignalR notifications multiplexer")
+public class NotificationHubTest {
+    protected static class Listener {
+        protected final List<String> events = new ArrayList<>();
+    }
+
+    @RequiredArgsConstructor
+    protected static class TokenConnector implements NotificationHub.Connector {
+        protected final String token;
+
+        @Override
+        public HubConnection create(@NonNull NotificationHub hub) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void subscribe(@NonNull HubConnection connection, @NonNull Set<UUID> projectIds, @NonNull Set<UUID> scanResultIds) {}
+
+        @Override
+        public String accessToken() {
+            return token;
+        }
+
+        @Override
+        public void refreshToken() {}
+    }
+
+    @Test
+    @DisplayName("Share hub between clients that use the same key")
+    public void shareHub() {
+        String key = UUID.randomUUID().toString();
+        assertSame(NotificationHub.get(key), NotificationHub.get(key));
+        assertNotSame(NotificationHub.get(key), NotificationHub.get(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    @DisplayName("Route notifications to scan result listeners")
+    public void dispatch() {
+        NotificationHub hub = new NotificationHub(UUID.randomUUID().toString());
+        UUID projectId = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Listener firstListener = new Listener();
+        Listener secondListener = new Listener();
+        hub.registrations.put(first, new NotificationHub.Registration(projectId, firstListener, null));
+        hub.registrations.put(second, new NotificationHub.Registration(projectId, secondListener, null));
+
+        hub.dispatch(first, Listener.class, l -> l.events.add("ScanStarted"));
+        hub.dispatch(second, Listener.class, l -> l.events.add("ScanProgress"));
+        hub.dispatch(UUID.randomUUID(), Listener.class, l -> fail("Notification for unknown scan result is dispatched"));
+        hub.dispatch(null, Listener.class, l -> fail("Notification without scan result id is dispatched"));
+        hub.dispatch(first, String.class, l -> fail("Notification is dispatched to listener of wrong type"));
+
+        assertEquals(1, firstListener.events.size());
+        assertEquals("ScanStarted", firstListener.events.get(0));
+        assertEquals(1, secondListener.events.size());
+        assertEquals("ScanProgress", secondListener.events.get(0));
+    }
+
+    @Test
+    @DisplayName("Take JWT from client whose listener is still registered")
+    public void accessToken() {
+        NotificationHub hub = new NotificationHub(UUID.randomUUID().toString());
+        UUID projectId = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        hub.registrations.put(first, new NotificationHub.Registration(projectId, new Listener(), new TokenConnector("first")));
+        hub.registrations.put(second, new NotificationHub.Registration(projectId, new Listener(), new TokenConnector("second")));
+
+        hub.unregister(first);
+        assertEquals("second", hub.accessToken());
+        hub.registrations.put(first, new NotificationHub.Registration(projectId, new Listener(), new TokenConnector(null)));
+        hub.unregister(second);
+        assertThrows(IllegalStateException.class, hub::accessToken);
+    }
+
+    @Test
+    @DisplayName("Remove hub from shared ones when its last listener is unregistered")
+    public void prune() {
+        String key = UUID.randomUUID().toString();
+        NotificationHub hub = NotificationHub.get(key);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        hub.registrations.put(first, new NotificationHub.Registration(UUID.randomUUID(), new Listener(), null));
+        hub.registrations.put(second, new NotificationHub.Registration(UUID.randomUUID(), new Listener(), null));
+
+        hub.unregister(first);
+        assertSame(hub, NotificationHub.get(key));
+        hub.unregister(second);
+        synchronized (NotificationHub.HUBS) {
+            assertFalse(NotificationHub.HUBS.containsKey(key));
+        }
+        assertNotSame(hub, NotificationHub.get(key));
+    }
+
+    @Test
+    @DisplayName("Share cached values between hub listeners")
+    public void cached() {
+        NotificationHub hub = new NotificationHub(UUID.randomUUID().toString());
+        AtomicInteger counter = new AtomicInteger(0);
+        assertNull(hub.cached("agents", 60_000, () -> null));
+        assertEquals(1, hub.cached("agents", 60_000, counter::incrementAndGet));
+        assertEquals(1, hub.cached("agents", 60_000, counter::incrementAndGet));
+        // Zero maximum age forces value reload
+        assertEquals(2, hub.cached("agents", 0, counter::incrementAndGet));
+        assertEquals(2, counter.get());
+    }
+}
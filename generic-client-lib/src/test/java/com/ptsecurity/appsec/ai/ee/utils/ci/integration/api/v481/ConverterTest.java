@@ -21,6 +21,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.HashMap;
@@ -31,7 +32,9 @@ import static com.ptsecurity.appsec.ai.ee.utils.ci.integration.ProjectTemplate.g
 import static com.ptsecurity.misc.tools.helpers.ArchiveHelper.extractResourceFile;
 import static com.ptsecurity.misc.tools.helpers.ArchiveHelper.packData7Zip;
 import static com.ptsecurity.misc.tools.helpers.BaseJsonHelper.createObjectMapper;
+import static com.ptsecurity.misc.tools.helpers.ResourcesHelper.getResourceStream;
 import static com.ptsecurity.misc.tools.helpers.ResourcesHelper.getResourceString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Slf4j
@@ -87,4 +90,36 @@ public class ConverterTest extends BaseTest {
             log.trace("Scan results are saved to {}", destination);
         }
     }
-}
+
+    @Test
+    @DisplayName("Convert PT AI 4.8.1 scan results using issues JSON stream")
+    @SneakyThrows
+    public void generateScanResultsFromStream() {
+        ObjectMapper mapper = createObjectMapper();
+        Map<ServerVersionTasks.Component, String> versions = new HashMap<>();
+        versions.put(ServerVersionTasks.Component.AIE, "4.8.1.39484");
+        versions.put(ServerVersionTasks.Component.AIC, "4.8.1.39484");
+
+        for (ProjectTemplate.ID templateId : ProjectTemplate.ID.values()) {
+            String fileName = getTemplate(templateId).getName();
+            ScanResult expected = generateScanResult481(fileName);
+
+            ScanResultModel scanResult = mapper.readValue(getResourceString("v481/json/scanResult/" + fileName + ".json"), ScanResultModel.class);
+            ScanSettingsModel scanSettings = mapper.reader(ScanSettingsModel.class).with(DeserializationFeature.READ_ENUMS_USING_TO_STRING).readValue(
+                    getResourceString("v481/json/scanSettings/" + fileName + ".json"),
+                    ScanSettingsModel.class);
+            Map<Reports.Locale, Map<String, String>> issuesHeaders = new HashMap<>();
+            for (Reports.Locale locale : Reports.Locale.values())
+                issuesHeaders.put(locale, new HashMap<>());
+            // Use small issues memory threshold to check disk-backed issues list
+            try (InputStream issues = getResourceStream("v481/json/issuesModel/" + fileName + ".json");
+                 ScanResult actual = com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v481.converters.IssuesConverter.convert(
+                         StringUtils.substringBefore(fileName, "."), scanResult, issues, issuesHeaders, scanSettings, "https://ptai481.domain.org", versions, 7)) {
+                assertTrue(actual.isIssuesParseOk());
+                assertEquals(expected.getIssues().size(), actual.getIssues().size());
+                for (int i = 0; i < expected.getIssues().size(); i++)
+                    assertEquals(expected.getIssues().get(i).getId(), actual.getIssues().get(i).getId());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v481.ApiClient;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.ConnectionSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.TokenCredentials;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.joor.Reflect.on;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test API clients initialization")
+public class ApiClientHelperTest {
+    protected ApiClient createClient(final boolean http2) {
+        AdvancedSettings settings = new AdvancedSettings();
+        settings.apply(AdvancedSettings.SettingInfo.HTTP_PROTOCOL_HTTP2.getName() + " = " + http2);
+        ApiClient client = new ApiClient(ConnectionSettings.builder()
+                .url("https://ptai.domain.org/")
+                .credentials(new TokenCredentials("token"))
+                .insecure(true)
+                .build(), settings);
+        client.init();
+        return client;
+    }
+
+    @Test
+    @DisplayName("Share single OkHttpClient between all the APIs")
+    public void sharedHttpClient() {
+        ApiClient client = createClient(false);
+        OkHttpClient httpClient = client.getHttpClient();
+        assertNotNull(httpClient);
+        for (Object api : client.getApis()) {
+            Object apiClient = on(api).call("getApiClient").get();
+            assertSame(httpClient, on(apiClient).call("getHttpClient").get());
+        }
+        assertEquals(Collections.singletonList(Protocol.HTTP_1_1), httpClient.protocols());
+    }
+
+    @Test
+    @DisplayName("Enable HTTP/2 using advanced settings")
+    public void http2() {
+        OkHttpClient httpClient = createClient(true).getHttpClient();
+        assertTrue(httpClient.protocols().contains(Protocol.HTTP_2));
+        assertTrue(httpClient.protocols().contains(Protocol.HTTP_1_1));
+    }
+}
@@ -0,0 +1,155 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.AbstractTool;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
+import com.ptsecurity.misc.tools.TempFile;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.archivers.zip.ZipSplitReadOnlySeekableByteChannel;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test chunked sources upload")
+public class ChunkedUploaderTest {
+    private final AbstractTool output = new AbstractTool() {};
+
+    protected static class FakeUploadSession implements ChunkedUploader.UploadSession {
+        protected final UUID id = UUID.randomUUID();
+        protected final Map<String, byte[]> chunks = new ConcurrentHashMap<>();
+        protected final AtomicInteger failures = new AtomicInteger(0);
+        protected final AtomicBoolean completed = new AtomicBoolean(false);
+        protected final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        @Override
+        public ChunkedUploader.Session create() {
+            return new ChunkedUploader.Session(id, null);
+        }
+
+        @Override
+        @SneakyThrows
+        public void add(@NonNull UUID uploadId, @NonNull String fileName, @NonNull RequestBody chunk) {
+            assertEquals(id, uploadId);
+            Buffer buffer = new Buffer();
+            chunk.writeTo(buffer);
+            // Emulate transient network failure for second chunk's first attempt
+            if (fileName.endsWith(".z02") && 0 == failures.getAndIncrement())
+                throw new IllegalStateException("Connection reset");
+            chunks.put(fileName, buffer.readByteArray());
+        }
+
+        @Override
+        public void cancel(@NonNull UUID uploadId) {
+            cancelled.set(true);
+        }
+
+        @Override
+        public void complete(@NonNull UUID uploadId) {
+            completed.set(true);
+        }
+    }
+
+    protected AdvancedSettings settings(final int chunkSize, final int retries) {
+        AdvancedSettings settings = new AdvancedSettings();
+        settings.apply(
+                AdvancedSettings.SettingInfo.UPLOAD_CHUNK_SIZE.getName() + " = " + chunkSize + "\n" +
+                AdvancedSettings.SettingInfo.UPLOAD_PARALLELISM.getName() + " = 3\n" +
+                AdvancedSettings.SettingInfo.UPLOAD_CHUNK_RETRIES.getName() + " = " + retries);
+        return settings;
+    }
+
+    /**
+     * Create zip archive with incompressible entries
+     */
+    @SneakyThrows
+    protected static Map<String, byte[]> zip(@NonNull final File file, final int entries, final int entrySize) {
+        Map<String, byte[]> res = new HashMap<>();
+        Random random = new Random();
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(file)) {
+            for (int i = 0; i < entries; i++) {
+                byte[] data = new byte[entrySize];
+                random.nextBytes(data);
+                String name = "src/file" + i + ".bin";
+                res.put(name, data);
+                zip.putArchiveEntry(new ZipArchiveEntry(name));
+                zip.write(data);
+                zip.closeArchiveEntry();
+            }
+        }
+        return res;
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Upload sources in chunks and retry failed chunk")
+    public void uploadChunks() {
+        try (TempFile sources = TempFile.createFile(); TempFile uploaded = TempFile.createFolder()) {
+            Map<String, byte[]> entries = zip(sources.toFile(), 10, 30 * 1024);
+
+            ChunkedUploader uploader = new ChunkedUploader(output, settings((int) ChunkedUploader.MIN_CHUNK_SIZE, 1));
+            assertTrue(uploader.isChunked(sources.toFile()));
+            FakeUploadSession session = new FakeUploadSession();
+            uploader.upload(sources.toFile(), session);
+
+            assertTrue(session.completed.get());
+            assertEquals(5, session.chunks.size());
+            assertEquals(2, session.failures.get());
+            for (Map.Entry<String, byte[]> chunk : session.chunks.entrySet())
+                Files.write(uploaded.toPath().resolve(chunk.getKey()), chunk.getValue());
+            String baseName = FilenameUtils.getBaseName(sources.toFile().getName());
+            // Uploaded parts must be readable as a multi-volume zip archive
+            File last = uploaded.toPath().resolve(baseName + ".zip").toFile();
+            try (ZipFile zip = new ZipFile(ZipSplitReadOnlySeekableByteChannel.buildFromLastSplitSegment(last))) {
+                int count = 0;
+                for (ZipArchiveEntry entry : Collections.list(zip.getEntries())) {
+                    try (InputStream data = zip.getInputStream(entry)) {
+                        assertArrayEquals(entries.get(entry.getName()), IOUtils.toByteArray(data));
+                    }
+                    count++;
+                }
+                assertEquals(entries.size(), count);
+            }
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Cancel upload session if chunk retries are exhausted")
+    public void cancelSession() {
+        try (TempFile sources = TempFile.createFile()) {
+            zip(sources.toFile(), 10, 30 * 1024);
+            FakeUploadSession session = new FakeUploadSession();
+            assertThrows(GenericException.class, () -> new ChunkedUploader(output, settings((int) ChunkedUploader.MIN_CHUNK_SIZE, 0)).upload(sources.toFile(), session));
+            assertTrue(session.cancelled.get());
+            assertFalse(session.completed.get());
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Upload small sources using single request")
+    public void smallSources() {
+        try (TempFile sources = TempFile.createFile()) {
+            Files.write(sources.toPath(), new byte[512]);
+            assertFalse(new ChunkedUploader(output, settings(1024, 0)).isChunked(sources.toFile()));
+            assertFalse(new ChunkedUploader(output, settings(0, 0)).isChunked(sources.toFile()));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.scan.reports.Reports;
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanResult;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.VulnerabilityIssue;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.AbstractTool;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test concurrent reports export")
+public class ExportExecutorTest {
+    private final AbstractTool output = new AbstractTool() {};
+
+    @Test
+    @DisplayName("Execute exports concurrently")
+    public void concurrentExports() {
+        // Every export waits for all others to start, so this may complete only if exports are concurrent
+        CountDownLatch latch = new CountDownLatch(3);
+        AtomicInteger done = new AtomicInteger(0);
+        ExportExecutor executor = new ExportExecutor(output, 3, true);
+        for (int i = 0; i < 3; i++)
+            executor.add("Export " + i, () -> {
+                latch.countDown();
+                if (!latch.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("Exports aren't concurrent");
+                done.incrementAndGet();
+            });
+        executor.execute();
+        assertEquals(3, done.get());
+    }
+
+    @Test
+    @DisplayName("Collect all export errors as warnings")
+    public void collectAllErrors() {
+        AtomicInteger done = new AtomicInteger(0);
+        ExportExecutor executor = new ExportExecutor(output, 1, false);
+        executor.add("Failed export", () -> { throw new IllegalArgumentException(); });
+        executor.add("Successful export", done::incrementAndGet);
+        assertDoesNotThrow(executor::execute);
+        assertEquals(1, done.get());
+    }
+
+    @Test
+    @DisplayName("Stop exports after first error")
+    public void failFast() {
+        AtomicInteger done = new AtomicInteger(0);
+        ExportExecutor executor = new ExportExecutor(output, 1, true);
+        executor.add("Failed export", () -> { throw new IllegalArgumentException(); });
+        executor.add("Skipped export", done::incrementAndGet);
+        GenericException e = assertThrows(GenericException.class, executor::execute);
+        assertEquals("Failed export failed", e.getMessage());
+        assertEquals(0, done.get());
+    }
+
+    @Test
+    @DisplayName("Export disk-backed scan result concurrently")
+    public void concurrentDiskBackedExports() {
+        try (ScanResult scanResult = new ScanResult()) {
+            scanResult.useDiskBackedIssues(3);
+            for (int i = 0; i < 1000; i++)
+                scanResult.getIssues().add(VulnerabilityIssue.builder().id(String.valueOf(i))
+                        .level(0 == i % 2 ? BaseIssue.Level.HIGH : BaseIssue.Level.LOW).build());
+
+            ExportExecutor executor = new ExportExecutor(output, 8, true);
+            for (int e = 0; e < 8; e++) {
+                // Filtered exports iterate shared issues list, others use random access
+                executor.add("Filtered export " + e, () -> {
+                    Reports.IssuesFilter filter = new Reports.IssuesFilter();
+                    filter.setIssueLevel(Reports.IssuesFilter.Level.HIGH);
+                    try (ScanResult filtered = ScanResultHelper.filter(scanResult, filter)) {
+                        int i = 0;
+                        for (BaseIssue issue : filtered.getIssues()) {
+                            assertEquals(String.valueOf(i), issue.getId());
+                            i += 2;
+                        }
+                        assertEquals(1000, i);
+                    }
+                });
+                final int shift = e;
+                executor.add("Random access export " + e, () -> {
+                    for (int i = shift; i < 1000; i += 3)
+                        assertEquals(String.valueOf(i), scanResult.getIssues().get(i).getId());
+                });
+            }
+            executor.execute();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.scan.progress.Stage;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test AST job completion waiter")
+public class ScanCompletionWaiterTest {
+    /**
+     * Scheduler that doesn't depend on wall clock: it records requested delays
+     * and runs scheduled tasks in order when test asks for it
+     */
+    protected static class ManualScheduler implements ScanCompletionWaiter.Scheduler {
+        protected final List<Long> delays = new ArrayList<>();
+        protected final List<FutureTask<?>> tasks = new ArrayList<>();
+        protected boolean shutdown = false;
+
+        @Override
+        public synchronized Future<?> schedule(@NonNull final Runnable task, final long delayMillis) {
+            FutureTask<?> res = new FutureTask<>(task, null);
+            delays.add(delayMillis);
+            tasks.add(res);
+            return res;
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            shutdown = true;
+        }
+
+        /**
+         * Run first pending task that isn't cancelled
+         * @return True if task was run
+         */
+        public boolean runNext() {
+            FutureTask<?> task;
+            synchronized (this) {
+                if (shutdown) return false;
+                task = tasks.stream().filter(t -> !t.isDone()).findFirst().orElse(null);
+            }
+            if (null == task) return false;
+            task.run();
+            return true;
+        }
+
+        public synchronized long cancelled() {
+            return tasks.stream().filter(Future::isCancelled).count();
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Detect scan completion by polling with growing interval")
+    public void completeByPolling() {
+        final AtomicInteger counter = new AtomicInteger(0);
+        ManualScheduler scheduler = new ManualScheduler();
+        try (ScanCompletionWaiter waiter = new ScanCompletionWaiter(
+                () -> 5 > counter.incrementAndGet() ? Stage.SCAN : Stage.DONE, 20, 80, scheduler)) {
+            while (scheduler.runNext()) ;
+            assertEquals(Stage.DONE, waiter.await());
+        }
+        assertEquals(5, counter.get());
+        // Stage doesn't change after first poll, so interval is doubled up to maximum
+        assertEquals(Arrays.asList(20L, 20L, 40L, 80L, 80L), scheduler.delays);
+        assertTrue(scheduler.shutdown);
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Postpone polling while scan notifications are received")
+    public void resetPolling() {
+        final AtomicInteger counter = new AtomicInteger(0);
+        ManualScheduler scheduler = new ManualScheduler();
+        try (ScanCompletionWaiter waiter = new ScanCompletionWaiter(() -> {
+            counter.incrementAndGet();
+            return Stage.SCAN;
+        }, 200, 1000, scheduler)) {
+            // Let polling interval grow
+            scheduler.runNext();
+            scheduler.runNext();
+            assertEquals(Arrays.asList(200L, 200L, 400L), scheduler.delays);
+            // Each notification cancels pending poll and postpones it by maximum interval
+            for (int i = 0; i < 10; i++)
+                waiter.reset();
+            assertEquals(2, counter.get());
+            assertEquals(10, scheduler.cancelled());
+            assertEquals(1000L, scheduler.delays.get(scheduler.delays.size() - 1));
+            // If notifications stop, polling continues from current interval
+            scheduler.runNext();
+            assertEquals(3, counter.get());
+            assertEquals(800L, scheduler.delays.get(scheduler.delays.size() - 1));
+
+            waiter.complete(Stage.ABORTED);
+            assertEquals(Stage.ABORTED, waiter.await());
+        }
+        // Completion cancels pending poll and stops polling
+        assertEquals(11, scheduler.cancelled());
+        assertTrue(scheduler.shutdown);
+        assertFalse(scheduler.runNext());
+        assertEquals(3, counter.get());
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Reset polling interval to minimum on stage change")
+    public void stageChange() {
+        final AtomicInteger counter = new AtomicInteger(0);
+        ManualScheduler scheduler = new ManualScheduler();
+        try (ScanCompletionWaiter waiter = new ScanCompletionWaiter(
+                () -> 3 > counter.incrementAndGet() ? Stage.SCAN : Stage.VFSSETUP, 20, 80, scheduler)) {
+            for (int i = 0; i < 3; i++) scheduler.runNext();
+            assertEquals(Arrays.asList(20L, 20L, 40L, 20L), scheduler.delays);
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Keep polling after poll failure")
+    public void pollFailure() {
+        final AtomicInteger counter = new AtomicInteger(0);
+        try (ScanCompletionWaiter waiter = new ScanCompletionWaiter(() -> {
+            if (2 > counter.incrementAndGet()) throw new IllegalStateException("Poll failed");
+            return Stage.FAILED;
+        }, 10, 20)) {
+            assertEquals(Stage.FAILED, waiter.await());
+        }
+    }
+}
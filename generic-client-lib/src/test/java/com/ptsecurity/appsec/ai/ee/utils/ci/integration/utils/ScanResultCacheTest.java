@@ -0,0 +1,123 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.scan.reports.Reports;
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanResult;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.DiskBackedIssueList;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.ProjectTemplate;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v481.ConverterTest;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ptsecurity.appsec.ai.ee.utils.ci.integration.ProjectTemplate.getTemplate;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test scan result cache")
+public class ScanResultCacheTest extends ConverterTest {
+    @SneakyThrows
+    @Test
+    @DisplayName("Load scan result once and share it between filtered consumers")
+    public void loadOnce() {
+        UUID projectId = UUID.randomUUID();
+        UUID scanResultId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger(0);
+
+        try (ScanResultCache cache = new ScanResultCache()) {
+            ScanResult first = cache.get(projectId, scanResultId, () -> {
+                loads.incrementAndGet();
+                return generateScanResult481(getTemplate(ProjectTemplate.ID.PHP_SMOKE).getName());
+            });
+            ScanResult second = cache.get(projectId, scanResultId, () -> {
+                loads.incrementAndGet();
+                return generateScanResult481(getTemplate(ProjectTemplate.ID.PHP_SMOKE).getName());
+            });
+            assertEquals(1, loads.get());
+            assertSame(first, second);
+
+            int total = first.getIssues().size();
+            long highCount = first.getIssues().stream().filter(i -> BaseIssue.Level.HIGH == i.getLevel()).count();
+            assertNotEquals(total, highCount);
+
+            Reports.IssuesFilter filter = new Reports.IssuesFilter();
+            filter.setIssueLevel(Reports.IssuesFilter.Level.HIGH);
+            try (ScanResult filtered = ScanResultHelper.filter(first, filter)) {
+                assertEquals(highCount, filtered.getIssues().size());
+                assertEquals(first.getId(), filtered.getId());
+            }
+            // Cached scan result must stay untouched
+            assertEquals(total, first.getIssues().size());
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Load different scan results concurrently and share single load of the same scan result")
+    public void concurrentLoad() {
+        UUID projectId = UUID.randomUUID();
+        UUID slowId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger(0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ScanResultCache cache = new ScanResultCache()) {
+            CompletableFuture<ScanResult> slow = CompletableFuture.supplyAsync(() -> cache.get(projectId, slowId, () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+                return new ScanResult();
+            }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            CompletableFuture<ScanResult> waiter = CompletableFuture.supplyAsync(() -> cache.get(projectId, slowId, () -> {
+                loads.incrementAndGet();
+                return new ScanResult();
+            }));
+            // Slow load must not block other scan results
+            assertNotNull(cache.get(projectId, UUID.randomUUID(), ScanResult::new));
+            assertFalse(waiter.isDone());
+
+            release.countDown();
+            assertSame(slow.get(10, TimeUnit.SECONDS), waiter.get(10, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Keep cached scan result and its filtered copies issues on disk")
+    public void diskBacked() {
+        try (ScanResultCache cache = new ScanResultCache(5)) {
+            ScanResult scanResult = cache.get(UUID.randomUUID(), UUID.randomUUID(),
+                    () -> generateScanResult481(getTemplate(ProjectTemplate.ID.PHP_SMOKE).getName()));
+            assertTrue(scanResult.getIssues() instanceof DiskBackedIssueList);
+            assertTrue(5 < scanResult.getIssues().size());
+            assertTrue(((DiskBackedIssueList) scanResult.getIssues()).isSpilled());
+            try (ScanResult filtered = ScanResultHelper.filter(scanResult, new Reports.IssuesFilter())) {
+                assertTrue(filtered.getIssues() instanceof DiskBackedIssueList);
+                assertEquals(5, ((DiskBackedIssueList) filtered.getIssues()).getThreshold());
+                assertEquals(scanResult.getIssues().size(), filtered.getIssues().size());
+            }
+        }
+        assertEquals(ScanResultCache.DEFAULT_ISSUES_MEMORY_THRESHOLD, new ScanResultCache(0).getIssuesMemoryThreshold());
+    }
+
+    @Test
+    @DisplayName("Retry failed scan result load")
+    public void failedLoad() {
+        UUID projectId = UUID.randomUUID();
+        UUID scanResultId = UUID.randomUUID();
+        try (ScanResultCache cache = new ScanResultCache()) {
+            assertThrows(GenericException.class, () -> cache.get(projectId, scanResultId, () -> {
+                throw new IllegalStateException("Server unavailable");
+            }));
+            assertNotNull(cache.get(projectId, scanResultId, ScanResult::new));
+        }
+    }
+}
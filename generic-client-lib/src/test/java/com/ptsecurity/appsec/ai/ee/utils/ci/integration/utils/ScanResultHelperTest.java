@@ -0,0 +1,87 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.scan.reports.Reports;
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanResult;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BlackBoxIssue;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.VulnerabilityIssue;
+import lombok.NonNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Test scan result issues filtering")
+public class ScanResultHelperTest {
+    protected static ScanResult scanResult() {
+        ScanResult res = new ScanResult();
+        res.getIssues().addAll(Arrays.asList(
+                VulnerabilityIssue.builder().id("java-high").language(ScanResult.ScanSettings.Language.JAVA)
+                        .level(BaseIssue.Level.HIGH).approvalState(BaseIssue.ApprovalState.APPROVAL)
+                        .suppressed(false).isNew(true).suspected(false).secondOrder(false)
+                        .scanMode(VulnerabilityIssue.ScanMode.FROM_ENTRYPOINT).conditions("").build(),
+                VulnerabilityIssue.builder().id("php-low").language(ScanResult.ScanSettings.Language.PHP)
+                        .level(BaseIssue.Level.LOW).approvalState(BaseIssue.ApprovalState.NONE)
+                        .suppressed(true).isNew(false).suspected(true).secondOrder(true)
+                        .scanMode(VulnerabilityIssue.ScanMode.FROM_OTHER).conditions("x > 0").build(),
+                BlackBoxIssue.builder().id("blackbox-medium").language(ScanResult.ScanSettings.Language.JAVA)
+                        .level(BaseIssue.Level.MEDIUM).approvalState(BaseIssue.ApprovalState.DISCARD)
+                        .suppressed(false).isNew(false).suspected(false).build()));
+        return res;
+    }
+
+    protected static List<String> ids(@NonNull final Reports.IssuesFilter filter) {
+        ScanResult scanResult = scanResult();
+        List<String> res = ScanResultHelper.filter(scanResult, filter).getIssues().stream()
+                .map(BaseIssue::getId).collect(Collectors.toList());
+        // Source scan result must stay untouched
+        assertEquals(3, scanResult.getIssues().size());
+        return res;
+    }
+
+    @Test
+    @DisplayName("Keep issues that match all filter dimensions")
+    public void combineDimensions() {
+        Reports.IssuesFilter filter = new Reports.IssuesFilter();
+        filter.setLanguage(Reports.IssuesFilter.ProgrammingLanguage.JAVA);
+        assertEquals(Arrays.asList("java-high", "blackbox-medium"), ids(filter));
+
+        filter.setIssueLevels(Arrays.asList(Reports.IssuesFilter.Level.HIGH, Reports.IssuesFilter.Level.LOW));
+        assertEquals(Arrays.asList("java-high"), ids(filter));
+
+        filter = new Reports.IssuesFilter();
+        filter.setSourceType(Reports.IssuesFilter.SourceType.STATIC);
+        filter.setSuppressStatus(Reports.IssuesFilter.SuppressStatus.EXCEPTSUPPRESSED);
+        assertEquals(Arrays.asList("java-high"), ids(filter));
+    }
+
+    @Test
+    @DisplayName("Keep non-vulnerability issues as found from other scan modes and without conditions")
+    public void vulnerabilityOnlyDimensions() {
+        Reports.IssuesFilter filter = new Reports.IssuesFilter();
+        filter.setScanMode(Reports.IssuesFilter.ScanMode.FROMOTHER);
+        assertEquals(Arrays.asList("php-low", "blackbox-medium"), ids(filter));
+
+        filter = new Reports.IssuesFilter();
+        filter.setExploitationCondition(Reports.IssuesFilter.Condition.NOCONDITION);
+        assertEquals(Arrays.asList("java-high", "blackbox-medium"), ids(filter));
+    }
+
+    @Test
+    @DisplayName("Hide suspected and second order issues and filter by new / old status")
+    public void hideIssues() {
+        Reports.IssuesFilter filter = new Reports.IssuesFilter();
+        filter.setHideSuspected(true);
+        filter.setHideSecondOrder(true);
+        assertEquals(Arrays.asList("java-high", "blackbox-medium"), ids(filter));
+
+        filter = new Reports.IssuesFilter();
+        filter.setActualStatus(Reports.IssuesFilter.ActualStatus.NOTISNEW);
+        filter.setConfirmationStatuses(Arrays.asList(Reports.IssuesFilter.ApprovalState.ALL));
+        assertEquals(Arrays.asList("php-low", "blackbox-medium"), ids(filter));
+    }
+}
@@ -0,0 +1,41 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.v481.ApiClient;
+import com.ptsecurity.misc.tools.TempFile;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test PT AI server version cache")
+public class ServerVersionCacheTest {
+    private static final String URL = "https://ptai.domain.org";
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Store detected API client in memory and in file")
+    public void storeDetectedClient() {
+        try (TempFile folder = TempFile.createFolder()) {
+            Path file = folder.toPath().resolve("cache").resolve("server-versions.properties");
+            ServerVersionCache cache = new ServerVersionCache(file);
+            assertNull(cache.get(URL, 3600, true));
+
+            cache.put(URL + "/", ApiClient.class.getName(), true);
+            assertEquals(ApiClient.class.getName(), cache.get(URL, 3600, false));
+            assertTrue(file.toFile().isFile());
+            // Expired entries aren't returned
+            assertNull(cache.get(URL, 0, false));
+
+            // New cache instance reads file entries only if persistent cache is used
+            ServerVersionCache anotherCache = new ServerVersionCache(file);
+            assertNull(anotherCache.get(URL, 3600, false));
+            assertEquals(ApiClient.class.getName(), anotherCache.get(URL, 3600, true));
+
+            anotherCache.remove(URL, true);
+            assertNull(new ServerVersionCache(file).get(URL, 3600, true));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils;
+
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.AbstractTool;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test sources manifest used for incremental upload")
+public class SourcesManifestTest {
+    private final AbstractTool tool = new AbstractTool() {};
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Detect sources changes using manifest stored in file")
+    public void detectChanges(@TempDir final Path root) {
+        Path sources = root.resolve("sources");
+        Path source = sources.resolve("src").resolve("Main.java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, "class Main {}".getBytes(StandardCharsets.UTF_8));
+        Files.write(sources.resolve("README.md"), "Readme".getBytes(StandardCharsets.UTF_8));
+
+        Path file = root.resolve("cache").resolve("manifest.properties");
+        assertNull(SourcesManifest.load(file));
+        SourcesManifest previous = FileCollector.manifest(null, sources.toFile(), null, tool);
+        assertEquals(3, previous.getItems().size());
+        previous.save(file);
+        SourcesManifest loaded = SourcesManifest.load(file);
+        assertNotNull(loaded);
+        assertEquals(previous.getItems(), loaded.getItems());
+        assertNull(loaded.getScanResultId());
+
+        // Scan result ID is stored separately from items
+        UUID scanResultId = UUID.randomUUID();
+        previous.setScanResultId(scanResultId);
+        previous.save(file);
+        loaded = SourcesManifest.load(file);
+        assertNotNull(loaded);
+        assertEquals(scanResultId, loaded.getScanResultId());
+        assertEquals(previous.getItems(), loaded.getItems());
+
+        // Modification time change without contents change
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 10_000));
+        SourcesManifest touched = FileCollector.manifest(null, sources.toFile(), loaded, tool);
+        assertTrue(touched.sameContent(loaded));
+
+        Files.write(source, "class Main { }".getBytes(StandardCharsets.UTF_8));
+        assertFalse(FileCollector.manifest(null, sources.toFile(), loaded, tool).sameContent(loaded));
+
+        Files.write(sources.resolve("NEW.md"), new byte[0]);
+        assertFalse(FileCollector.manifest(null, sources.toFile(), touched, tool).sameContent(touched));
+    }
+
+    @Test
+    @DisplayName("Use separate manifest for each PT AI server project")
+    public void manifestFile() {
+        UUID projectId = UUID.randomUUID();
+        assertEquals(SourcesManifest.file("https://ptai.domain.org/", projectId), SourcesManifest.file("https://PTAI.domain.org", projectId));
+        assertNotEquals(SourcesManifest.file("https://ptai.domain.org", projectId), SourcesManifest.file("https://ptai.domain.org", UUID.randomUUID()));
+    }
+}
@@ -2,6 +2,7 @@ package com.ptsecurity.misc.tools.helpers;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.MapperFeature;
@@ -14,8 +15,11 @@ import com.ptsecurity.misc.tools.exceptions.GenericException;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static com.ptsecurity.misc.tools.helpers.CallHelper.call;
@@ -66,6 +70,36 @@ public class BaseJsonHelper {
                 "JSON settings serialization failed");
     }
 
+    /**
+     * Method reads JSON array from stream token by token and passes every deserialized
+     * array item to consumer. As opposed to readValue with List type reference, only
+     * single item resides in memory at a time, so this approach is to be used for
+     * huge arrays like AST result issues
+     * @param stream Stream that contains JSON array of objects
+     * @param clazz Array item type
+     * @param consumer Function that processes deserialized array items
+     * @param <T> Array item type
+     * @return Number of array items processed
+     * @throws IOException If stream read failed or stream data isn't a JSON array
+     */
+    public static <T> long processArray(
+            @NonNull final InputStream stream,
+            @NonNull final Class<T> clazz,
+            @NonNull final Consumer<T> consumer) throws IOException {
+        final ObjectMapper mapper = createObjectMapper();
+        long count = 0;
+        try (JsonParser parser = mapper.getFactory().createParser(stream)) {
+            if (JsonToken.START_ARRAY != parser.nextToken())
+                throw new IOException("JSON array start expected");
+            while (JsonToken.END_ARRAY != parser.nextToken()) {
+                consumer.accept(mapper.readValue(parser, clazz));
+                count++;
+            }
+        }
+        log.trace("{} JSON array items processed", count);
+        return count;
+    }
+
     protected static void processJsonNode(final String name, @NonNull final JsonNode node, @NonNull Function<String, String> converter) {
         if (node.isObject()) {
             Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
@@ -7,11 +7,44 @@ import lombok.ToString;
 import lombok.experimental.SuperBuilder;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Slf4j
 @SuperBuilder
 @NoArgsConstructor
 @ToString
 public class CallHelper {
+    private static final AtomicInteger ASYNC_THREAD_COUNTER = new AtomicInteger(0);
+
+    /**
+     * Maximum number of concurrently executed asynchronous calls. Other calls wait in queue
+     */
+    public static final int ASYNC_POOL_SIZE = 16;
+
+    /**
+     * Executor for asynchronous calls. As those calls are mostly blocking REST API
+     * requests, we can't use common fork-join pool. Pool is bounded as it is shared by all
+     * the concurrent jobs in process, i.e. Jenkins builds. Idle threads are released after a minute
+     */
+    private static final ExecutorService ASYNC_EXECUTOR;
+
+    static {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                ASYNC_POOL_SIZE, ASYNC_POOL_SIZE, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "pt-async-call-" + ASYNC_THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        ASYNC_EXECUTOR = executor;
+    }
+
     /**
      * Call method that may throw an Exception and wrap that exception into ApiException
      * @param call Function to be called
@@ -60,4 +93,36 @@ public class CallHelper {
             return null;
         }, errorMessage);
     }
+
+    /**
+     * Asynchronously call method that may throw an Exception. Use {@link #await(CompletableFuture)}
+     * to get call result
+     * @param call Function to be called
+     * @param errorMessage Generic error message if function call failed
+     * @param <V> Function return type
+     * @return Future that completes with function call result or with GenericException
+     */
+    public static <V> CompletableFuture<V> callAsync(@NonNull Callable<V> call, @NonNull String errorMessage) {
+        return CompletableFuture.supplyAsync(() -> call(call, errorMessage), ASYNC_EXECUTOR);
+    }
+
+    /**
+     * Wait for asynchronous call to complete
+     * @param future Asynchronous call future
+     * @param <V> Function return type
+     * @return Function call result
+     * @throws GenericException Exception that was thrown by asynchronous call or
+     * that wraps InterruptedException if current thread was interrupted
+     */
+    public static <V> V await(@NonNull CompletableFuture<V> future) throws GenericException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw GenericException.raise("Asynchronous call interrupted", e);
+        } catch (ExecutionException e) {
+            throw GenericException.raise("Asynchronous call failed", e.getCause());
+        }
+    }
 }
@@ -1,10 +1,20 @@
 package com.ptsecurity.misc.tools.helpers;
 
 import com.ptsecurity.misc.tools.BaseTest;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.SneakyThrows;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class BaseJsonHelperTest extends BaseTest {
     @Test
@@ -14,4 +24,26 @@ class BaseJsonHelperTest extends BaseTest {
         json = BaseJsonHelper.replaceMacro(json, (s) -> { return "Modified " + s; });
         assertEquals(json, BaseJsonHelper.minimize("{ \"field\": \"Modified value\" }"));
     }
+
+    @Getter
+    @Setter
+    public static class Item {
+        protected String name;
+        protected Integer value;
+    }
+
+    @Test
+    @DisplayName("JSON array streaming processing")
+    @SneakyThrows
+    public void processArray() {
+        String json = "[ { \"name\": \"first\", \"value\": 1 }, { \"name\": \"second\", \"value\": 2, \"unknown\": [] } ]";
+        List<Item> items = new ArrayList<>();
+        long count = BaseJsonHelper.processArray(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Item.class, items::add);
+        assertEquals(2, count);
+        assertEquals("second", items.get(1).getName());
+        assertEquals(2, items.get(1).getValue());
+
+        assertEquals(0, BaseJsonHelper.processArray(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)), Item.class, items::add));
+        assertThrows(IOException.class, () -> BaseJsonHelper.processArray(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)), Item.class, items::add));
+    }
 }
\ No newline at end of file
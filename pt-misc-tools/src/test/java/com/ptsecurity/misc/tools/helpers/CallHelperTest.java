@@ -0,0 +1,48 @@
+package com.ptsecurity.misc.tools.helpers;
+
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ptsecurity.misc.tools.helpers.CallHelper.await;
+import static com.ptsecurity.misc.tools.helpers.CallHelper.callAsync;
+
+class CallHelperTest {
+    @Test
+    @DisplayName("Check asynchronous calls result and error processing")
+    public void checkAsyncCall() {
+        CompletableFuture<String> value = callAsync(() -> "value", "Value call failed");
+        CompletableFuture<Integer> length = value.thenCompose(v -> callAsync(v::length, "Length call failed"));
+        Assertions.assertEquals("value", await(value));
+        Assertions.assertEquals(5, await(length));
+
+        CompletableFuture<String> failed = callAsync(() -> { throw new IllegalStateException("Failure"); }, "Failed call");
+        CompletableFuture<Integer> dependent = failed.thenCompose(v -> callAsync(v::length, "Length call failed"));
+        GenericException e = Assertions.assertThrows(GenericException.class, () -> await(failed));
+        Assertions.assertEquals("Failed call", e.getMessage());
+        e = Assertions.assertThrows(GenericException.class, () -> await(dependent));
+        Assertions.assertEquals("Failed call", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Limit number of concurrently executed asynchronous calls")
+    public void checkAsyncCallsLimit() {
+        AtomicInteger running = new AtomicInteger(0);
+        AtomicInteger maxRunning = new AtomicInteger(0);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 3 * CallHelper.ASYNC_POOL_SIZE; i++)
+            futures.add(callAsync(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                return running.decrementAndGet();
+            }, "Call failed"));
+        for (CompletableFuture<Integer> future : futures) await(future);
+        Assertions.assertTrue(CallHelper.ASYNC_POOL_SIZE >= maxRunning.get());
+    }
+}
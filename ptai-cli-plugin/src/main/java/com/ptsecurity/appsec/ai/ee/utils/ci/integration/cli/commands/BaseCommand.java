@@ -3,8 +3,10 @@ package com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.commands;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.ptsecurity.appsec.ai.ee.scan.reports.Reports;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.Resources;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.AbstractApiClient;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.Plugin;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.BaseCredentials;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.ConnectionSettings;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.PasswordCredentials;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.TokenCredentials;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.subjobs.export.Sarif;
@@ -19,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
 import picocli.CommandLine;
 
+import java.io.PrintStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
@@ -295,4 +298,28 @@ public abstract class BaseCommand {
             names = {"--insecure"}, order = 99,
             description = "Do not verify CA certificate chain")
     protected boolean insecure = false;
+
+    /**
+     * Stream where command output is to be sent. Daemon mode replaces it with remote client's one
+     */
+    @Setter
+    protected PrintStream out = System.out;
+
+    /**
+     * Already authenticated client that job's client is derived from. Set in daemon mode only
+     */
+    @Setter
+    protected AbstractApiClient sharedClient = null;
+
+    /**
+     * @return Connection settings defined by command line parameters. Trusted certificates
+     * aren't loaded here as jobs read those from truststore during initialization
+     */
+    protected ConnectionSettings connectionSettings() {
+        return ConnectionSettings.builder()
+                .url(url.toString())
+                .credentials(credentials.getBaseCredentials())
+                .insecure(insecure)
+                .build();
+    }
 }
@@ -0,0 +1,251 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.commands;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.Resources;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.AbstractApiClient;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.Factory;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.CliJsonAstJob;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.Plugin;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.ConnectionSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.AbstractJob;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.subjobs.state.FailIfAstFailed;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.subjobs.state.FailIfAstUnstable;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import com.ptsecurity.misc.tools.helpers.BaseJsonHelper;
+import com.ptsecurity.misc.tools.helpers.CallHelper;
+import lombok.*;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@Slf4j
+@CommandLine.Command(
+        name = "batch-ast",
+        sortOptions = false,
+        description = "Calls PT AI for AST of multiple projects. Projects, their JSON-defined settings and policies are listed in YAML or JSON manifest file",
+        exitCodeOnInvalidInput = Plugin.INVALID_INPUT,
+        exitCodeListHeading = "Exit Codes:%n",
+        exitCodeList = {
+                "0:Success",
+                "1:Failure",
+                "1000:Invalid input"})
+public class BatchAst extends BaseCommand implements Callable<Integer> {
+    /**
+     * Batch manifest project. All the paths are relative to manifest file folder
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Project {
+        /**
+         * Name that prefixes project console output. Input file or folder name is used if it isn't defined
+         */
+        protected String name;
+        protected String input;
+        /**
+         * Folder where AST reports are to be stored. By default .ptai/&lt;name&gt; folder near manifest is used
+         */
+        protected String output;
+        protected String settings;
+        protected String policy;
+        protected String includes;
+        protected String excludes;
+        protected boolean useDefaultExcludes = false;
+        /**
+         * JSON file that defines reports to be generated
+         */
+        protected String reports;
+        protected boolean failIfFailed = false;
+        protected boolean failIfUnstable = false;
+        protected boolean fullScan = false;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Manifest {
+        protected List<Project> projects = new ArrayList<>();
+    }
+
+    /**
+     * Project AST result that is shown in batch summary
+     */
+    @Getter
+    @Builder
+    public static class Result {
+        protected final String name;
+        protected final AbstractJob.JobExecutionResult result;
+        protected final String projectName;
+        protected final UUID scanResultId;
+        /**
+         * AST job duration in seconds
+         */
+        protected final long duration;
+    }
+
+    @CommandLine.Spec
+    CommandLine.Model.CommandSpec spec;
+
+    @CommandLine.Option(
+            names = {"--manifest"}, order = 5,
+            required = true,
+            paramLabel = "<path>",
+            description = "YAML or JSON file that defines projects to scan. Each project is defined with input, settings, policy, output, includes, excludes, useDefaultExcludes, reports, failIfFailed, failIfUnstable and fullScan fields. Paths are relative to manifest file folder")
+    protected Path manifest = null;
+
+    @CommandLine.Option(
+            names = {"--parallelism"}, order = 6,
+            paramLabel = "<number>",
+            description = "Maximum number of projects that are scanned concurrently. Default value is 4")
+    protected int parallelism = 4;
+
+    @CommandLine.Option(
+            names = {"--summary"}, order = 7,
+            paramLabel = "<file>",
+            description = "JSON file where batch AST summary is to be saved")
+    protected Path summary = null;
+
+    @Override
+    public Integer call() {
+        if (1 > parallelism)
+            throw new CommandLine.ParameterException(spec.commandLine(), "Parallelism must be positive number");
+
+        List<Project> projects;
+        AbstractApiClient client;
+        try {
+            projects = load(manifest);
+            ConnectionSettings connectionSettings = connectionSettings();
+            if (null != truststore)
+                connectionSettings.setCaCertsPem(CallHelper.call(
+                        () -> new String(Files.readAllBytes(truststore), UTF_8),
+                        Resources.i18n_ast_settings_server_ca_pem_message_file_read_failed()));
+            // Authenticate once, so all the project jobs share JWT and HTTP connection pool
+            client = Factory.client(connectionSettings, AdvancedSettings.getDefault());
+        } catch (GenericException e) {
+            System.out.println(e.getDetailedMessage());
+            log.error(e.getDetailedMessage(), e.getCause());
+            return ExitCode.FAILED.getCode();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, projects.size()));
+        List<Future<Result>> futures = new ArrayList<>();
+        for (Project project : projects)
+            futures.add(executor.submit(() -> execute(project, client)));
+        executor.shutdown();
+
+        List<Result> results = new ArrayList<>();
+        try {
+            for (Future<Result> future : futures) results.add(future.get());
+        } catch (InterruptedException e) {
+            log.debug("Batch AST interrupted");
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            return ExitCode.FAILED.getCode();
+        } catch (ExecutionException e) {
+            // Project jobs process their exceptions themselves, so this isn't expected to happen
+            log.error("Batch AST failed", e.getCause());
+            executor.shutdownNow();
+            return ExitCode.FAILED.getCode();
+        }
+
+        System.out.println("Batch AST summary:");
+        for (Result result : results)
+            System.out.printf("[%s] %s, project: %s, scan result: %s, duration: %d s%n",
+                    result.getName(), result.getResult(), result.getProjectName(), result.getScanResultId(), result.getDuration());
+        if (null != summary) {
+            try {
+                CallHelper.call(() -> Files.write(summary, BaseJsonHelper.serialize(results).getBytes(UTF_8)), "Batch AST summary save failed");
+            } catch (GenericException e) {
+                System.out.println(e.getDetailedMessage());
+                log.error(e.getDetailedMessage(), e.getCause());
+                return ExitCode.FAILED.getCode();
+            }
+        }
+        return results.stream().allMatch(r -> AbstractJob.JobExecutionResult.SUCCESS == r.getResult())
+                ? ExitCode.SUCCESS.getCode()
+                : ExitCode.FAILED.getCode();
+    }
+
+    protected Result execute(@NonNull final Project project, @NonNull final AbstractApiClient client) {
+        long start = System.currentTimeMillis();
+        CliJsonAstJob job = CliJsonAstJob.builder()
+                .console(System.out).prefix("[" + project.getName() + "] ").verbose(verbose)
+                .connectionSettings(connectionSettings())
+                .sharedClient(client)
+                .settings(Paths.get(project.getSettings()))
+                .policy(null == project.getPolicy() ? null : Paths.get(project.getPolicy()))
+                .async(false)
+                .input(Paths.get(project.getInput())).output(Paths.get(project.getOutput()))
+                .includes(project.getIncludes()).excludes(project.getExcludes())
+                .useDefaultExcludes(project.isUseDefaultExcludes())
+                .truststore(truststore)
+                .fullScanMode(project.isFullScan())
+                .build();
+        AbstractJob.JobExecutionResult res;
+        try {
+            if (null != project.getReports()) {
+                Reporting reporting = new Reporting();
+                reporting.reportingJson = Paths.get(project.getReports());
+                reporting.addSubJobs(job);
+            }
+            if (project.isFailIfFailed()) new FailIfAstFailed().attach(job);
+            if (project.isFailIfUnstable()) new FailIfAstUnstable().attach(job);
+            res = job.execute();
+        } catch (GenericException e) {
+            res = job.processException(e);
+        }
+        return Result.builder()
+                .name(project.getName())
+                .result(res)
+                .projectName(job.getProjectName())
+                .scanResultId(job.getScanResultId())
+                .duration(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - start))
+                .build();
+    }
+
+    /**
+     * Load projects from manifest file and resolve their paths against manifest folder
+     */
+    public static List<Project> load(@NonNull final Path manifest) throws GenericException {
+        String extension = FilenameUtils.getExtension(manifest.toString()).toLowerCase();
+        ObjectMapper mapper = "yml".equals(extension) || "yaml".equals(extension)
+                ? new ObjectMapper(new YAMLFactory()).configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                : BaseJsonHelper.createObjectMapper();
+        Manifest data = CallHelper.call(() -> mapper.readValue(manifest.toFile(), Manifest.class), "Batch AST manifest read failed");
+        if (null == data || null == data.getProjects() || data.getProjects().isEmpty())
+            throw GenericException.raise("Batch AST manifest read failed", new IllegalArgumentException("There are no projects in manifest"));
+
+        Path folder = manifest.toAbsolutePath().getParent();
+        Set<String> names = new HashSet<>();
+        for (Project project : data.getProjects()) {
+            if (StringUtils.isEmpty(project.getInput()) || StringUtils.isEmpty(project.getSettings()))
+                throw GenericException.raise("Batch AST manifest read failed", new IllegalArgumentException("Project input and settings must be defined"));
+            Path input = folder.resolve(project.getInput()).normalize();
+            project.setInput(input.toString());
+            if (StringUtils.isEmpty(project.getName())) project.setName(String.valueOf(input.getFileName()));
+            if (!names.add(project.getName()))
+                throw GenericException.raise("Batch AST manifest read failed", new IllegalArgumentException("Duplicate project name " + project.getName()));
+            project.setOutput(StringUtils.isEmpty(project.getOutput())
+                    ? folder.resolve(AbstractJob.DEFAULT_OUTPUT_FOLDER).resolve(project.getName()).toString()
+                    : folder.resolve(project.getOutput()).normalize().toString());
+            project.setSettings(folder.resolve(project.getSettings()).normalize().toString());
+            if (StringUtils.isNotEmpty(project.getPolicy()))
+                project.setPolicy(folder.resolve(project.getPolicy()).normalize().toString());
+            if (StringUtils.isNotEmpty(project.getReports()))
+                project.setReports(folder.resolve(project.getReports()).normalize().toString());
+        }
+        return data.getProjects();
+    }
+}
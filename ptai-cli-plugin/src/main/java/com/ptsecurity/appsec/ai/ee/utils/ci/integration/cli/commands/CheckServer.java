@@ -54,7 +54,7 @@ public class CheckServer extends BaseCommand implements Callable<Integer> {
     @Override
     public Integer call() {
         CliCheckServerJob job = CliCheckServerJob.builder()
-                .console(System.out)
+                .console(out)
                 .prefix("")
                 .verbose(verbose)
                 .connectionSettings(ConnectionSettings.builder()
@@ -63,6 +63,7 @@ public class CheckServer extends BaseCommand implements Callable<Integer> {
                         .credentials(credentials.getBaseCredentials())
                         .build())
                 .truststore(truststore)
+                .sharedClient(sharedClient)
                 .build();
         AbstractJob.JobExecutionResult res = job.execute();
         if (SUCCESS == res) {
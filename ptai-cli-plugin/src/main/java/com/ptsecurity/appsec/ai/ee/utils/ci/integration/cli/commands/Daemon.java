@@ -0,0 +1,414 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.commands;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.Resources;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.AbstractApiClient;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.Factory;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.Plugin;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.BaseCredentials;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.ConnectionSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.PasswordCredentials;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.TokenCredentials;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import com.ptsecurity.misc.tools.helpers.BaseJsonHelper;
+import com.ptsecurity.misc.tools.helpers.CallHelper;
+import com.ptsecurity.misc.tools.helpers.HashHelper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Long-running CLI plugin instance that executes json-ast, generate-report and check-server
+ * commands sent by {@link Remote} clients over localhost HTTP. Daemon keeps authenticated
+ * API clients, so commands do not repeat JVM startup, PT AI version detection and authentication.
+ * As any local process may connect to daemon port, requests must contain random token that daemon
+ * writes to file readable by its user only, JSON content type and loopback Host header. The last two
+ * checks make browser pages unable to send commands to daemon
+ */
+@Slf4j
+@CommandLine.Command(
+        name = "daemon",
+        sortOptions = false,
+        description = "Starts CLI plugin daemon that executes json-ast, generate-report and check-server commands sent using remote command",
+        exitCodeOnInvalidInput = Plugin.INVALID_INPUT,
+        exitCodeListHeading = "Exit Codes:%n",
+        exitCodeList = {
+                "0:Success",
+                "1:Failure",
+                "1000:Invalid input"})
+public class Daemon implements Callable<Integer> {
+    public static final int DEFAULT_PORT = 8765;
+
+    public static final String PATH = "/run";
+
+    public static final Path TOKEN_FOLDER = Paths.get(System.getProperty("user.home"), ".cache", "ptai", "daemon");
+
+    /**
+     * @return File where daemon that listens to port stores its access token
+     */
+    public static Path tokenFile(final int port) {
+        return TOKEN_FOLDER.resolve(port + ".token");
+    }
+
+    /**
+     * Command that remote client sends to daemon
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Request {
+        protected List<String> args = new ArrayList<>();
+        /**
+         * Remote client working folder. Relative paths in command arguments are resolved against it
+         */
+        protected String folder;
+    }
+
+    /**
+     * Daemon response is a sequence of JSON lines. Each line contains either command output line or command exit code
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Response {
+        protected String output;
+        protected Integer exitCode;
+    }
+
+    @CommandLine.Option(
+            names = {"--port"}, order = 1,
+            paramLabel = "<port>",
+            description = "Localhost TCP port that daemon listens to. Default value is " + DEFAULT_PORT)
+    protected int port = DEFAULT_PORT;
+
+    @CommandLine.Option(
+            names = {"--max-jobs"}, order = 2,
+            paramLabel = "<number>",
+            description = "Maximum number of commands that are executed concurrently. Other commands wait in queue. Default value is 4")
+    protected int maxJobs = 4;
+
+    @CommandLine.Option(
+            names = {"--client-ttl"}, order = 3,
+            paramLabel = "<seconds>",
+            description = "Time in seconds authenticated PT AI server client is reused for. Default value is 3600")
+    protected int clientTtl = 3600;
+
+    @CommandLine.Spec
+    CommandLine.Model.CommandSpec spec;
+
+    protected Semaphore jobs;
+
+    /**
+     * Token that remote clients send in Authorization header
+     */
+    protected String token;
+
+    /**
+     * Authenticated API clients creation futures and their creation times. Futures let clients be
+     * created outside of map lock, so slow or unreachable server doesn't block commands for other ones
+     */
+    protected final Map<String, Map.Entry<Long, CompletableFuture<AbstractApiClient>>> clients = new HashMap<>();
+
+    @Override
+    public Integer call() throws IOException, InterruptedException {
+        if (1 > maxJobs)
+            throw new CommandLine.ParameterException(spec.commandLine(), "Maximum number of jobs must be positive number");
+        HttpServer server = start();
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stop(server);
+            stopped.countDown();
+        }));
+        System.out.println("Daemon is listening on " + server.getAddress());
+        stopped.await();
+        return BaseCommand.ExitCode.SUCCESS.getCode();
+    }
+
+    /**
+     * Start HTTP server that accepts connections from local host only and write its access token to file
+     */
+    public HttpServer start() throws IOException {
+        jobs = new Semaphore(Math.max(1, maxJobs), true);
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        token = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        try {
+            writeToken(tokenFile(server.getAddress().getPort()));
+        } catch (IOException e) {
+            server.stop(0);
+            throw e;
+        }
+        server.createContext(PATH, this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+
+    /**
+     * Stop HTTP server and remove its access token file
+     */
+    public void stop(@NonNull final HttpServer server) {
+        Path file = tokenFile(server.getAddress().getPort());
+        server.stop(0);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Daemon token file {} delete failed", file);
+            log.trace("Exception details", e);
+        }
+    }
+
+    /**
+     * Write token to file that is readable by current user only. File is created with
+     * owner-only permissions, so token is never readable by others even for a moment
+     */
+    protected void writeToken(@NonNull final Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.deleteIfExists(file);
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix"))
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        else {
+            // Windows user profile folder is not accessible to other users by default
+            Files.createFile(file);
+            File f = file.toFile();
+            boolean restricted = f.setReadable(false, false) & f.setReadable(true, true)
+                    & f.setWritable(false, false) & f.setWritable(true, true);
+            if (!restricted) log.debug("Daemon token file {} permissions are not restricted", file);
+        }
+        Files.write(file, token.getBytes(UTF_8));
+    }
+
+    /**
+     * Check request headers
+     * @return HTTP status code that request is to be rejected with or null if request is valid
+     */
+    protected Integer validate(@NonNull final HttpExchange exchange) {
+        if (!"POST".equals(exchange.getRequestMethod())) return 405;
+        // Browser pages resolve attacker's host name to 127.0.0.1 and send its name in Host header
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        int port = exchange.getLocalAddress().getPort();
+        if (!Arrays.asList("localhost:" + port, "127.0.0.1:" + port, "[::1]:" + port).contains(host))
+            return 403;
+        // Browser page can't send JSON cross-origin request without CORS preflight that daemon doesn't support
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (null == contentType || !contentType.split(";")[0].trim().equalsIgnoreCase("application/json"))
+            return 415;
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (null == authorization || !MessageDigest.isEqual(
+                ("Bearer " + token).getBytes(UTF_8), authorization.trim().getBytes(UTF_8)))
+            return 401;
+        return null;
+    }
+
+    protected void handle(@NonNull final HttpExchange exchange) throws IOException {
+        try {
+            Integer rejected = validate(exchange);
+            if (null != rejected) {
+                log.debug("Remote command rejected with {} status code", rejected);
+                exchange.sendResponseHeaders(rejected, -1);
+                return;
+            }
+            Request request;
+            try {
+                request = BaseJsonHelper.createObjectMapper().readValue(exchange.getRequestBody(), Request.class);
+            } catch (JsonProcessingException e) {
+                log.debug("Remote command request parse failed");
+                log.trace("Exception details", e);
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+            exchange.sendResponseHeaders(200, 0);
+            try (JsonLinesOutputStream lines = new JsonLinesOutputStream(exchange.getResponseBody())) {
+                int exitCode = execute(request, new PrintStream(lines, true, UTF_8.name()));
+                lines.exit(exitCode);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Remote client may disconnect while command is being executed
+            log.debug("Remote command processing failed");
+            log.trace("Exception details", e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Parse and execute remote command with output sent to remote client
+     */
+    protected int execute(@NonNull final Request request, @NonNull final PrintStream out) {
+        CommandLine commandLine = new CommandLine(new Plugin());
+        Path folder = Paths.get(null == request.getFolder() ? System.getProperty("user.dir") : request.getFolder());
+        commandLine.registerConverter(Path.class, value -> folder.resolve(value));
+        commandLine.setCaseInsensitiveEnumValuesAllowed(true);
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, UTF_8), true);
+        commandLine.setOut(writer);
+        commandLine.setErr(writer);
+        commandLine.setExecutionStrategy(parseResult -> {
+            CommandLine.ParseResult subcommand = parseResult.subcommand();
+            if (null == subcommand || subcommand.isUsageHelpRequested() || subcommand.isVersionHelpRequested())
+                return new CommandLine.RunLast().execute(parseResult);
+            Object command = subcommand.commandSpec().userObject();
+            if (!(command instanceof JsonAst || command instanceof GenerateReport || command instanceof CheckServer))
+                throw new CommandLine.ParameterException(subcommand.commandSpec().commandLine(),
+                        "Command " + subcommand.commandSpec().name() + " isn't supported in daemon mode");
+            BaseCommand baseCommand = (BaseCommand) command;
+            baseCommand.setOut(out);
+            try {
+                jobs.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CommandLine.ExecutionException(commandLine, "Daemon command execution interrupted", e);
+            }
+            try {
+                baseCommand.setSharedClient(client(baseCommand));
+                return new CommandLine.RunLast().execute(parseResult);
+            } catch (GenericException e) {
+                out.println(e.getDetailedMessage());
+                log.error(e.getDetailedMessage(), e.getCause());
+                return BaseCommand.ExitCode.FAILED.getCode();
+            } finally {
+                jobs.release();
+            }
+        });
+        return commandLine.execute(request.getArgs().toArray(new String[0]));
+    }
+
+    /**
+     * Get authenticated API client for command connection settings. Client is
+     * created and authenticated on first use and reused until its TTL expires
+     */
+    protected AbstractApiClient client(@NonNull final BaseCommand command) throws GenericException {
+        ConnectionSettings connectionSettings = command.connectionSettings();
+        if (null != command.truststore)
+            connectionSettings.setCaCertsPem(CallHelper.call(
+                    () -> new String(Files.readAllBytes(command.truststore), UTF_8),
+                    Resources.i18n_ast_settings_server_ca_pem_message_file_read_failed()));
+        BaseCredentials credentials = connectionSettings.getCredentials();
+        String identity = credentials instanceof TokenCredentials
+                ? "token|" + ((TokenCredentials) credentials).getToken()
+                : "password|" + ((PasswordCredentials) credentials).getUser() + "|" + ((PasswordCredentials) credentials).getPassword();
+        String key = HashHelper.md5(String.join("|",
+                connectionSettings.getUrl(), identity,
+                String.valueOf(connectionSettings.isInsecure()), String.valueOf(connectionSettings.getCaCertsPem())));
+        Map.Entry<Long, CompletableFuture<AbstractApiClient>> entry;
+        boolean create = false;
+        synchronized (clients) {
+            // Remove expired clients, so those aren't kept forever if their settings aren't used anymore
+            long now = System.currentTimeMillis();
+            clients.values().removeIf(e -> now - e.getKey() >= TimeUnit.SECONDS.toMillis(clientTtl));
+            entry = clients.get(key);
+            if (null == entry) {
+                entry = new AbstractMap.SimpleImmutableEntry<>(now, new CompletableFuture<>());
+                clients.put(key, entry);
+                create = true;
+            }
+        }
+        CompletableFuture<AbstractApiClient> future = entry.getValue();
+        if (create) {
+            log.debug("Create API client for {}", connectionSettings.getUrl());
+            try {
+                AbstractApiClient client = Factory.client(connectionSettings, AdvancedSettings.getDefault());
+                future.complete(client);
+                return client;
+            } catch (RuntimeException e) {
+                // Failed client creation must not be cached, so next command will retry it
+                synchronized (clients) {
+                    clients.remove(key, entry);
+                }
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw GenericException.raise("API client creation wait interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GenericException) throw (GenericException) e.getCause();
+            throw GenericException.raise("API client creation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stream that sends each output line to remote client as a separate JSON line
+     */
+    @RequiredArgsConstructor
+    protected static class JsonLinesOutputStream extends OutputStream {
+        @NonNull
+        protected final OutputStream body;
+
+        protected final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        /**
+         * Response must not be pretty-printed as each one is sent as a single line
+         */
+        protected final ObjectMapper mapper = BaseJsonHelper.createObjectMapper();
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            if ('\n' == b)
+                sendLine();
+            else
+                line.write(b);
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            body.flush();
+        }
+
+        public synchronized void exit(final int exitCode) throws IOException {
+            if (0 < line.size()) sendLine();
+            Response response = new Response();
+            response.setExitCode(exitCode);
+            send(response);
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            body.close();
+        }
+
+        protected void sendLine() throws IOException {
+            Response response = new Response();
+            response.setOutput(new String(line.toByteArray(), UTF_8).replaceAll("\r$", ""));
+            line.reset();
+            send(response);
+        }
+
+        protected void send(@NonNull final Response response) throws IOException {
+            body.write((mapper.writeValueAsString(response) + "\n").getBytes(UTF_8));
+            body.flush();
+        }
+    }
+}
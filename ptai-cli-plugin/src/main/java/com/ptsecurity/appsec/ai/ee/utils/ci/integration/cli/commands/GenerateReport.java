@@ -99,7 +99,7 @@ public class GenerateReport extends BaseCommand implements Callable<Integer> {
     @Override
     public Integer call() {
         CliGenerateReportsJob job = CliGenerateReportsJob.builder()
-                .console(System.out).prefix("").verbose(verbose)
+                .console(out).prefix("").verbose(verbose)
                 .connectionSettings(ConnectionSettings.builder()
                         .url(url.toString())
                         .credentials(credentials.getBaseCredentials())
@@ -111,6 +111,7 @@ public class GenerateReport extends BaseCommand implements Callable<Integer> {
                 .output(output)
                 .reports(reports.convert())
                 .truststore(truststore)
+                .sharedClient(sharedClient)
                 .build();
         return (SUCCESS == job.execute())
                 ? BaseCommand.ExitCode.SUCCESS.getCode()
@@ -94,7 +94,7 @@ public class JsonAst extends BaseCommand implements Callable<Integer> {
     @Override
     public Integer call() {
         CliJsonAstJob job = CliJsonAstJob.builder()
-                .console(System.out).prefix("").verbose(verbose)
+                .console(out).prefix("").verbose(verbose)
                 .connectionSettings(ConnectionSettings.builder()
                         .url(url.toString())
                         .credentials(credentials.getBaseCredentials())
@@ -107,6 +107,7 @@ public class JsonAst extends BaseCommand implements Callable<Integer> {
                 .includes(includes).excludes(excludes)
                 .useDefaultExcludes(useDefaultExcludes)
                 .truststore(truststore)
+                .sharedClient(sharedClient)
                 .fullScanMode(fullScan)
                 .build();
         if (null != reports) reports.addSubJobs(job);
@@ -0,0 +1,107 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.commands;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.Plugin;
+import com.ptsecurity.misc.tools.helpers.BaseJsonHelper;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Thin client that forwards its arguments to CLI plugin {@link Daemon} and prints command output.
+ * Daemon access token is read from file that daemon writes on start
+ */
+@Slf4j
+@CommandLine.Command(
+        name = "remote",
+        sortOptions = false,
+        description = "Sends json-ast, generate-report or check-server command to CLI plugin daemon, i.e. remote --daemon-port 8765 -- check-server --url https://ptai.domain.org:443 --token <token>",
+        exitCodeOnInvalidInput = Plugin.INVALID_INPUT,
+        exitCodeListHeading = "Exit Codes:%n",
+        exitCodeList = {
+                "0:Success",
+                "1:Failure",
+                "1000:Invalid input"})
+public class Remote implements Callable<Integer> {
+    @CommandLine.Option(
+            names = {"--daemon-port"}, order = 1,
+            paramLabel = "<port>",
+            description = "Localhost TCP port that daemon listens to. Default value is " + Daemon.DEFAULT_PORT)
+    protected int port = Daemon.DEFAULT_PORT;
+
+    @CommandLine.Parameters(
+            arity = "1..*",
+            paramLabel = "<argument>",
+            description = "Command and its arguments to be executed by daemon")
+    protected List<String> args = new ArrayList<>();
+
+    /**
+     * Arguments after command name are forwarded as is even if those look like options
+     */
+    @CommandLine.Spec
+    protected void setSpec(final CommandLine.Model.CommandSpec spec) {
+        spec.parser().stopAtPositional(true);
+    }
+
+    @Override
+    public Integer call() {
+        Daemon.Request request = new Daemon.Request();
+        request.getArgs().addAll(args);
+        request.setFolder(System.getProperty("user.dir"));
+
+        ObjectMapper mapper = BaseJsonHelper.createObjectMapper();
+        Path tokenFile = Daemon.tokenFile(port);
+        HttpURLConnection connection = null;
+        try {
+            if (!tokenFile.toFile().isFile()) {
+                System.out.println("Daemon token file " + tokenFile + " not found. Check that daemon is started on port " + port);
+                return BaseCommand.ExitCode.FAILED.getCode();
+            }
+            String token = new String(Files.readAllBytes(tokenFile), UTF_8).trim();
+            URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), port, Daemon.PATH);
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setRequestProperty("Authorization", "Bearer " + token);
+            connection.setDoOutput(true);
+            // Command execution time isn't limited as AST may take hours
+            connection.setReadTimeout(0);
+            try (OutputStream body = connection.getOutputStream()) {
+                mapper.writeValue(body, request);
+            }
+            if (HttpURLConnection.HTTP_OK != connection.getResponseCode()) {
+                System.out.println("Daemon rejected command with HTTP status code " + connection.getResponseCode());
+                return BaseCommand.ExitCode.FAILED.getCode();
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), UTF_8))) {
+                String line;
+                while (null != (line = reader.readLine())) {
+                    Daemon.Response response = mapper.readValue(line, Daemon.Response.class);
+                    if (null != response.getExitCode()) return response.getExitCode();
+                    if (null != response.getOutput()) System.out.println(response.getOutput());
+                }
+            }
+            System.out.println("Daemon connection closed before command completion");
+        } catch (IOException e) {
+            System.out.println("Daemon call failed: " + e.getMessage());
+            log.error("Daemon call failed", e);
+        } finally {
+            if (null != connection) connection.disconnect();
+        }
+        return BaseCommand.ExitCode.FAILED.getCode();
+    }
+}
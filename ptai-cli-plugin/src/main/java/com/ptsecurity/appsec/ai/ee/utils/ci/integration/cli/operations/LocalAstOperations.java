@@ -9,6 +9,8 @@ import com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.utils.GracefulShutdo
 import com.ptsecurity.misc.tools.exceptions.GenericException;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.operations.AstOperations;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.FileCollector;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.SourcesManifest;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ZipStreamBody;
 import lombok.Builder;
 import lombok.NonNull;
 import org.apache.commons.lang3.StringUtils;
@@ -37,12 +39,27 @@ public class LocalAstOperations implements AstOperations {
         return FileCollector.collect(transfers, input.toFile(), owner);
     }
 
-    public File createZip() throws GenericException {
+    protected Transfers createTransfers() {
         Transfer transfer = new Transfer();
         if (StringUtils.isNotEmpty(owner.getIncludes())) transfer.setIncludes(owner.getIncludes());
         if (StringUtils.isNotEmpty(owner.getExcludes())) transfer.setExcludes(owner.getExcludes());
         transfer.setUseDefaultExcludes(owner.isUseDefaultExcludes());
-        return createLocalZip(new Transfers().addTransfer(transfer), owner.getInput());
+        return new Transfers().addTransfer(transfer);
+    }
+
+    public File createZip() throws GenericException {
+        return createLocalZip(createTransfers(), owner.getInput());
+    }
+
+    @Override
+    public ZipStreamBody.Writer createZipWriter() {
+        Transfers transfers = createTransfers();
+        return output -> FileCollector.collect(transfers, owner.getInput().toFile(), output, owner);
+    }
+
+    @Override
+    public SourcesManifest createManifest(final SourcesManifest previous) throws GenericException {
+        return FileCollector.manifest(createTransfers(), owner.getInput().toFile(), previous, owner);
     }
 
     public void scanStartedCallback(@NonNull final UUID projectId, @NonNull UUID scanResultId) {
@@ -0,0 +1,72 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli;
+
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.commands.BaseCommand;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.commands.BatchAst;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.AbstractJob;
+import com.ptsecurity.misc.tools.BaseTest;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test batch AST manifest processing")
+public class BatchAstTest extends BaseTest {
+    @TempDir
+    protected Path folder;
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Load YAML manifest and resolve project paths against its folder")
+    public void loadYamlManifest() {
+        Path manifest = folder.resolve("batch.yml");
+        Files.write(manifest, (
+                "projects:\n" +
+                "  - input: src/app\n" +
+                "    settings: settings/app.json\n" +
+                "    policy: settings/policy.json\n" +
+                "    failIfFailed: true\n" +
+                "  - name: lib\n" +
+                "    input: src/lib\n" +
+                "    settings: settings/lib.json\n" +
+                "    output: reports/lib\n").getBytes(UTF_8));
+        List<BatchAst.Project> projects = BatchAst.load(manifest);
+        assertEquals(2, projects.size());
+        BatchAst.Project app = projects.get(0);
+        assertEquals("app", app.getName());
+        assertEquals(folder.resolve("src").resolve("app").toString(), app.getInput());
+        assertEquals(folder.resolve("settings").resolve("policy.json").toString(), app.getPolicy());
+        assertEquals(folder.resolve(AbstractJob.DEFAULT_OUTPUT_FOLDER).resolve("app").toString(), app.getOutput());
+        assertTrue(app.isFailIfFailed());
+        BatchAst.Project lib = projects.get(1);
+        assertNull(lib.getPolicy());
+        assertEquals(folder.resolve("reports").resolve("lib").toString(), lib.getOutput());
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Fail JSON manifest load if project names are duplicated")
+    public void failDuplicateNames() {
+        Path manifest = folder.resolve("batch.json");
+        Files.write(manifest, (
+                "{ \"projects\": [\n" +
+                "  { \"input\": \"one/app\", \"settings\": \"one.json\" },\n" +
+                "  { \"input\": \"two/app\", \"settings\": \"two.json\" } ] }").getBytes(UTF_8));
+        assertThrows(GenericException.class, () -> BatchAst.load(manifest));
+    }
+
+    @Test
+    @DisplayName("Show usage of batch AST")
+    public void showBatchAstUsage() {
+        Integer res = new CommandLine(new Plugin()).execute("batch-ast");
+        assertEquals(BaseCommand.ExitCode.INVALID_INPUT.getCode(), res);
+    }
+}
@@ -0,0 +1,116 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli;
+
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.commands.BaseCommand;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.cli.commands.Daemon;
+import com.ptsecurity.misc.tools.BaseTest;
+import com.sun.net.httpserver.HttpServer;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test CLI plugin daemon mode")
+public class DaemonTest extends BaseTest {
+    @Test
+    @DisplayName("Forward remote command arguments as is")
+    public void forwardArguments() {
+        CommandLine.ParseResult res = new CommandLine(new Plugin()).parseArgs(
+                "remote", "--daemon-port", "1234", "json-ast", "--url", "https://ptai.domain.org", "-v");
+        assertEquals(
+                Arrays.asList("json-ast", "--url", "https://ptai.domain.org", "-v"),
+                res.subcommand().matchedPositional(0).getValue());
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Execute remote commands in daemon")
+    public void executeRemoteCommands() {
+        Daemon daemon = new Daemon();
+        new CommandLine(daemon).parseArgs("--port", "0");
+        HttpServer server = daemon.start();
+        try {
+            String port = String.valueOf(server.getAddress().getPort());
+            // Missing required options
+            assertEquals(BaseCommand.ExitCode.INVALID_INPUT.getCode(), new CommandLine(new Plugin()).execute(
+                    "remote", "--daemon-port", port, "json-ast"));
+            // Command that isn't supported in daemon mode
+            assertEquals(BaseCommand.ExitCode.INVALID_INPUT.getCode(), new CommandLine(new Plugin()).execute(
+                    "remote", "--daemon-port", port, "delete-project", "--url", "https://127.0.0.1:1", "--token", "token", "--project-name", "name"));
+            // PT AI server is unreachable
+            assertEquals(BaseCommand.ExitCode.FAILED.getCode(), new CommandLine(new Plugin()).execute(
+                    "remote", "--daemon-port", port, "check-server", "--url", "https://127.0.0.1:1", "--token", "token"));
+        } finally {
+            daemon.stop(server);
+        }
+    }
+
+    /**
+     * Send raw HTTP request as {@link java.net.HttpURLConnection} doesn't allow to set Host header
+     * @return Response status code
+     */
+    @SneakyThrows
+    protected static int send(final int port, final String host, final String contentType, final String token) {
+        return send(port, host, contentType, token, "{\"args\":[\"check-server\"]}");
+    }
+
+    @SneakyThrows
+    protected static int send(final int port, final String host, final String contentType, final String token, final String body) {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            StringBuilder request = new StringBuilder("POST " + Daemon.PATH + " HTTP/1.1\r\n")
+                    .append("Host: ").append(host).append("\r\n")
+                    .append("Content-Length: ").append(body.length()).append("\r\n")
+                    .append("Connection: close\r\n");
+            if (null != contentType) request.append("Content-Type: ").append(contentType).append("\r\n");
+            if (null != token) request.append("Authorization: Bearer ").append(token).append("\r\n");
+            request.append("\r\n").append(body);
+            OutputStream out = socket.getOutputStream();
+            out.write(request.toString().getBytes(UTF_8));
+            out.flush();
+            String status = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8)).readLine();
+            return Integer.parseInt(status.split(" ")[1]);
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Reject remote commands without token, JSON content type, loopback host or valid body")
+    public void rejectUnauthorizedCommands() {
+        Daemon daemon = new Daemon();
+        new CommandLine(daemon).parseArgs("--port", "0");
+        HttpServer server = daemon.start();
+        int port = server.getAddress().getPort();
+        Path tokenFile = Daemon.tokenFile(port);
+        try {
+            assertTrue(tokenFile.toFile().isFile());
+            if (tokenFile.getFileSystem().supportedFileAttributeViews().contains("posix"))
+                assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile)));
+            String token = new String(Files.readAllBytes(tokenFile), UTF_8);
+            String host = "127.0.0.1:" + port;
+
+            assertEquals(401, send(port, host, "application/json", null));
+            assertEquals(401, send(port, host, "application/json", token + "x"));
+            assertEquals(415, send(port, host, "text/plain", token));
+            assertEquals(415, send(port, host, null, token));
+            assertEquals(403, send(port, "attacker.domain.org:" + port, "application/json", token));
+            assertEquals(400, send(port, host, "application/json", token, "{\"args\":"));
+            // Valid request fails as command misses required options
+            assertEquals(200, send(port, host, "application/json; charset=utf-8", token));
+        } finally {
+            daemon.stop(server);
+        }
+        assertFalse(tokenFile.toFile().exists());
+    }
+}
@@ -3,13 +3,13 @@ package com.ptsecurity.appsec.ai.ee.scan.result;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.ptsecurity.appsec.ai.ee.scan.progress.Stage;
 import com.ptsecurity.appsec.ai.ee.scan.reports.Reports;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.IssueIndex;
 import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
 import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.VulnerabilityIssue;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Class that extends ScanBrief with data required to build charts
@@ -179,49 +179,84 @@ public class ScanBriefDetailed extends ScanBrief {
 
     }
 
+    /**
+     * Issue distribution group key. Issue title depends on issue type only, so issues are
+     * grouped by type key and localized titles are resolved once per group
+     */
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    protected static class DistributionKey {
+        private final String issueTypeKey;
+        private final BaseIssue.Level level;
+        private final BaseIssue.Type clazz;
+        private final BaseIssue.ApprovalState approvalState;
+        private final Boolean favorite;
+        private final Boolean suspected;
+        private final Boolean suppressed;
+        private final Boolean isNew;
+        private final VulnerabilityIssue.ScanMode scanMode;
+
+        /**
+         * @param values Issue group attribute values in {@link #ATTRIBUTES} order
+         */
+        public static DistributionKey create(@NonNull final List<Object> values) {
+            BaseIssue.Type clazz = (BaseIssue.Type) values.get(2);
+            // Issues other than vulnerabilities are treated as found from other scan modes
+            VulnerabilityIssue.ScanMode scanMode = BaseIssue.Type.VULNERABILITY == clazz
+                    ? (VulnerabilityIssue.ScanMode) values.get(8)
+                    : VulnerabilityIssue.ScanMode.FROM_OTHER;
+            return new DistributionKey(
+                    (String) values.get(0), (BaseIssue.Level) values.get(1), clazz, (BaseIssue.ApprovalState) values.get(3),
+                    (Boolean) values.get(4), (Boolean) values.get(5), (Boolean) values.get(6), (Boolean) values.get(7),
+                    scanMode);
+        }
+    }
+
+    protected static final IssueIndex.Attribute[] ATTRIBUTES = {
+            IssueIndex.Attribute.ISSUE_TYPE_KEY, IssueIndex.Attribute.LEVEL, IssueIndex.Attribute.CLASS,
+            IssueIndex.Attribute.APPROVAL_STATE, IssueIndex.Attribute.FAVORITE, IssueIndex.Attribute.SUSPECTED,
+            IssueIndex.Attribute.SUPPRESSED, IssueIndex.Attribute.IS_NEW, IssueIndex.Attribute.SCAN_MODE };
+
+    /**
+     * Count issues of the same attribute values. Groups are calculated using scan result
+     * issues index that is shared with filtered exports, so issues aren't walked through again
+     */
     public static List<Details.ChartData.BaseIssueCount> createBaseIssueDistributionData(@NonNull final ScanResult scanResult) {
-        Map<Details.ChartData.BaseIssueCountFields, Long> distribution = scanResult.getIssues().stream()
-                .collect(Collectors.groupingBy(
-                        issue -> {
-                            Map<Reports.Locale, String> title = new HashMap<>();
-                            for (Reports.Locale locale : Reports.Locale.values()) {
-                                String titleStr = scanResult.getI18n().get(issue.getIssueTypeKey()).get(locale).getTitle();
-                                title.put(locale, titleStr);
-                            }
-                            return Details.ChartData.BaseIssueCountFields.builder()
-                                    .approvalState(issue.getApprovalState())
-                                    .clazz(issue.getClazz())
-                                    .title(title)
-                                    .favorite(issue.getFavorite())
-                                    .level(issue.getLevel())
-                                    .isNew(issue.getIsNew())
-                                    .suppressed(issue.getSuppressed())
-                                    .suspected(issue.getSuspected())
-                                    .suppressed(issue.getSuppressed())
-                                    .scanMode(issue instanceof VulnerabilityIssue
-                                            ? ((VulnerabilityIssue) issue).getScanMode()
-                                            : VulnerabilityIssue.ScanMode.FROM_OTHER)
-                                    .build();
-                        },
-                        Collectors.counting()));
+        IssueIndex index = scanResult.getIndex();
+        Map<DistributionKey, Long> distribution = new HashMap<>();
+        for (IssueIndex.Group group : index.group(index.all(), ATTRIBUTES))
+            distribution.merge(DistributionKey.create(group.getValues()), (long) group.getCount(), Long::sum);
+
         Comparator<Details.ChartData.BaseIssueCount> compareLevelTypeAndCount = Comparator
                 .comparing(Details.ChartData.BaseIssueCount::getLevel, Comparator.comparingInt(BaseIssue.Level::getValue).reversed())
                 .thenComparing(Details.ChartData.BaseIssueCount::getCount, Comparator.reverseOrder());
         List<Details.ChartData.BaseIssueCount> res = new ArrayList<>();
+        // Groups of the same issue type share single title map
+        Map<String, Map<Reports.Locale, String>> titles = new HashMap<>();
 
-        for (Details.ChartData.BaseIssueCountFields key : distribution.keySet())
+        for (Map.Entry<DistributionKey, Long> group : distribution.entrySet()) {
+            DistributionKey key = group.getKey();
+            Map<Reports.Locale, String> title = titles.computeIfAbsent(key.getIssueTypeKey(), typeKey -> {
+                Map<Reports.Locale, String> value = new HashMap<>();
+                for (Reports.Locale locale : Reports.Locale.values())
+                    value.put(locale, scanResult.getI18n().get(typeKey).get(locale).getTitle());
+                return value;
+            });
             res.add(Details.ChartData.BaseIssueCount.builder()
                     .approvalState(key.getApprovalState())
                     .clazz(key.getClazz())
                     .favorite(key.getFavorite())
                     .level(key.getLevel())
                     .isNew(key.getIsNew())
-                    .title(key.getTitle())
+                    .title(title)
                     .suspected(key.getSuspected())
                     .suppressed(key.getSuppressed())
-                    .count(distribution.get(key))
+                    .count(group.getValue())
                     .scanMode(key.getScanMode())
                     .build());
-        return res.stream().sorted(compareLevelTypeAndCount).collect(Collectors.toList());
+        }
+        res.sort(compareLevelTypeAndCount);
+        return res;
     }
 }
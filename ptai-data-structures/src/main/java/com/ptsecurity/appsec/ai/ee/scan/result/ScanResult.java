@@ -1,17 +1,23 @@
 package com.ptsecurity.appsec.ai.ee.scan.result;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.ptsecurity.appsec.ai.ee.scan.reports.Reports;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.DiskBackedIssueList;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.IssueArrayList;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.IssueIndex;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.TrackedIssueList;
 import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
 import com.ptsecurity.appsec.ai.ee.scan.settings.Policy;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 
+import java.io.Closeable;
 import java.util.*;
 
 @SuperBuilder
 @NoArgsConstructor
-public class ScanResult extends ScanBrief {
+public class ScanResult extends ScanBrief implements Closeable {
     /**
      * As AST result issues list may be big (for example, OWASP Benchmark
      * issues JSON is 75 megabytes and during its parsing JVM consumes
@@ -25,7 +31,94 @@ public class ScanResult extends ScanBrief {
     protected boolean issuesParseOk = false;
 
     @Getter
-    protected final List<BaseIssue> issues = new ArrayList<>();
+    @Builder.Default
+    protected List<BaseIssue> issues = new IssueArrayList();
+
+    /**
+     * Lazily built issues index. It is shared by all the consumers of this scan
+     * result and rebuilt if issues list is modified
+     */
+    @JsonIgnore
+    @Builder.Default
+    protected IssueIndex index = null;
+
+    /**
+     * Issues list and its modification count that index is built for
+     */
+    @JsonIgnore
+    @Builder.Default
+    protected List<BaseIssue> indexedIssues = null;
+
+    @JsonIgnore
+    @Builder.Default
+    protected long indexedModificationCount = 0;
+
+    /**
+     * @return Index of scan result issues that is built on first call. Index is cached
+     * for {@link TrackedIssueList} issues only as other lists modifications can't be detected
+     */
+    @JsonIgnore
+    public synchronized IssueIndex getIndex() {
+        boolean tracked = issues instanceof TrackedIssueList;
+        long modificationCount = tracked ? ((TrackedIssueList) issues).getModificationCount() : 0;
+        if (null == index || !tracked || indexedIssues != issues || indexedModificationCount != modificationCount) {
+            index = new IssueIndex(issues);
+            indexedIssues = issues;
+            indexedModificationCount = modificationCount;
+        }
+        return index;
+    }
+
+    /**
+     * Switch issues storage to {@link DiskBackedIssueList} that keeps no more than
+     * threshold issues on heap. Already added issues are moved to the new storage
+     * @param threshold Maximum number of issues to be kept on heap
+     */
+    public void useDiskBackedIssues(final int threshold) {
+        if (issues instanceof DiskBackedIssueList) return;
+        List<BaseIssue> diskBackedIssues = new DiskBackedIssueList(threshold);
+        diskBackedIssues.addAll(issues);
+        issues = diskBackedIssues;
+        index = null;
+        indexedIssues = null;
+    }
+
+    /**
+     * Create scan result shallow copy that shares all the fields with this
+     * instance except issues list. Copy issues list is empty and uses
+     * the same storage type as this instance does
+     * @return Scan result copy without issues
+     */
+    public ScanResult copyWithoutIssues() {
+        ScanResult res = new ScanResult();
+        res.apiVersion = apiVersion;
+        res.ptaiServerUrl = ptaiServerUrl;
+        res.ptaiServerVersion = ptaiServerVersion;
+        res.ptaiAgentVersion = ptaiAgentVersion;
+        res.ptaiAgentName = ptaiAgentName;
+        res.id = id;
+        res.projectId = projectId;
+        res.projectName = projectName;
+        res.useAsyncScan = useAsyncScan;
+        res.scanSettings = scanSettings;
+        res.policyState = policyState;
+        res.statistics = statistics;
+        res.state = state;
+        res.issuesParseOk = issuesParseOk;
+        res.i18n = i18n;
+        if (issues instanceof DiskBackedIssueList)
+            res.useDiskBackedIssues(((DiskBackedIssueList) issues).getThreshold());
+        return res;
+    }
+
+    /**
+     * Release resources like temporary files that are used to store issues
+     */
+    @Override
+    public void close() {
+        if (issues instanceof DiskBackedIssueList)
+            ((DiskBackedIssueList) issues).close();
+    }
 
     @Getter @Setter
     @NoArgsConstructor
@@ -0,0 +1,293 @@
+package com.ptsecurity.appsec.ai.ee.scan.result.issue;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+import com.ptsecurity.misc.tools.TempFile;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.ptsecurity.misc.tools.helpers.BaseJsonHelper.createObjectMapper;
+import static com.ptsecurity.misc.tools.helpers.CallHelper.call;
+
+/**
+ * Scan result issues list that keeps no more than threshold issues on heap. When
+ * in-memory tail becomes full, issues are serialized to JSON, compressed and
+ * appended to temporary file as a chunk. Spilled chunks are deserialized on
+ * demand during iteration, each iterator caches only one chunk at a time. List supports
+ * append and removal, but issues read from disk are copies, so their modification
+ * isn't persisted. Temporary file is deleted on {@link #close()} or on JVM exit.
+ * Closed list can't be used anymore, its access methods throw {@link IllegalStateException}.
+ * Concurrent reads are thread-safe as chunks are read using positional file reads and
+ * cached chunks are immutable, but list modification must not be concurrent with other calls
+ */
+@Slf4j
+public class DiskBackedIssueList extends AbstractList<BaseIssue> implements TrackedIssueList, Closeable {
+    private static final ObjectMapper MAPPER = createObjectMapper();
+    private static final JavaType CHUNK_TYPE = MAPPER.getTypeFactory().constructCollectionType(List.class, BaseIssue.class);
+
+    /**
+     * Maximum number of issues to be kept on heap. Each spilled chunk contains exactly threshold issues
+     */
+    @Getter
+    private final int threshold;
+
+    /**
+     * Issues that aren't spilled to disk yet
+     */
+    private final List<BaseIssue> tail = new ArrayList<>();
+
+    /**
+     * Spilled chunks offsets and lengths in temporary file
+     */
+    private final List<long[]> chunks = new ArrayList<>();
+
+    /**
+     * Removed issues bits. As removal from spilled chunks isn't possible
+     * without file rewrite, we just mark physical index as removed
+     */
+    private final BitSet removed = new BitSet();
+    private int removedCount = 0;
+    private int physicalSize = 0;
+
+    private TempFile file = null;
+    private FileChannel data = null;
+    private boolean closed = false;
+
+    /**
+     * Deserialized spilled chunk
+     */
+    @RequiredArgsConstructor
+    private static class Chunk {
+        private final int index;
+        private final List<BaseIssue> issues;
+    }
+
+    /**
+     * Chunk that was used by last random access call
+     */
+    private volatile Chunk cachedChunk = null;
+
+    public DiskBackedIssueList(final int threshold) {
+        if (0 >= threshold) throw new IllegalArgumentException("Issues memory threshold must be positive");
+        this.threshold = threshold;
+    }
+
+    @Override
+    public int size() {
+        return physicalSize - removedCount;
+    }
+
+    @Override
+    public long getModificationCount() {
+        return modCount;
+    }
+
+    /**
+     * @return True if some issues are spilled to temporary file
+     */
+    public boolean isSpilled() {
+        return !chunks.isEmpty();
+    }
+
+    @Override
+    public BaseIssue get(final int index) {
+        checkOpen();
+        if (0 > index || size() <= index) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        return physicalGet(toPhysical(index));
+    }
+
+    /**
+     * Only appending to the end of the list is supported, i.e. index must be equal to list size
+     * @throws UnsupportedOperationException Index doesn't point to the end of the list
+     */
+    @Override
+    public void add(final int index, @NonNull final BaseIssue issue) {
+        checkOpen();
+        if (size() != index) throw new UnsupportedOperationException("Only issues append is supported");
+        tail.add(issue);
+        physicalSize++;
+        modCount++;
+        if (threshold <= tail.size()) spill();
+    }
+
+    @Override
+    public BaseIssue remove(final int index) {
+        checkOpen();
+        if (0 > index || size() <= index) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        int physical = toPhysical(index);
+        BaseIssue res = physicalGet(physical);
+        markRemoved(physical);
+        return res;
+    }
+
+    @Override
+    public void clear() {
+        checkOpen();
+        release();
+        tail.clear();
+        chunks.clear();
+        removed.clear();
+        removedCount = 0;
+        physicalSize = 0;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<BaseIssue> iterator() {
+        checkOpen();
+        return new Itr();
+    }
+
+    @Override
+    public void close() throws GenericException {
+        release();
+        closed = true;
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("Issues list is closed");
+    }
+
+    /**
+     * Delete temporary file and drop cached chunk
+     */
+    private void release() throws GenericException {
+        cachedChunk = null;
+        if (null != data) {
+            call(data::close, "Issues temporary file close failed");
+            data = null;
+        }
+        if (null != file) {
+            file.close();
+            file = null;
+        }
+    }
+
+    private void markRemoved(final int physical) {
+        removed.set(physical);
+        removedCount++;
+        modCount++;
+    }
+
+    /**
+     * Convert logical index to physical one skipping removed items. Takes linear time if
+     * there were removals, so sequential access should be done using iterator
+     */
+    private int toPhysical(final int index) {
+        if (0 == removedCount) return index;
+        int physical = removed.nextClearBit(0);
+        for (int i = 0; i < index; i++)
+            physical = removed.nextClearBit(physical + 1);
+        return physical;
+    }
+
+    private BaseIssue physicalGet(final int physical) {
+        int chunkIndex = physical / threshold;
+        if (chunks.size() == chunkIndex) return tail.get(physical % threshold);
+        Chunk chunk = chunk(chunkIndex, cachedChunk);
+        cachedChunk = chunk;
+        return chunk.issues.get(physical % threshold);
+    }
+
+    /**
+     * Get chunk from cache or load it from temporary file if cached one has different index
+     */
+    private Chunk chunk(final int chunkIndex, final Chunk cached) {
+        return null != cached && chunkIndex == cached.index ? cached : loadChunk(chunkIndex);
+    }
+
+    private void spill() {
+        call(() -> {
+            if (null == file) {
+                file = TempFile.createFile();
+                file.toFile().deleteOnExit();
+                data = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                log.debug("Issues list exceeded {} items threshold, spilling to {}", threshold, file);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+                MAPPER.writerFor(CHUNK_TYPE).writeValue(gzip, tail);
+            }
+            long offset = data.size();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining())
+                data.write(buffer, offset + buffer.position());
+            chunks.add(new long[] { offset, bytes.size() });
+            log.trace("Issues chunk {} of {} bytes spilled", chunks.size() - 1, bytes.size());
+            tail.clear();
+        }, "Issues spill to temporary file failed");
+    }
+
+    /**
+     * Read and deserialize chunk. Positional read doesn't change file channel position,
+     * so it may be done concurrently
+     */
+    private Chunk loadChunk(final int chunkIndex) {
+        return call(() -> {
+            long[] chunk = chunks.get(chunkIndex);
+            ByteBuffer buffer = ByteBuffer.allocate((int) chunk[1]);
+            while (buffer.hasRemaining())
+                if (0 > data.read(buffer, chunk[0] + buffer.position()))
+                    throw new EOFException("Unexpected end of issues temporary file");
+            try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(buffer.array()))) {
+                return new Chunk(chunkIndex, MAPPER.<List<BaseIssue>>readValue(gzip, CHUNK_TYPE));
+            }
+        }, "Issues chunk load from temporary file failed");
+    }
+
+    /**
+     * Iterator that walks through physical indices so there's no need for logical
+     * to physical index conversion on every step. Iterator caches its own chunk, so
+     * concurrent iterations do not reload chunks of each other
+     */
+    private class Itr implements Iterator<BaseIssue> {
+        private int cursor = removed.nextClearBit(0);
+        private int lastReturned = -1;
+        private int expectedModCount = modCount;
+        private Chunk chunk = null;
+
+        @Override
+        public boolean hasNext() {
+            return cursor < physicalSize;
+        }
+
+        @Override
+        public BaseIssue next() {
+            checkOpen();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException();
+            int chunkIndex = cursor / threshold;
+            BaseIssue res;
+            if (chunks.size() == chunkIndex)
+                res = tail.get(cursor % threshold);
+            else {
+                chunk = chunk(chunkIndex, chunk);
+                res = chunk.issues.get(cursor % threshold);
+            }
+            lastReturned = cursor;
+            cursor = removed.nextClearBit(cursor + 1);
+            return res;
+        }
+
+        @Override
+        public void remove() {
+            if (0 > lastReturned) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            markRemoved(lastReturned);
+            lastReturned = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.ptsecurity.appsec.ai.ee.scan.result.issue;
+
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+
+import java.util.ArrayList;
+
+/**
+ * In-memory scan result issues list. As {@link ArrayList} counts structural
+ * modifications only, issue replacements are counted separately. Replacements
+ * made through {@link #subList} views aren't counted
+ */
+public class IssueArrayList extends ArrayList<BaseIssue> implements TrackedIssueList {
+    private long replacements = 0;
+
+    @Override
+    public BaseIssue set(final int index, final BaseIssue issue) {
+        BaseIssue res = super.set(index, issue);
+        replacements++;
+        return res;
+    }
+
+    @Override
+    public long getModificationCount() {
+        return modCount + replacements;
+    }
+}
@@ -0,0 +1,339 @@
+package com.ptsecurity.appsec.ai.ee.scan.result.issue;
+
+import com.ptsecurity.appsec.ai.ee.scan.reports.Reports;
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanResult;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.VulnerabilityIssue;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.util.*;
+
+/**
+ * Columnar index of scan result issues. Index is built in a single pass over issues list and
+ * keeps a bitset of issue positions for each attribute value, so {@link Reports.IssuesFilter}
+ * queries of different filtered exports and issue distribution groups are calculated using
+ * bitwise operations without walking through issues again
+ */
+public class IssueIndex {
+    /**
+     * Mapping of issue attribute values to issues filter ones
+     */
+    protected static final Map<ScanResult.ScanSettings.Language, Reports.IssuesFilter.ProgrammingLanguage> LANGUAGES;
+    protected static final Map<BaseIssue.Level, Reports.IssuesFilter.Level> LEVELS;
+    protected static final Map<BaseIssue.ApprovalState, Reports.IssuesFilter.ApprovalState> APPROVAL_STATES;
+    protected static final Map<VulnerabilityIssue.ScanMode, Reports.IssuesFilter.ScanMode> SCAN_MODES;
+
+    static {
+        Map<ScanResult.ScanSettings.Language, Reports.IssuesFilter.ProgrammingLanguage> languages = new EnumMap<>(ScanResult.ScanSettings.Language.class);
+        languages.put(ScanResult.ScanSettings.Language.JAVA, Reports.IssuesFilter.ProgrammingLanguage.JAVA);
+        languages.put(ScanResult.ScanSettings.Language.PHP, Reports.IssuesFilter.ProgrammingLanguage.PHP);
+        languages.put(ScanResult.ScanSettings.Language.CSHARP, Reports.IssuesFilter.ProgrammingLanguage.CSHARP);
+        languages.put(ScanResult.ScanSettings.Language.VB, Reports.IssuesFilter.ProgrammingLanguage.VB);
+        languages.put(ScanResult.ScanSettings.Language.GO, Reports.IssuesFilter.ProgrammingLanguage.GO);
+        languages.put(ScanResult.ScanSettings.Language.CPP, Reports.IssuesFilter.ProgrammingLanguage.CANDCPLUSPLUS);
+        languages.put(ScanResult.ScanSettings.Language.PYTHON, Reports.IssuesFilter.ProgrammingLanguage.PYTHON);
+        languages.put(ScanResult.ScanSettings.Language.SQL, Reports.IssuesFilter.ProgrammingLanguage.SQL);
+        languages.put(ScanResult.ScanSettings.Language.JAVASCRIPT, Reports.IssuesFilter.ProgrammingLanguage.JAVASCRIPT);
+        languages.put(ScanResult.ScanSettings.Language.KOTLIN, Reports.IssuesFilter.ProgrammingLanguage.KOTLIN);
+        languages.put(ScanResult.ScanSettings.Language.SWIFT, Reports.IssuesFilter.ProgrammingLanguage.SWIFT);
+        languages.put(ScanResult.ScanSettings.Language.RUBY, Reports.IssuesFilter.ProgrammingLanguage.RUBY);
+        languages.put(ScanResult.ScanSettings.Language.OBJECTIVEC, Reports.IssuesFilter.ProgrammingLanguage.OBJECTIVEC);
+        LANGUAGES = Collections.unmodifiableMap(languages);
+
+        Map<BaseIssue.Level, Reports.IssuesFilter.Level> levels = new EnumMap<>(BaseIssue.Level.class);
+        levels.put(BaseIssue.Level.HIGH, Reports.IssuesFilter.Level.HIGH);
+        levels.put(BaseIssue.Level.MEDIUM, Reports.IssuesFilter.Level.MEDIUM);
+        levels.put(BaseIssue.Level.LOW, Reports.IssuesFilter.Level.LOW);
+        levels.put(BaseIssue.Level.POTENTIAL, Reports.IssuesFilter.Level.POTENTIAL);
+        levels.put(BaseIssue.Level.NONE, Reports.IssuesFilter.Level.NONE);
+        LEVELS = Collections.unmodifiableMap(levels);
+
+        Map<BaseIssue.ApprovalState, Reports.IssuesFilter.ApprovalState> approvalStates = new EnumMap<>(BaseIssue.ApprovalState.class);
+        approvalStates.put(BaseIssue.ApprovalState.APPROVAL, Reports.IssuesFilter.ApprovalState.APPROVED);
+        approvalStates.put(BaseIssue.ApprovalState.AUTO_APPROVAL, Reports.IssuesFilter.ApprovalState.AUTOAPPROVED);
+        approvalStates.put(BaseIssue.ApprovalState.DISCARD, Reports.IssuesFilter.ApprovalState.DISCARDED);
+        approvalStates.put(BaseIssue.ApprovalState.NOT_EXIST, Reports.IssuesFilter.ApprovalState.UNDEFINED);
+        approvalStates.put(BaseIssue.ApprovalState.NONE, Reports.IssuesFilter.ApprovalState.NONE);
+        APPROVAL_STATES = Collections.unmodifiableMap(approvalStates);
+
+        Map<VulnerabilityIssue.ScanMode, Reports.IssuesFilter.ScanMode> scanModes = new EnumMap<>(VulnerabilityIssue.ScanMode.class);
+        scanModes.put(VulnerabilityIssue.ScanMode.FROM_ROOT, Reports.IssuesFilter.ScanMode.FROMROOT);
+        scanModes.put(VulnerabilityIssue.ScanMode.FROM_OTHER, Reports.IssuesFilter.ScanMode.FROMOTHER);
+        scanModes.put(VulnerabilityIssue.ScanMode.FROM_ENTRYPOINT, Reports.IssuesFilter.ScanMode.FROMENTRYPOINT);
+        scanModes.put(VulnerabilityIssue.ScanMode.FROM_PUBLICPROTECTED, Reports.IssuesFilter.ScanMode.FROMPUBLICPROTECTED);
+        SCAN_MODES = Collections.unmodifiableMap(scanModes);
+    }
+
+    /**
+     * Number of indexed issues
+     */
+    @Getter
+    protected final int size;
+
+    protected final Map<BaseIssue.Level, BitSet> levels = new EnumMap<>(BaseIssue.Level.class);
+    protected final Map<BaseIssue.Type, BitSet> classes = new EnumMap<>(BaseIssue.Type.class);
+    protected final Map<BaseIssue.ApprovalState, BitSet> approvalStates = new EnumMap<>(BaseIssue.ApprovalState.class);
+    protected final Map<ScanResult.ScanSettings.Language, BitSet> languages = new EnumMap<>(ScanResult.ScanSettings.Language.class);
+    /**
+     * Vulnerabilities scan modes. Other issue types have no scan mode
+     */
+    protected final Map<VulnerabilityIssue.ScanMode, BitSet> scanModes = new EnumMap<>(VulnerabilityIssue.ScanMode.class);
+
+    protected final Map<String, BitSet> issueTypeKeys = new HashMap<>();
+    /**
+     * Nullable boolean attributes. Issues with null attribute value are in neither bitset
+     */
+    protected final Map<Boolean, BitSet> favorite = new HashMap<>();
+    protected final Map<Boolean, BitSet> suspected = new HashMap<>();
+    protected final Map<Boolean, BitSet> suppressed = new HashMap<>();
+    protected final Map<Boolean, BitSet> isNew = new HashMap<>();
+
+    protected final BitSet secondOrder = new BitSet();
+    /**
+     * Vulnerabilities that have exploitation conditions
+     */
+    protected final BitSet underCondition = new BitSet();
+
+    public IssueIndex(@NonNull final List<BaseIssue> issues) {
+        int i = 0;
+        for (BaseIssue issue : issues) {
+            set(levels, issue.getLevel(), i);
+            set(classes, issue.getClazz(), i);
+            set(approvalStates, issue.getApprovalState(), i);
+            set(languages, issue.getLanguage(), i);
+            set(issueTypeKeys, issue.getIssueTypeKey(), i);
+            set(favorite, issue.getFavorite(), i);
+            set(suspected, issue.getSuspected(), i);
+            set(suppressed, issue.getSuppressed(), i);
+            set(isNew, issue.getIsNew(), i);
+            if (issue instanceof VulnerabilityIssue) {
+                VulnerabilityIssue vulnerabilityIssue = (VulnerabilityIssue) issue;
+                set(scanModes, vulnerabilityIssue.getScanMode(), i);
+                if (Boolean.TRUE.equals(vulnerabilityIssue.getSecondOrder())) secondOrder.set(i);
+                if (null != vulnerabilityIssue.getConditions() && !vulnerabilityIssue.getConditions().isEmpty()) underCondition.set(i);
+            }
+            i++;
+        }
+        size = i;
+    }
+
+    /**
+     * @return Bitset with all the indexed issues positions
+     */
+    public BitSet all() {
+        BitSet res = new BitSet(size);
+        res.set(0, size);
+        return res;
+    }
+
+    /**
+     * Select issues that are to be kept in scan result after {@link Reports.IssuesFilter} is
+     * applied. Single-value and multi-value filter options are joined. Options that do
+     * not restrict anything, like empty or "ALL" value sets, are ignored as well as
+     * "byXxx" ones that aren't applicable to JSON reports
+     * @param filter Issues filter
+     * @return Bitset of selected issues positions
+     */
+    public BitSet select(final Reports.IssuesFilter filter) {
+        BitSet res = all();
+        if (null == filter) return res;
+
+        Set<Reports.IssuesFilter.ProgrammingLanguage> programmingLanguages = values(filter.getLanguage(), filter.getLanguages());
+        if (!programmingLanguages.isEmpty() && !programmingLanguages.contains(Reports.IssuesFilter.ProgrammingLanguage.ALL))
+            res.and(union(languages, LANGUAGES, programmingLanguages));
+
+        Set<Reports.IssuesFilter.Level> filterLevels = values(filter.getIssueLevel(), filter.getIssueLevels());
+        if (!filterLevels.isEmpty() && !filterLevels.contains(Reports.IssuesFilter.Level.ALL))
+            res.and(union(levels, LEVELS, filterLevels));
+
+        Set<Reports.IssuesFilter.ApprovalState> filterApprovalStates = values(filter.getConfirmationStatus(), filter.getConfirmationStatuses());
+        if (!filterApprovalStates.isEmpty() && !filterApprovalStates.contains(Reports.IssuesFilter.ApprovalState.ALL))
+            res.and(union(approvalStates, APPROVAL_STATES, filterApprovalStates));
+
+        BitSet vulnerabilities = get(classes, BaseIssue.Type.VULNERABILITY);
+        // Issues other than vulnerabilities have no conditions and are kept
+        Set<Reports.IssuesFilter.Condition> conditions = values(filter.getExploitationCondition(), filter.getExploitationConditions());
+        if (!conditions.isEmpty() && !conditions.contains(Reports.IssuesFilter.Condition.ALL)) {
+            BitSet keep = all();
+            keep.andNot(vulnerabilities);
+            if (conditions.contains(Reports.IssuesFilter.Condition.UNDERCONDITION))
+                keep.or(underCondition);
+            if (conditions.contains(Reports.IssuesFilter.Condition.NOCONDITION)) {
+                BitSet noCondition = (BitSet) vulnerabilities.clone();
+                noCondition.andNot(underCondition);
+                keep.or(noCondition);
+            }
+            res.and(keep);
+        }
+
+        Set<Reports.IssuesFilter.SuppressStatus> suppressStatuses = values(filter.getSuppressStatus(), filter.getSuppressStatuses());
+        if (!suppressStatuses.isEmpty() && !suppressStatuses.contains(Reports.IssuesFilter.SuppressStatus.ALL))
+            res.and(split(get(suppressed, Boolean.TRUE),
+                    suppressStatuses.contains(Reports.IssuesFilter.SuppressStatus.SUPPRESSED),
+                    suppressStatuses.contains(Reports.IssuesFilter.SuppressStatus.EXCEPTSUPPRESSED)));
+
+        Set<Reports.IssuesFilter.SourceType> sourceTypes = values(filter.getSourceType(), filter.getSourceTypes());
+        if (!sourceTypes.isEmpty() && !sourceTypes.contains(Reports.IssuesFilter.SourceType.ALL))
+            res.and(split(get(classes, BaseIssue.Type.BLACKBOX),
+                    sourceTypes.contains(Reports.IssuesFilter.SourceType.BLACKBOX),
+                    sourceTypes.contains(Reports.IssuesFilter.SourceType.STATIC)));
+
+        // Issues other than vulnerabilities are treated as found from other scan modes
+        Set<Reports.IssuesFilter.ScanMode> filterScanModes = values(filter.getScanMode(), filter.getScanModes());
+        if (!filterScanModes.isEmpty() && !filterScanModes.contains(Reports.IssuesFilter.ScanMode.ALL)) {
+            BitSet keep = union(scanModes, SCAN_MODES, filterScanModes);
+            if (filterScanModes.contains(Reports.IssuesFilter.ScanMode.FROMOTHER)) {
+                BitSet other = all();
+                other.andNot(vulnerabilities);
+                keep.or(other);
+            }
+            res.and(keep);
+        }
+
+        Reports.IssuesFilter.ActualStatus actualStatus = filter.getActualStatus();
+        if (null != actualStatus && Reports.IssuesFilter.ActualStatus.ALL != actualStatus)
+            res.and(split(get(isNew, Boolean.TRUE),
+                    Reports.IssuesFilter.ActualStatus.ISNEW == actualStatus,
+                    Reports.IssuesFilter.ActualStatus.NOTISNEW == actualStatus));
+
+        if (Boolean.TRUE.equals(filter.getHideSecondOrder())) res.andNot(secondOrder);
+        if (Boolean.TRUE.equals(filter.getHideSuspected())) res.andNot(get(suspected, Boolean.TRUE));
+        return res;
+    }
+
+    /**
+     * Issue attributes that selected issues may be grouped by
+     */
+    public enum Attribute {
+        ISSUE_TYPE_KEY, LEVEL, CLASS, APPROVAL_STATE, LANGUAGE, SCAN_MODE, FAVORITE, SUSPECTED, SUPPRESSED, IS_NEW
+    }
+
+    /**
+     * Group of issues that share the same attribute values
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Group {
+        /**
+         * Attribute values in the same order as attributes are passed to {@link #group(BitSet, Attribute...)}.
+         * Null value means issues have no such attribute, like scan mode of non-vulnerability issues
+         */
+        protected final List<Object> values;
+        protected final BitSet issues;
+
+        public int getCount() {
+            return issues.cardinality();
+        }
+    }
+
+    /**
+     * Split selected issues into groups of the same attribute values. Each attribute
+     * partitions groups by intersecting them with attribute value bitsets, so the
+     * number of bitwise operations depends on number of distinct values, not issues
+     * @param selection Bitset of issues positions to be grouped
+     * @param attributes Attributes issues are grouped by
+     * @return Non-empty issue groups
+     */
+    public List<Group> group(@NonNull final BitSet selection, @NonNull final Attribute... attributes) {
+        List<Group> res = new ArrayList<>();
+        if (selection.isEmpty()) return res;
+        res.add(new Group(Collections.emptyList(), selection));
+        for (Attribute attribute : attributes) {
+            Map<?, BitSet> column = column(attribute);
+            List<Group> groups = new ArrayList<>();
+            for (Group group : res) {
+                BitSet rest = (BitSet) group.getIssues().clone();
+                for (Map.Entry<?, BitSet> entry : column.entrySet()) {
+                    if (!rest.intersects(entry.getValue())) continue;
+                    BitSet issues = (BitSet) rest.clone();
+                    issues.and(entry.getValue());
+                    rest.andNot(entry.getValue());
+                    groups.add(new Group(append(group.getValues(), entry.getKey()), issues));
+                }
+                if (!rest.isEmpty()) groups.add(new Group(append(group.getValues(), null), rest));
+            }
+            res = groups;
+        }
+        return res;
+    }
+
+    protected Map<?, BitSet> column(@NonNull final Attribute attribute) {
+        switch (attribute) {
+            case ISSUE_TYPE_KEY: return issueTypeKeys;
+            case LEVEL: return levels;
+            case CLASS: return classes;
+            case APPROVAL_STATE: return approvalStates;
+            case LANGUAGE: return languages;
+            case SCAN_MODE: return scanModes;
+            case FAVORITE: return favorite;
+            case SUSPECTED: return suspected;
+            case SUPPRESSED: return suppressed;
+            case IS_NEW: return isNew;
+            default: throw new IllegalArgumentException("Unsupported issue attribute " + attribute);
+        }
+    }
+
+    protected static List<Object> append(@NonNull final List<Object> values, final Object value) {
+        List<Object> res = new ArrayList<>(values.size() + 1);
+        res.addAll(values);
+        res.add(value);
+        return res;
+    }
+
+    /**
+     * Copy selected issues to target list keeping their order
+     * @param issues Indexed issues list
+     * @param selection Bitset of issues positions to be copied
+     * @param target List where selected issues are to be added
+     */
+    public static void copy(@NonNull final List<BaseIssue> issues, @NonNull final BitSet selection, @NonNull final List<BaseIssue> target) {
+        int i = 0;
+        // Iterate as disk-backed issues list provides sequential access only
+        for (BaseIssue issue : issues)
+            if (selection.get(i++)) target.add(issue);
+    }
+
+    protected static <K> void set(@NonNull final Map<K, BitSet> column, final K value, final int position) {
+        if (null == value) return;
+        column.computeIfAbsent(value, k -> new BitSet()).set(position);
+    }
+
+    protected static <K> BitSet get(@NonNull final Map<K, BitSet> column, @NonNull final K value) {
+        BitSet res = column.get(value);
+        return null == res ? new BitSet() : res;
+    }
+
+    /**
+     * Join issue positions for attribute values whose filter counterparts are in filter values set
+     */
+    protected static <K, F> BitSet union(
+            @NonNull final Map<K, BitSet> column, @NonNull final Map<K, F> mapping, @NonNull final Set<F> filterValues) {
+        BitSet res = new BitSet();
+        for (Map.Entry<K, BitSet> entry : column.entrySet())
+            if (filterValues.contains(mapping.get(entry.getKey()))) res.or(entry.getValue());
+        return res;
+    }
+
+    /**
+     * Select issues that have boolean attribute set, not set or both
+     */
+    protected BitSet split(@NonNull final BitSet attribute, final boolean set, final boolean notSet) {
+        if (set && notSet) return all();
+        if (set) return (BitSet) attribute.clone();
+        BitSet res = new BitSet();
+        if (notSet) {
+            res = all();
+            res.andNot(attribute);
+        }
+        return res;
+    }
+
+    protected static <T> Set<T> values(final T value, final Collection<T> values) {
+        Set<T> res = new HashSet<>();
+        if (null != value) res.add(value);
+        if (null != values) res.addAll(values);
+        return res;
+    }
+}
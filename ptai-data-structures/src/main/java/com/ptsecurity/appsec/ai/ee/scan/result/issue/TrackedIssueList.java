@@ -0,0 +1,16 @@
+package com.ptsecurity.appsec.ai.ee.scan.result.issue;
+
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+
+import java.util.List;
+
+/**
+ * Issues list that counts its modifications, so data derived from list
+ * like {@link IssueIndex} may detect that it is stale
+ */
+public interface TrackedIssueList extends List<BaseIssue> {
+    /**
+     * @return Number that is changed by each list modification
+     */
+    long getModificationCount();
+}
@@ -5,6 +5,7 @@ import com.ptsecurity.appsec.ai.ee.scan.result.ScanBrief;
 import com.ptsecurity.appsec.ai.ee.scan.result.ScanBriefDetailed;
 import com.ptsecurity.appsec.ai.ee.scan.result.ScanResult;
 import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.VulnerabilityIssue;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.ProjectTemplate;
 import com.ptsecurity.misc.tools.helpers.ArchiveHelper;
 import com.ptsecurity.misc.tools.BaseTest;
@@ -18,11 +19,15 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static com.ptsecurity.appsec.ai.ee.utils.ci.integration.ProjectTemplate.*;
 import static com.ptsecurity.appsec.ai.ee.utils.ci.integration.ProjectTemplate.ID.*;
 import static com.ptsecurity.misc.tools.helpers.BaseJsonHelper.createObjectMapper;
 import static com.ptsecurity.misc.tools.helpers.BaseJsonHelper.serialize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Slf4j
@@ -80,4 +85,26 @@ public class ScanBriefDetailedTest extends BaseTest {
             log.trace("Scan results briefs are saved to {}", briefDetailed);
         }
     }
+
+    @Test
+    @DisplayName("Aggregate issues of the same type and attributes into single distribution group")
+    public void aggregateIssueDistribution() {
+        ScanResult scanResult = new ScanResult();
+        for (int i = 0; i < 10; i++)
+            scanResult.getIssues().add(VulnerabilityIssue.builder().id(String.valueOf(i)).typeId("SQL Injection")
+                    .level(0 == i % 2 ? BaseIssue.Level.HIGH : BaseIssue.Level.MEDIUM)
+                    .approvalState(BaseIssue.ApprovalState.NONE)
+                    .favorite(false).suppressed(false).isNew(true).suspected(false)
+                    .scanMode(VulnerabilityIssue.ScanMode.FROM_ENTRYPOINT).build());
+        Map<Reports.Locale, ScanResult.Strings> strings = new HashMap<>();
+        for (Reports.Locale locale : Reports.Locale.values())
+            strings.put(locale, ScanResult.Strings.builder().title("SQL Injection").build());
+        scanResult.getI18n().put(scanResult.getIssues().get(0).getIssueTypeKey(), strings);
+
+        List<ScanBriefDetailed.Details.ChartData.BaseIssueCount> distribution = ScanBriefDetailed.createBaseIssueDistributionData(scanResult);
+        assertEquals(2, distribution.size());
+        assertEquals(BaseIssue.Level.HIGH, distribution.get(0).getLevel());
+        assertEquals(10, distribution.stream().mapToLong(ScanBriefDetailed.Details.ChartData.BaseIssueCount::getCount).sum());
+        assertEquals("SQL Injection", distribution.get(1).getTitle().get(Reports.Locale.EN));
+    }
 }
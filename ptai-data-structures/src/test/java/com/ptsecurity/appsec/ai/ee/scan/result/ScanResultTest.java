@@ -16,10 +16,14 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static com.ptsecurity.appsec.ai.ee.utils.ci.integration.ProjectTemplate.*;
 import static com.ptsecurity.misc.tools.helpers.BaseJsonHelper.createObjectMapper;
 import static com.ptsecurity.misc.tools.helpers.ResourcesHelper.getResource7ZipString;
-import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.*;
 
 @Slf4j
 @DisplayName("Read and parse data from PT AI version-independent scan results JSON resource file")
@@ -100,6 +104,38 @@ public class ScanResultTest extends BaseTest {
         }
     }
 
+    @SneakyThrows
+    @Test
+    @DisplayName("Check disk-backed scan results issues list")
+    public void diskBackedIssues() {
+        ObjectMapper mapper = createObjectMapper();
+        ProjectTemplate projectTemplate = getTemplate(ID.PHP_SMOKE);
+        String json = getResource7ZipString("json/scan/result/" + ApiVersion.V481.name().toLowerCase() + "/" + projectTemplate.getName() + ".json.7z");
+        ScanResult expected = mapper.readValue(json, ScanResult.class);
+        List<String> ids = expected.getIssues().stream().map(BaseIssue::getId).collect(Collectors.toList());
+        assertTrue(ids.size() > 10);
+
+        try (ScanResult scanResult = mapper.readValue(json, ScanResult.class)) {
+            scanResult.useDiskBackedIssues(3);
+            assertEquals(ids, scanResult.getIssues().stream().map(BaseIssue::getId).collect(Collectors.toList()));
+            assertEquals(ids.get(ids.size() - 1), scanResult.getIssues().get(ids.size() - 1).getId());
+            // Remove every second issue
+            int i = 0;
+            for (Iterator<BaseIssue> iterator = scanResult.getIssues().iterator(); iterator.hasNext(); i++) {
+                iterator.next();
+                if (0 == i % 2) iterator.remove();
+            }
+            assertEquals(ids.size() / 2, scanResult.getIssues().size());
+            assertEquals(ids.get(1), scanResult.getIssues().get(0).getId());
+            assertEquals(ids.get(3), scanResult.getIssues().get(1).getId());
+            // Disk-backed issues list must be serialized the same way as regular one
+            ScanResult deserialized = mapper.readValue(mapper.writeValueAsString(scanResult), ScanResult.class);
+            assertEquals(
+                    scanResult.getIssues().stream().map(BaseIssue::getId).collect(Collectors.toList()),
+                    deserialized.getIssues().stream().map(BaseIssue::getId).collect(Collectors.toList()));
+        }
+    }
+
     @SneakyThrows
     @Test
     @DisplayName("Generate ScanResult JSON schema")
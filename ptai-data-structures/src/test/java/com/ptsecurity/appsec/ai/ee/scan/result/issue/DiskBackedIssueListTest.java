@@ -0,0 +1,59 @@
+package com.ptsecurity.appsec.ai.ee.scan.result.issue;
+
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.VulnerabilityIssue;
+import com.ptsecurity.misc.tools.BaseTest;
+import lombok.NonNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test disk-backed scan result issues list")
+public class DiskBackedIssueListTest extends BaseTest {
+    protected static DiskBackedIssueList issues(final int threshold, final int count) {
+        DiskBackedIssueList res = new DiskBackedIssueList(threshold);
+        for (int i = 0; i < count; i++)
+            res.add(VulnerabilityIssue.builder().id(String.valueOf(i)).level(BaseIssue.Level.values()[i % BaseIssue.Level.values().length]).build());
+        return res;
+    }
+
+    protected static void check(@NonNull final DiskBackedIssueList issues) {
+        int i = 0;
+        for (BaseIssue issue : issues)
+            assertEquals(String.valueOf(i++), issue.getId());
+        assertEquals(issues.size(), i);
+    }
+
+    @Test
+    @DisplayName("Spill issues to temporary file and read them back")
+    public void spill() {
+        try (DiskBackedIssueList issues = issues(10, 95)) {
+            assertTrue(issues.isSpilled());
+            assertEquals(95, issues.size());
+            check(issues);
+            assertEquals("42", issues.get(42).getId());
+            assertEquals("42", issues.remove(42).getId());
+            assertEquals("43", issues.get(42).getId());
+            assertEquals(94, issues.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Fail to access closed issues list")
+    public void closed() {
+        DiskBackedIssueList issues = issues(10, 25);
+        issues.close();
+        assertThrows(IllegalStateException.class, () -> issues.get(0));
+        assertThrows(IllegalStateException.class, issues::iterator);
+        assertThrows(IllegalStateException.class, () -> issues.add(VulnerabilityIssue.builder().id("25").build()));
+    }
+
+    @Test
+    @DisplayName("Fail to insert issue into the middle of the list")
+    public void insert() {
+        try (DiskBackedIssueList issues = issues(10, 25)) {
+            assertThrows(UnsupportedOperationException.class, () -> issues.add(0, VulnerabilityIssue.builder().id("25").build()));
+        }
+    }
+}
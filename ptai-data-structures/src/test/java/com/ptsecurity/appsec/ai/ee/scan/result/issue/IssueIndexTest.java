@@ -0,0 +1,159 @@
+package com.ptsecurity.appsec.ai.ee.scan.result.issue;
+
+import com.ptsecurity.appsec.ai.ee.scan.reports.Reports;
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanResult;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BlackBoxIssue;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.VulnerabilityIssue;
+import com.ptsecurity.misc.tools.BaseTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test scan result issues bitset index")
+public class IssueIndexTest extends BaseTest {
+    protected static List<BaseIssue> issues() {
+        return Arrays.asList(
+                VulnerabilityIssue.builder().id("0").language(ScanResult.ScanSettings.Language.JAVA)
+                        .level(BaseIssue.Level.HIGH).approvalState(BaseIssue.ApprovalState.APPROVAL)
+                        .suppressed(false).isNew(true).suspected(false).secondOrder(false)
+                        .scanMode(VulnerabilityIssue.ScanMode.FROM_ENTRYPOINT).build(),
+                VulnerabilityIssue.builder().id("1").language(ScanResult.ScanSettings.Language.PHP)
+                        .level(BaseIssue.Level.LOW).approvalState(BaseIssue.ApprovalState.NONE)
+                        .suppressed(true).isNew(false).suspected(true).secondOrder(true)
+                        .scanMode(VulnerabilityIssue.ScanMode.FROM_OTHER).conditions("x > 0").build(),
+                BlackBoxIssue.builder().id("2").language(ScanResult.ScanSettings.Language.JAVA)
+                        .level(BaseIssue.Level.HIGH).approvalState(BaseIssue.ApprovalState.DISCARD)
+                        .suppressed(false).isNew(false).suspected(false).build());
+    }
+
+    @Test
+    @DisplayName("Select issues using filter")
+    public void select() {
+        IssueIndex index = new IssueIndex(issues());
+        assertEquals(3, index.getSize());
+        assertEquals(index.all(), index.select(null));
+
+        Reports.IssuesFilter filter = new Reports.IssuesFilter();
+        filter.setIssueLevel(Reports.IssuesFilter.Level.HIGH);
+        filter.setSourceType(Reports.IssuesFilter.SourceType.STATIC);
+        assertEquals(BitSet.valueOf(new long[] { 0b001 }), index.select(filter));
+
+        filter = new Reports.IssuesFilter();
+        filter.setScanMode(Reports.IssuesFilter.ScanMode.FROMOTHER);
+        filter.setExploitationConditions(Arrays.asList(Reports.IssuesFilter.Condition.UNDERCONDITION));
+        assertEquals(BitSet.valueOf(new long[] { 0b110 }), index.select(filter));
+
+        filter = new Reports.IssuesFilter();
+        filter.setHideSuspected(true);
+        filter.setActualStatus(Reports.IssuesFilter.ActualStatus.NOTISNEW);
+        List<BaseIssue> selected = new ArrayList<>();
+        IssueIndex.copy(issues(), index.select(filter), selected);
+        assertEquals(1, selected.size());
+        assertEquals("2", selected.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Select issues by language and source type")
+    public void selectLanguage() {
+        IssueIndex index = new IssueIndex(issues());
+        Reports.IssuesFilter filter = new Reports.IssuesFilter();
+        filter.setLanguage(Reports.IssuesFilter.ProgrammingLanguage.JAVA);
+        assertEquals(BitSet.valueOf(new long[] { 0b101 }), index.select(filter));
+
+        filter.setSourceTypes(Arrays.asList(Reports.IssuesFilter.SourceType.BLACKBOX));
+        assertEquals(BitSet.valueOf(new long[] { 0b100 }), index.select(filter));
+    }
+
+    @Test
+    @DisplayName("Join single-value and multi-value language filter options")
+    public void singleValueLanguage() {
+        IssueIndex index = new IssueIndex(issues());
+        Reports.IssuesFilter filter = new Reports.IssuesFilter();
+        filter.setLanguage(Reports.IssuesFilter.ProgrammingLanguage.PHP);
+        assertEquals(BitSet.valueOf(new long[] { 0b010 }), index.select(filter));
+
+        filter.setLanguages(Arrays.asList(Reports.IssuesFilter.ProgrammingLanguage.JAVA));
+        assertEquals(index.all(), index.select(filter));
+
+        filter.setLanguage(Reports.IssuesFilter.ProgrammingLanguage.ALL);
+        assertEquals(index.all(), index.select(filter));
+    }
+
+    @Test
+    @DisplayName("Group issues by attribute values")
+    public void group() {
+        IssueIndex index = new IssueIndex(issues());
+        List<IssueIndex.Group> groups = index.group(index.all(), IssueIndex.Attribute.LEVEL);
+        assertEquals(2, groups.size());
+        for (IssueIndex.Group group : groups) {
+            if (BaseIssue.Level.HIGH == group.getValues().get(0))
+                assertEquals(BitSet.valueOf(new long[] { 0b101 }), group.getIssues());
+            else
+                assertEquals(BitSet.valueOf(new long[] { 0b010 }), group.getIssues());
+        }
+
+        // Blackbox issue has no scan mode
+        groups = index.group(index.all(), IssueIndex.Attribute.LEVEL, IssueIndex.Attribute.SCAN_MODE);
+        assertEquals(3, groups.size());
+        assertEquals(3, groups.stream().mapToInt(IssueIndex.Group::getCount).sum());
+        assertTrue(groups.stream().anyMatch(g -> g.getValues().equals(Arrays.asList(BaseIssue.Level.HIGH, null)) && 1 == g.getCount()));
+
+        assertTrue(index.group(new BitSet(), IssueIndex.Attribute.LEVEL).isEmpty());
+        groups = index.group(BitSet.valueOf(new long[] { 0b110 }), IssueIndex.Attribute.IS_NEW);
+        assertEquals(1, groups.size());
+        assertEquals(Arrays.asList(false), groups.get(0).getValues());
+        assertEquals(2, groups.get(0).getCount());
+    }
+
+    @Test
+    @DisplayName("Rebuild scan result index after issues list change")
+    public void rebuild() {
+        ScanResult scanResult = new ScanResult();
+        scanResult.getIssues().addAll(issues());
+        IssueIndex index = scanResult.getIndex();
+        assertSame(index, scanResult.getIndex());
+        scanResult.getIssues().remove(0);
+        assertNotSame(index, scanResult.getIndex());
+        assertEquals(2, scanResult.getIndex().getSize());
+
+        // Issues list size stays the same but index is to be rebuilt
+        index = scanResult.getIndex();
+        scanResult.getIssues().set(0, issues().get(0));
+        assertNotSame(index, scanResult.getIndex());
+        assertEquals(BitSet.valueOf(new long[] { 0b01 }), scanResult.getIndex().select(isNew()));
+
+        index = scanResult.getIndex();
+        scanResult.getIssues().remove(1);
+        scanResult.getIssues().add(issues().get(1));
+        assertNotSame(index, scanResult.getIndex());
+        assertEquals(BitSet.valueOf(new long[] { 0b01 }), scanResult.getIndex().select(isNew()));
+    }
+
+    @Test
+    @DisplayName("Rebuild disk-backed scan result index after issues list change")
+    public void rebuildDiskBacked() {
+        try (ScanResult scanResult = new ScanResult()) {
+            scanResult.getIssues().addAll(issues());
+            scanResult.useDiskBackedIssues(1);
+            IssueIndex index = scanResult.getIndex();
+            assertSame(index, scanResult.getIndex());
+            scanResult.getIssues().remove(2);
+            scanResult.getIssues().add(issues().get(0));
+            assertNotSame(index, scanResult.getIndex());
+            assertEquals(BitSet.valueOf(new long[] { 0b101 }), scanResult.getIndex().select(isNew()));
+        }
+    }
+
+    protected static Reports.IssuesFilter isNew() {
+        Reports.IssuesFilter filter = new Reports.IssuesFilter();
+        filter.setActualStatus(Reports.IssuesFilter.ActualStatus.ISNEW);
+        return filter;
+    }
+}
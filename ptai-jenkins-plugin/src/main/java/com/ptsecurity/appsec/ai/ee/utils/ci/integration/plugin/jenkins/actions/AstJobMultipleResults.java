@@ -1,23 +1,16 @@
 package com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.actions;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
-import com.ptsecurity.appsec.ai.ee.scan.result.ScanBriefDetailed;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.charts.BaseJsonChartDataModel;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.charts.ChartDataModel;
-import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ScanDataPacked;
 import hudson.model.Action;
 import hudson.model.Job;
-import hudson.model.Run;
-import lombok.*;
-import lombok.experimental.SuperBuilder;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import static com.ptsecurity.appsec.ai.ee.scan.ScanDataPacked.Type.SCAN_BRIEF_DETAILED;
-
 /**
  * Class implements project-scope basic chart generation that is shown at project page
  */
@@ -41,44 +34,9 @@ public class AstJobMultipleResults implements Action {
         return "ptaiTrend";
     }
 
-    @Getter
-    @Setter
-    @SuperBuilder
-    @NoArgsConstructor
-    public static class BuildScanBriefDetailed {
-        @JsonProperty
-        protected Integer buildNumber;
-        @JsonProperty
-        protected ScanBriefDetailed scanBriefDetailed;
-    }
-
     @NonNull
-    protected List<BuildScanBriefDetailed> getLatestAstResults(final int number) {
-        final List<? extends Run<?, ?>> builds = project.getBuilds();
-        final List<BuildScanBriefDetailed> scanResults = new ArrayList<>();
-
-        int count = 0;
-        for (Run<?, ?> build : builds) {
-            ScanBriefDetailed scanBriefDetailed = null;
-            // noinspection ConstantConditions
-            do {
-                final AstJobSingleResult action = build.getAction(AstJobSingleResult.class);
-                if (null == action) break;
-                if (null == action.getScanDataPacked()) break;
-                ScanDataPacked scanDataPacked = action.getScanDataPacked();
-                if (!scanDataPacked.getType().equals(SCAN_BRIEF_DETAILED)) break;
-                scanBriefDetailed = ScanDataPacked.unpackData(scanDataPacked.getData(), ScanBriefDetailed.class);
-            } while (false);
-
-            scanResults.add(BuildScanBriefDetailed.builder()
-                    .buildNumber(build.getNumber())
-                    .scanBriefDetailed(scanBriefDetailed)
-                    .build());
-            // Only chart the last N builds (max)
-            count++;
-            if (count == number) break;
-        }
-        return scanResults;
+    protected List<TrendIndex.Entry> getLatestAstResults(final int number) {
+        return TrendIndex.latest(project, number);
     }
 
     /**
@@ -88,7 +46,7 @@ public class AstJobMultipleResults implements Action {
     @JavaScriptMethod
     @SuppressWarnings("unused") // Called by groovy view
     public JSONObject getVulnerabilityLevelTrendChart(final int resultsNumber) {
-        final List<BuildScanBriefDetailed> issuesModelList = getLatestAstResults(resultsNumber);
+        final List<TrendIndex.Entry> issuesModelList = getLatestAstResults(resultsNumber);
         return BaseJsonChartDataModel.convertObject(ChartDataModel.create(issuesModelList));
     }
 }
@@ -13,6 +13,8 @@ import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.charts.Pi
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.utils.I18nHelper;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.workmode.subjobs.export.Export;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ScanDataPacked;
+import com.ptsecurity.misc.tools.exceptions.GenericException;
+import com.ptsecurity.misc.tools.helpers.CallHelper;
 import hudson.model.Action;
 import hudson.model.Run;
 import jenkins.model.RunAction2;
@@ -21,8 +23,12 @@ import lombok.*;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.io.*;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static com.ptsecurity.appsec.ai.ee.scan.ScanDataPacked.Type.SCAN_BRIEF_DETAILED;
 import static com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.charts.BaseJsonChartDataModel.*;
@@ -53,22 +59,71 @@ public class AstJobSingleResult implements RunAction2, SimpleBuildStep.LastBuild
         return "ptai";
     }
 
+    /**
+     * Scan brief is stored in a separate compressed file in build folder, so
+     * build record loading doesn't parse it
+     */
+    public static final String SCAN_BRIEF_FILE_NAME = "ptai-scan-brief.json.gz";
+
+    /**
+     * Packed scan brief that is stored in build record by previous plugin versions
+     */
     @Getter
     @Setter
     protected ScanDataPacked scanDataPacked;
 
+    /**
+     * Scan results aggregates that are stored in build record and used to build trend index
+     */
+    @Getter
+    protected TrendIndex.Entry summary;
+
     protected transient ScanBriefDetailed scanBriefDetailed = null;
 
     public ScanBriefDetailed loadScanBriefDetailed() {
         if (null != scanBriefDetailed) return scanBriefDetailed;
 
-        if (null == scanDataPacked) return null;
-        if (SCAN_BRIEF_DETAILED != scanDataPacked.getType()) return null;
-        scanBriefDetailed = scanDataPacked.unpackData(ScanBriefDetailed.class);
-
+        if (null != scanDataPacked) {
+            if (SCAN_BRIEF_DETAILED != scanDataPacked.getType()) return null;
+            scanBriefDetailed = scanDataPacked.unpackData(ScanBriefDetailed.class);
+            return scanBriefDetailed;
+        }
+        scanBriefDetailed = readScanBriefDetailed(run.getRootDir());
         return scanBriefDetailed;
     }
 
+    /**
+     * Save scan brief to build folder and keep its aggregates in action
+     */
+    public void saveScanBriefDetailed(@NonNull final ScanBriefDetailed scanBriefDetailed) throws GenericException {
+        writeScanBriefDetailed(run.getRootDir(), scanBriefDetailed);
+        this.scanBriefDetailed = scanBriefDetailed;
+        summary = TrendIndex.Entry.create(run.getNumber(), scanBriefDetailed);
+    }
+
+    /**
+     * @param dir Build folder
+     * @return Scan brief or null if there's no scan brief file in build folder
+     */
+    protected static ScanBriefDetailed readScanBriefDetailed(@NonNull final File dir) throws GenericException {
+        File file = new File(dir, SCAN_BRIEF_FILE_NAME);
+        if (!file.isFile()) return null;
+        return CallHelper.call(() -> {
+            try (InputStream is = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+                return createObjectMapper().readValue(is, ScanBriefDetailed.class);
+            }
+        }, "Scan brief load failed");
+    }
+
+    protected static void writeScanBriefDetailed(@NonNull final File dir, @NonNull final ScanBriefDetailed scanBriefDetailed) throws GenericException {
+        File file = new File(dir, SCAN_BRIEF_FILE_NAME);
+        CallHelper.call(() -> {
+            try (OutputStream os = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+                createObjectMapper().writeValue(os, scanBriefDetailed);
+            }
+        }, "Scan brief save failed");
+    }
+
     @Override
     public void onAttached(Run<?, ?> r) {
         this.run = r;
@@ -96,6 +151,13 @@ public class AstJobSingleResult implements RunAction2, SimpleBuildStep.LastBuild
         protected final Long count;
     }
 
+    /**
+     * Number of issues in distribution group. Group without count is treated as a single issue
+     */
+    protected static long count(@NonNull final BaseIssueCount issue) {
+        return null == issue.getCount() ? 1 : issue.getCount();
+    }
+
     public boolean isEmpty() {
         loadScanBriefDetailed();
         return Optional.ofNullable(scanBriefDetailed)
@@ -116,7 +178,7 @@ public class AstJobSingleResult implements RunAction2, SimpleBuildStep.LastBuild
                 .filter(issue -> BaseIssue.ApprovalState.DISCARD != issue.getApprovalState())
                 .collect(Collectors.groupingBy(
                         BaseIssueCount::getLevel,
-                        Collectors.counting()));
+                        Collectors.summingLong(AstJobSingleResult::count)));
         ChartDataModel dataModel = ChartDataModel.builder()
                 .xaxis(Collections.singletonList(ChartDataModel.Axis.builder().build()))
                 .yaxis(Collections.singletonList(ChartDataModel.Axis.builder().build()))
@@ -149,7 +211,7 @@ public class AstJobSingleResult implements RunAction2, SimpleBuildStep.LastBuild
                 .filter(issue -> BaseIssue.ApprovalState.DISCARD != issue.getApprovalState())
                 .collect(Collectors.groupingBy(
                         issue -> new ImmutablePair<>(issue.getLevel(), issue.getTitle().get(locale)),
-                        Collectors.counting()));
+                        Collectors.summingLong(AstJobSingleResult::count)));
         List<Triple> levelTitleCount = new ArrayList<>();
         levelTitleCountMap.forEach((k, v) -> levelTitleCount.add(Triple.builder()
                 .level(k.getLeft())
@@ -189,7 +251,8 @@ public class AstJobSingleResult implements RunAction2, SimpleBuildStep.LastBuild
 
         for (BaseIssue.Type type : BaseIssue.Type.values()) {
             long count = baseIssues.stream()
-                    .filter(issue -> type == issue.getClazz()).count();
+                    .filter(issue -> type == issue.getClazz())
+                    .mapToLong(AstJobSingleResult::count).sum();
             if (0 == count) continue;
             PieChartDataModel.Series.DataItem typeItem = PieChartDataModel.Series.DataItem.builder()
                     .name(I18nHelper.i18n(type))
@@ -215,7 +278,8 @@ public class AstJobSingleResult implements RunAction2, SimpleBuildStep.LastBuild
 
         for (BaseIssue.ApprovalState approvalState : BaseIssue.ApprovalState.values()) {
             long count = baseIssues.stream()
-                    .filter(issue -> approvalState == issue.getApprovalState()).count();
+                    .filter(issue -> approvalState == issue.getApprovalState())
+                    .mapToLong(AstJobSingleResult::count).sum();
             if (0 == count) continue;
             PieChartDataModel.Series.DataItem typeItem = PieChartDataModel.Series.DataItem.builder()
                     .name(I18nHelper.i18n(approvalState))
@@ -241,7 +305,8 @@ public class AstJobSingleResult implements RunAction2, SimpleBuildStep.LastBuild
 
         for (Boolean suspected : new HashSet<>(Arrays.asList(true, false))) {
             long count = baseIssues.stream()
-                    .filter(issue -> suspected == issue.getSuspected()).count();
+                    .filter(issue -> suspected == issue.getSuspected())
+                    .mapToLong(AstJobSingleResult::count).sum();
             if (0 == count) continue;
             PieChartDataModel.Series.DataItem typeItem = PieChartDataModel.Series.DataItem.builder()
                     .name(I18nHelper.i18n(suspected))
@@ -267,7 +332,8 @@ public class AstJobSingleResult implements RunAction2, SimpleBuildStep.LastBuild
 
         for (VulnerabilityIssue.ScanMode scanMode : VulnerabilityIssue.ScanMode.values()) {
             long count = baseIssues.stream()
-                    .filter(issue -> scanMode == issue.getScanMode()).count();
+                    .filter(issue -> scanMode == issue.getScanMode())
+                    .mapToLong(AstJobSingleResult::count).sum();
             if (0 == count) continue;
             PieChartDataModel.Series.DataItem typeItem = PieChartDataModel.Series.DataItem.builder()
                     .name(I18nHelper.i18n(scanMode))
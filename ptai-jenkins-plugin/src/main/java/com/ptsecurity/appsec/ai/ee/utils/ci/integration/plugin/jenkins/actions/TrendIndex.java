@@ -0,0 +1,246 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.actions;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ptsecurity.appsec.ai.ee.scan.progress.Stage;
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanBriefDetailed;
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanBriefDetailed.Details.ChartData.BaseIssueCount;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+import com.ptsecurity.appsec.ai.ee.scan.settings.Policy;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.util.AtomicFileWriter;
+import lombok.*;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+import static com.ptsecurity.misc.tools.helpers.BaseJsonHelper.createObjectMapper;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Per-job file that stores precomputed AST results aggregates of builds. Trend and history charts are
+ * built using this index, so job page doesn't load build records and unpack their scan briefs
+ */
+@Slf4j
+public class TrendIndex {
+    public static final String FILE_NAME = "ptai-trend.json";
+
+    /**
+     * Index file locks by job. Index is rebuilt from build records while lock is held, so per-job
+     * locks let charts of other jobs be displayed meanwhile. Keys are weak, so locks of deleted
+     * or reloaded jobs are released
+     */
+    protected static final Map<Job<?, ?>, Object> LOCKS = new WeakHashMap<>();
+
+    /**
+     * Build AST results aggregates. Issue counts and durations are stored as is, durations are in seconds
+     */
+    @Getter
+    @Setter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        @JsonProperty
+        protected Integer buildNumber;
+        @JsonProperty
+        protected long total;
+        @JsonProperty
+        @Builder.Default
+        protected Map<BaseIssue.Level, Long> levels = new EnumMap<>(BaseIssue.Level.class);
+        /**
+         * Issue counts by level that do not include discarded issues
+         */
+        @JsonProperty
+        @Builder.Default
+        protected Map<BaseIssue.Level, Long> levelsNotDiscarded = new EnumMap<>(BaseIssue.Level.class);
+        @JsonProperty
+        @Builder.Default
+        protected Map<BaseIssue.ApprovalState, Long> approvalStates = new EnumMap<>(BaseIssue.ApprovalState.class);
+        @JsonProperty
+        @Builder.Default
+        protected Map<BaseIssue.Type, Long> types = new EnumMap<>(BaseIssue.Type.class);
+        @JsonProperty
+        protected long duration;
+        @JsonProperty
+        @Builder.Default
+        protected Map<Stage, Long> stages = new EnumMap<>(Stage.class);
+        @JsonProperty
+        protected Policy.State policyState;
+
+        public long getLevel(@NonNull final BaseIssue.Level level) {
+            return levels.getOrDefault(level, 0L);
+        }
+
+        public long getLevelNotDiscarded(@NonNull final BaseIssue.Level level) {
+            return levelsNotDiscarded.getOrDefault(level, 0L);
+        }
+
+        public long getApprovalState(@NonNull final BaseIssue.ApprovalState approvalState) {
+            return approvalStates.getOrDefault(approvalState, 0L);
+        }
+
+        public long getType(@NonNull final BaseIssue.Type type) {
+            return types.getOrDefault(type, 0L);
+        }
+
+        public long getStage(@NonNull final Stage stage) {
+            return stages.getOrDefault(stage, 0L);
+        }
+
+        public static Entry create(final int buildNumber, @NonNull final ScanBriefDetailed brief) {
+            Entry res = Entry.builder().buildNumber(buildNumber).policyState(brief.getPolicyState()).build();
+            List<BaseIssueCount> issues = Optional.of(brief)
+                    .map(ScanBriefDetailed::getDetails)
+                    .map(ScanBriefDetailed.Details::getChartData)
+                    .map(ScanBriefDetailed.Details.ChartData::getBaseIssueDistributionData)
+                    .orElse(Collections.emptyList());
+            for (BaseIssueCount issue : issues) {
+                long count = null == issue.getCount() ? 1 : issue.getCount();
+                res.total += count;
+                if (null != issue.getLevel()) {
+                    res.levels.merge(issue.getLevel(), count, Long::sum);
+                    if (BaseIssue.ApprovalState.DISCARD != issue.getApprovalState())
+                        res.levelsNotDiscarded.merge(issue.getLevel(), count, Long::sum);
+                }
+                if (null != issue.getApprovalState()) res.approvalStates.merge(issue.getApprovalState(), count, Long::sum);
+                if (null != issue.getClazz()) res.types.merge(issue.getClazz(), count, Long::sum);
+            }
+            if (null != brief.getStatistics())
+                res.duration = seconds(brief.getStatistics().getScanDurationIso8601());
+            if (null != brief.getPerformance() && null != brief.getPerformance().getStages())
+                brief.getPerformance().getStages().forEach((stage, duration) -> {
+                    long value = seconds(duration);
+                    if (0 != value) res.stages.put(stage, value);
+                });
+            return res;
+        }
+
+        protected static long seconds(final String durationIso8601) {
+            if (StringUtils.isEmpty(durationIso8601)) return 0;
+            try {
+                return Duration.parse(durationIso8601).getSeconds();
+            } catch (DateTimeParseException e) {
+                log.warn("Failed to parse scan duration: {}", durationIso8601);
+                return 0;
+            }
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    protected static class Data {
+        /**
+         * Index entries sorted by build number in descending order
+         */
+        @JsonProperty
+        protected List<Entry> builds = new ArrayList<>();
+
+        /**
+         * Add build entry replacing existing one with the same build number
+         */
+        protected void put(@NonNull final Entry entry) {
+            builds.removeIf(e -> entry.getBuildNumber().equals(e.getBuildNumber()));
+            builds.add(entry);
+            sort();
+        }
+
+        protected void sort() {
+            builds.sort(Comparator.comparing(Entry::getBuildNumber, Comparator.reverseOrder()));
+        }
+    }
+
+    /**
+     * Add or replace build AST results aggregates. Called when AST job is finished
+     */
+    public static void update(@NonNull final Job<?, ?> project, @NonNull final Entry entry) {
+        synchronized (lock(project)) {
+            Data data = load(project);
+            if (null == data) data = rebuild(project);
+            data.put(entry);
+            save(project, data);
+        }
+    }
+
+    /**
+     * Get AST results aggregates of latest builds. Index is built from build records on first call,
+     * entries of deleted builds are removed
+     * @param number Maximum number of builds
+     * @return Aggregates sorted by build number in descending order
+     */
+    @NonNull
+    public static List<Entry> latest(@NonNull final Job<?, ?> project, final int number) {
+        synchronized (lock(project)) {
+            Data data = load(project);
+            if (null == data) {
+                data = rebuild(project);
+                save(project, data);
+            }
+            File buildDir = project.getBuildDir();
+            if (data.builds.removeIf(e -> !new File(buildDir, String.valueOf(e.getBuildNumber())).isDirectory()))
+                save(project, data);
+            return new ArrayList<>(data.builds.subList(0, Math.min(number, data.builds.size())));
+        }
+    }
+
+    protected static Object lock(@NonNull final Job<?, ?> project) {
+        synchronized (LOCKS) {
+            return LOCKS.computeIfAbsent(project, p -> new Object());
+        }
+    }
+
+    protected static File file(@NonNull final Job<?, ?> project) {
+        return new File(project.getRootDir(), FILE_NAME);
+    }
+
+    protected static Data load(@NonNull final Job<?, ?> project) {
+        File file = file(project);
+        if (!file.isFile()) return null;
+        try {
+            return createObjectMapper().readValue(file, Data.class);
+        } catch (IOException e) {
+            log.warn("AST results trend index {} load failed, it will be rebuilt", file);
+            log.trace("Exception details", e);
+            return null;
+        }
+    }
+
+    protected static Data rebuild(@NonNull final Job<?, ?> project) {
+        log.debug("Build AST results trend index for {} job", project.getFullName());
+        Data data = new Data();
+        for (Run<?, ?> build : project.getBuilds()) {
+            AstJobSingleResult action = build.getAction(AstJobSingleResult.class);
+            if (null == action) continue;
+            if (null != action.getSummary()) {
+                data.builds.add(action.getSummary());
+                continue;
+            }
+            ScanBriefDetailed brief = action.loadScanBriefDetailed();
+            if (null == brief) continue;
+            data.builds.add(Entry.create(build.getNumber(), brief));
+        }
+        data.sort();
+        return data;
+    }
+
+    protected static void save(@NonNull final Job<?, ?> project, @NonNull final Data data) {
+        File file = file(project);
+        AtomicFileWriter writer = null;
+        try {
+            writer = new AtomicFileWriter(file.toPath(), UTF_8);
+            writer.write(createObjectMapper().writeValueAsString(data));
+            writer.commit();
+        } catch (IOException e) {
+            log.warn("AST results trend index {} save failed", file);
+            log.trace("Exception details", e);
+        } finally {
+            if (null != writer) writer.abort();
+        }
+    }
+}
@@ -2,10 +2,8 @@ package com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.charts;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.ptsecurity.appsec.ai.ee.scan.result.ScanBriefDetailed;
-import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
 import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue.Level;
-import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.actions.AstJobMultipleResults;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.actions.TrendIndex;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.utils.I18nHelper;
 import lombok.Builder;
 import lombok.Getter;
@@ -101,13 +99,13 @@ public class ChartDataModel extends BaseJsonChartDataModel {
     @Builder.Default
     protected List<Series> series = new ArrayList<>();
 
-    public static ChartDataModel create(@NonNull final List<AstJobMultipleResults.BuildScanBriefDetailed> scanResultList) {
+    public static ChartDataModel create(@NonNull final List<TrendIndex.Entry> scanResultList) {
         // Prepare X-axis
         ChartDataModel.Axis xAxis = ChartDataModel.Axis.builder().build();
         ChartDataModel.Axis yAxis = ChartDataModel.Axis.builder().build();
         ChartDataModel.Legend legend = ChartDataModel.Legend.builder().build();
         // Sort scan results by build number
-        scanResultList.sort(Comparator.comparing(AstJobMultipleResults.BuildScanBriefDetailed::getBuildNumber));
+        scanResultList.sort(Comparator.comparing(TrendIndex.Entry::getBuildNumber));
         // Prepare series to fill with data
         List<Series> vulnerabilityTypeSeries = new ArrayList<>();
         for (Level level : Level.values()) {
@@ -120,28 +118,13 @@ public class ChartDataModel extends BaseJsonChartDataModel {
                             .color("#" + Integer.toHexString(LEVEL_COLORS.get(level)))
                             .build())
                     .build();
-            // Pre-fill series with zeroes
-            for (int i = 0 ; i < scanResultList.size() ; i++) {
-                long count = 0;
-                do {
-                    ScanBriefDetailed issues = scanResultList.get(i).getScanBriefDetailed();
-                    if (null == issues) break;
-                    if (!Optional.of(issues)
-                            .map(ScanBriefDetailed::getDetails)
-                            .map(ScanBriefDetailed.Details::getChartData)
-                            .map(ScanBriefDetailed.Details.ChartData::getBaseIssueDistributionData).isPresent()) break;
-                    // Count non-discarded vulnerabilities of a givel level
-                    count = issues.getDetails().getChartData().getBaseIssueDistributionData().stream()
-                            .filter(baseIssue -> level.equals(baseIssue.getLevel()))
-                            .filter(baseIssue -> BaseIssue.ApprovalState.DISCARD != baseIssue.getApprovalState())
-                            .count();
-                } while (false);
-                series.data.add(Series.DataItem.builder().value(count).build());
-            }
+            // Count non-discarded vulnerabilities of a given level
+            for (TrendIndex.Entry entry : scanResultList)
+                series.data.add(Series.DataItem.builder().value(entry.getLevelNotDiscarded(level)).build());
             vulnerabilityTypeSeries.add(series);
         }
 
-        for (AstJobMultipleResults.BuildScanBriefDetailed item : scanResultList)
+        for (TrendIndex.Entry item : scanResultList)
             // As Jenkins itself prefixes build numbers with "#" sign, let's do the same for chart
             xAxis.data.add(item.getBuildNumber().toString());
         return ChartDataModel.builder()
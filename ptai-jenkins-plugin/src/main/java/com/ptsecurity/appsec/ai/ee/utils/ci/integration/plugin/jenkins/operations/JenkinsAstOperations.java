@@ -1,20 +1,23 @@
 package com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.operations;
 
+import com.ptsecurity.appsec.ai.ee.scan.progress.Stage;
 import com.ptsecurity.appsec.ai.ee.scan.result.ScanBrief;
 import com.ptsecurity.appsec.ai.ee.scan.result.ScanBriefDetailed;
 import com.ptsecurity.appsec.ai.ee.scan.result.ScanResult;
 import com.ptsecurity.appsec.ai.ee.scan.sources.Transfer;
 import com.ptsecurity.appsec.ai.ee.scan.sources.Transfers;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.Factory;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
 import com.ptsecurity.misc.tools.TempFile;
 import com.ptsecurity.misc.tools.exceptions.GenericException;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.operations.AstOperations;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.JenkinsAstJob;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.actions.AstJobSingleResult;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.actions.TrendIndex;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.utils.RemoteFileUtils;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.GenericAstTasks;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.FileCollector;
-import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ScanDataPacked;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.SourcesManifest;
 import hudson.FilePath;
 import lombok.Builder;
 import lombok.NonNull;
@@ -26,8 +29,6 @@ import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.util.UUID;
 
-import static com.ptsecurity.appsec.ai.ee.scan.ScanDataPacked.Type.SCAN_BRIEF_DETAILED;
-
 @Slf4j
 @Builder
 public class JenkinsAstOperations implements AstOperations {
@@ -63,6 +64,21 @@ public class JenkinsAstOperations implements AstOperations {
         return zip;
     }
 
+    @Override
+    public boolean uploadSources(@NonNull final UUID projectId) throws GenericException {
+        // There's no need for agent-side upload if build is executed on controller
+        if (!owner.getAdvancedSettings().getBoolean(AdvancedSettings.SettingInfo.JENKINS_AGENT_UPLOAD) || !owner.getWorkspace().isRemote())
+            return false;
+        owner.process(Stage.UPLOAD);
+        RemoteFileUtils.upload(owner, projectId);
+        return true;
+    }
+
+    @Override
+    public SourcesManifest createManifest(final SourcesManifest previous) throws GenericException {
+        return RemoteFileUtils.manifest(owner, previous);
+    }
+
     @Override
     public void scanStartedCallback(@NonNull UUID projectId, @NonNull UUID scanResultId) throws GenericException {
 
@@ -78,19 +94,18 @@ public class JenkinsAstOperations implements AstOperations {
             GenericAstTasks genericAstTasks = new Factory().genericAstTasks(owner.getClient());
             log.debug("Getting full scan results for project id: {}, scan id: {}", scanBrief.getProjectId(), scanBrief.getId());
             try {
-                ScanResult scanResult = genericAstTasks.getScanResult(scanBrief);
+                // Scan result is cached so subsequent RAW JSON, SARIF and GIIF exports will not load it again
+                ScanResult scanResult = owner.getClient().getScanResultCache().get(
+                        scanBrief.getProjectId(), scanBrief.getId(), () -> genericAstTasks.getScanResult(scanBrief));
                 log.debug("Converting full scan results to detailed scan brief and storing it as job result");
                 scanBriefDetailed = ScanBriefDetailed.create(scanResult, performance);
             } catch (GenericException e) {
                 scanBriefDetailed = ScanBriefDetailed.create(scanBrief, performance);
             }
         }
-        ScanDataPacked scanDataPacked = ScanDataPacked.builder()
-                .type(SCAN_BRIEF_DETAILED)
-                .data(ScanDataPacked.packData(scanBriefDetailed))
-                .build();
         AstJobSingleResult action = new AstJobSingleResult(owner.getRun());
-        action.setScanDataPacked(scanDataPacked);
+        action.saveScanBriefDetailed(scanBriefDetailed);
         owner.getRun().addAction(action);
+        TrendIndex.update(owner.getRun().getParent(), action.getSummary());
     }
 }
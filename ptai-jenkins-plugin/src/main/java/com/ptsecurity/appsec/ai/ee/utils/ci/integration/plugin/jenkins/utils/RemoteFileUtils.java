@@ -3,40 +3,44 @@ package com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.utils;
 import com.ptsecurity.appsec.ai.ee.scan.sources.Transfer;
 import com.ptsecurity.appsec.ai.ee.scan.sources.Transfers;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.AbstractTool;
-import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.AdvancedSettings;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.AbstractApiClient;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.ClientRegistry;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.api.Factory;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.domain.*;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.jobs.AbstractJob;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.JenkinsAstJob;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.tasks.GenericAstTasks;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.FileCollector;
-import com.ptsecurity.misc.tools.TempFile;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.SourcesManifest;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ZipStreamBody;
+import com.ptsecurity.misc.tools.Jwt;
 import com.ptsecurity.misc.tools.exceptions.GenericException;
 import com.ptsecurity.misc.tools.helpers.CallHelper;
 import hudson.FilePath;
 import hudson.model.TaskListener;
+import hudson.remoting.Pipe;
 import hudson.remoting.RemoteOutputStream;
+import hudson.remoting.VirtualChannel;
 import jenkins.security.MasterToSlaveCallable;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
-import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.io.output.CountingOutputStream;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.time.OffsetDateTime;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Future;
 import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import static com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.FileCollector.bytesToString;
-import static com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ScanDataPacked.DATA_FILE_NAME;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -53,101 +57,93 @@ public class RemoteFileUtils extends MasterToSlaveCallable<FilePath, GenericExce
                 "Remote file collect call failed");
     }
 
+    /**
+     * Create sources manifest on a build agent. Only manifest is transferred to Jenkins controller
+     */
+    public static SourcesManifest manifest(
+            @NonNull final JenkinsAstJob jenkinsAstJob, final SourcesManifest previous) throws GenericException {
+        Collector collector = new Collector(jenkinsAstJob);
+        collector.setVerbose(jenkinsAstJob.isVerbose());
+
+        return CallHelper.call(
+                () -> Objects.requireNonNull(jenkinsAstJob.getLauncher().getChannel()).call(new ManifestCollector(collector, previous)),
+                "Remote sources manifest call failed");
+    }
+
+    /**
+     * Collect, pack and upload sources to PT AI server from build agent using agent-side API client,
+     * so sources archive doesn't cross Jenkins remoting channel
+     */
+    public static void upload(
+            @NonNull final JenkinsAstJob jenkinsAstJob, @NonNull final UUID projectId) throws GenericException {
+        Collector collector = new Collector(jenkinsAstJob);
+        collector.setVerbose(jenkinsAstJob.isVerbose());
+        SourcesUploader uploader = new SourcesUploader(collector, jenkinsAstJob.getClient(), projectId);
+
+        CallHelper.call(
+                () -> Objects.requireNonNull(jenkinsAstJob.getLauncher().getChannel()).call(uploader),
+                "Remote sources upload call failed");
+    }
+
     @SuppressWarnings("UnusedReturnValue")
     public static FilePath saveReport(@NonNull final JenkinsAstJob jenkinsAstJob, String artifact, final byte[] data) throws GenericException {
-        DataUploadTool saver = new DataUploadTool(jenkinsAstJob, artifact, data);
-        log.trace("Started: save binary data as {} file to {} folder", artifact, jenkinsAstJob.getWorkspace().getRemote());
-        FilePath result = CallHelper.call(
-                () -> Objects.requireNonNull(jenkinsAstJob.getLauncher().getChannel()).call(new RemoteFileUtils(saver)),
-                "Remote save report call failed");
-        log.trace("Finished: save binary data as {} file to {} folder", artifact, jenkinsAstJob.getWorkspace().getRemote());
-        return result;
+        return saveReport(jenkinsAstJob, artifact, new ByteArrayInputStream(null == data ? new byte[0] : data), null == data ? 0 : data.length);
     }
 
     @SuppressWarnings("UnusedReturnValue")
     public static FilePath saveReport(@NonNull final JenkinsAstJob jenkinsAstJob, String artifact, @NonNull final File data) throws GenericException {
-        try (
-                TempFile tempFolder = TempFile.createFolder();
-                TempFile archive = TempFile.createFile(tempFolder.toPath()) ) {
-            log.trace("Temporary folder {} created for packed file operations", tempFolder.toPath());
-            List<File> parts = CallHelper.call(() -> {
-                List<File> files = new ArrayList<>();
-                log.trace("File {} pack started", data);
-                try (
-                        ZipArchiveOutputStream zip = new ZipArchiveOutputStream(archive.toFile());
-                        FileInputStream is = new FileInputStream(data) ) {
-                    log.trace("Pack {} file data into {}", data, archive);
-                    zip.setLevel(Deflater.BEST_COMPRESSION);
-                    ZipArchiveEntry entry = new ZipArchiveEntry(data, DATA_FILE_NAME);
-                    zip.putArchiveEntry(entry);
-                    IOUtils.copy(is, zip);
-                    is.close();
-                    zip.closeArchiveEntry();
-                    zip.finish();
-                }
-                log.trace("File {} pack finished", data);
-                jenkinsAstJob.fine("Artifact %s packed from %s to %s", artifact, bytesToString(data.length()), bytesToString(archive.toFile().length()));
-
-                final int maxChunkSize = jenkinsAstJob.getAdvancedSettings().getInt(AdvancedSettings.SettingInfo.JENKINS_DATA_CHUNK_SIZE);
-                byte[] buffer = new byte[maxChunkSize];
-                jenkinsAstJob.fine("Split %s file data into %s chunks", archive.toFile().getName(), bytesToString(maxChunkSize));
-                long totalChunksNumber = archive.toFile().length() / maxChunkSize;
-                if (archive.toFile().length() > maxChunkSize * totalChunksNumber) totalChunksNumber++;
-                int digitsInChunkNumber = (int)(Math.ceil(Math.log10(totalChunksNumber)));
-
-                try (FileInputStream is = new FileInputStream(archive.toFile())) {
-                    int chunkNumber = 0;
-                    long totalBytesToRead = archive.toFile().length();
-                    while (totalBytesToRead > 0) {
-                        int bytesToRead = totalBytesToRead > maxChunkSize ? maxChunkSize : (int) totalBytesToRead;
-                        int bytesActuallyRead = is.read(buffer, 0, bytesToRead);
-                        if (bytesActuallyRead != bytesToRead) log.warn("Bytes to read: {}, but actually {} bytes read", bytesToRead, bytesActuallyRead);
-                        totalBytesToRead -= bytesActuallyRead;
-                        String chunkFileName = "data.zip.part." + StringUtils.leftPad(String.valueOf(chunkNumber), digitsInChunkNumber, "0");
-                        Path chunkPath = tempFolder.toPath().resolve(chunkFileName);
-
-                        try (FileOutputStream os = new FileOutputStream(chunkPath.toFile())) {
-                            os.write(buffer, 0, bytesToRead);
-                            os.flush();
-                        }
-                        files.add(chunkPath.toFile());
-                        log.trace("Chunk file {} saved", chunkFileName);
-                        chunkNumber++;
-                    }
-                }
-                return files;
-            }, "Data file multipart archive create failed");
-            log.trace("Start file parts processing");
-            int percent = 0;
-            int currentFile = 0;
-            List<FilePath> filePaths = new ArrayList<>();
-            for (File file : parts) {
-                log.trace("Read {} file contents", file);
-                byte[] buffer = CallHelper.call(() -> FileUtils.readFileToByteArray(file), "File read failed");
-                DataUploadTool saver = new DataUploadTool(jenkinsAstJob, buffer);
-                saver.setVerbose(jenkinsAstJob.isVerbose());
-                log.trace("Started: save binary data to remote temporary file");
-                filePaths.add(CallHelper.call(
-                        () -> Objects.requireNonNull(jenkinsAstJob.getLauncher().getChannel()).call(new RemoteFileUtils(saver)),
-                        "Remote temporary file save call failed"));
-                currentFile++;
-                int currentPercent = Math.round(100f * currentFile / parts.size());
-                if (percent != currentPercent) {
-                    percent = currentPercent;
-                    jenkinsAstJob.fine("Chunk files upload %s%%", currentPercent);
+        try (InputStream is = CallHelper.call(() -> Files.newInputStream(data.toPath()), "Report file read failed")) {
+            return saveReport(jenkinsAstJob, artifact, is, data.length());
+        } catch (IOException e) {
+            throw GenericException.raise("Report file read failed", e);
+        }
+    }
+
+    /**
+     * Stream data to artifact file on build agent. Data is compressed with fast compression level and sent
+     * through remoting pipe that provides flow control, so neither controller nor agent keep whole
+     * artifact in memory or intermediate files
+     */
+    protected static FilePath saveReport(@NonNull final JenkinsAstJob jenkinsAstJob, @NonNull final String artifact, @NonNull final InputStream data, final long size) throws GenericException {
+        log.trace("Started: save data as {} file to {} folder", artifact, jenkinsAstJob.getWorkspace().getRemote());
+        final int bufferSize = Math.max(1024, jenkinsAstJob.getAdvancedSettings().getInt(AdvancedSettings.SettingInfo.JENKINS_DATA_BUFFER_SIZE));
+        FilePath result;
+        if (!jenkinsAstJob.getWorkspace().isRemote()) {
+            // Build is executed on controller, so there's no need to transfer data
+            Path destination = Paths.get(jenkinsAstJob.getWorkspace().getRemote()).resolve(AbstractJob.DEFAULT_OUTPUT_FOLDER).resolve(artifact);
+            StreamUploadTool.check(destination);
+            CallHelper.call(() -> {
+                try (OutputStream os = Files.newOutputStream(destination)) {
+                    IOUtils.copyLarge(data, os, new byte[bufferSize]);
                 }
-                log.trace("Finished: save binary data to remote temporary file");
+            }, "Report file save failed");
+            result = new FilePath(destination.toFile());
+        } else {
+            VirtualChannel channel = Objects.requireNonNull(jenkinsAstJob.getLauncher().getChannel());
+            Pipe pipe = Pipe.createLocalToRemote();
+            StreamUploadTool uploader = new StreamUploadTool(jenkinsAstJob, artifact, pipe);
+            Future<FilePath> future = CallHelper.call(
+                    () -> channel.callAsync(new RemoteFileUtils(uploader)),
+                    "Remote save report call failed");
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (
+                    CountingOutputStream counter = new CountingOutputStream(pipe.getOut());
+                    DeflaterOutputStream os = new DeflaterOutputStream(counter, deflater, bufferSize)) {
+                IOUtils.copyLarge(data, os, new byte[bufferSize]);
+                os.finish();
+                jenkinsAstJob.fine("Artifact %s packed from %s to %s", artifact, bytesToString(size), bytesToString(counter.getByteCount()));
+            } catch (IOException e) {
+                // Agent closes pipe if it fails to save file, so report its failure reason instead of broken pipe
+                if (future.isDone()) CallHelper.call(future::get, "Remote save report call failed");
+                future.cancel(true);
+                throw GenericException.raise("Report data transfer failed", e);
+            } finally {
+                deflater.end();
             }
-            jenkinsAstJob.fine("Artifact %s merge and unpack started", artifact);
-            FilePath result = CallHelper.call(
-                    () -> {
-                        UploadedDataMergeTool transaction = new UploadedDataMergeTool(jenkinsAstJob, artifact, filePaths);
-                        return Objects.requireNonNull(jenkinsAstJob.getLauncher().getChannel()).call(new RemoteFileUtils(transaction));
-                    },
-                    "Remote file merge and unpack failed");
-            jenkinsAstJob.fine("Artifact %s merge and unpack finished", artifact);
-            return result;
+            result = CallHelper.call(future::get, "Remote save report call failed");
         }
+        log.trace("Finished: save data as {} file to {} folder", artifact, jenkinsAstJob.getWorkspace().getRemote());
+        return result;
     }
 
     @Override
@@ -167,6 +163,7 @@ public class RemoteFileUtils extends MasterToSlaveCallable<FilePath, GenericExce
             super();
             listener = jenkinsAstJob.getListener();
             verbose = jenkinsAstJob.isVerbose();
+            advancedSettings = jenkinsAstJob.getAdvancedSettings();
         }
 
         protected final TaskListener listener;
@@ -223,45 +220,115 @@ public class RemoteFileUtils extends MasterToSlaveCallable<FilePath, GenericExce
         }
     }
 
-    @ToString(callSuper = true)
-    protected static class DataUploadTool extends RemoteAbstractTool implements Executor, Serializable {
-        public DataUploadTool(@NonNull final JenkinsAstJob jenkinsAstJob, final byte[] data) {
-            super(jenkinsAstJob);
-            log.trace("Create binary report saver for temporary file");
-            this.dir = null;
-            this.artifact = null;
-            this.data = (null == data) ? new byte[0] : Arrays.copyOf(data, data.length);
+    @RequiredArgsConstructor
+    protected static class ManifestCollector extends MasterToSlaveCallable<SourcesManifest, GenericException> {
+        protected final Collector collector;
+        protected final SourcesManifest previous;
+
+        @Override
+        public SourcesManifest call() throws GenericException {
+            return FileCollector.manifest(collector.transfers, new File(collector.dir), previous, collector);
         }
+    }
 
-        public DataUploadTool(@NonNull final JenkinsAstJob jenkinsAstJob, @NonNull final String artifact, final byte[] data) {
+    protected static class SourcesUploader extends MasterToSlaveCallable<Void, GenericException> {
+        protected final Collector collector;
+        protected final UUID projectId;
+        /**
+         * Connection settings and JWT aren't serializable, so those are passed to build agent field by
+         * field. Agent-side client uses API version that controller already detected and its JWT, so
+         * PT AI server credentials never leave controller
+         */
+        protected final String url;
+        protected final String caCertsPem;
+        protected final boolean insecure;
+        protected final String clientClassName;
+        protected final String accessToken;
+        protected final String refreshToken;
+        protected final OffsetDateTime expiredAt;
+
+        public SourcesUploader(@NonNull final Collector collector, @NonNull final AbstractApiClient client, @NonNull final UUID projectId) throws GenericException {
+            this.collector = collector;
+            this.projectId = projectId;
+            ConnectionSettings connectionSettings = client.getConnectionSettings();
+            url = connectionSettings.getUrl();
+            caCertsPem = connectionSettings.getCaCertsPem();
+            insecure = connectionSettings.isInsecure();
+            clientClassName = ClientRegistry.get(client).getClientClass().getName();
+            Jwt jwt = client.getApiJwt();
+            if (null == jwt)
+                throw GenericException.raise("Remote sources upload failed", new IllegalStateException("API client isn't authenticated"));
+            accessToken = jwt.getAccessToken();
+            refreshToken = jwt.getRefreshToken();
+            expiredAt = jwt.getExpiredAt();
+        }
+
+        @Override
+        public Void call() throws GenericException {
+            // Agent has no credentials to authenticate with, so empty token is used
+            ConnectionSettings connectionSettings = ConnectionSettings.builder()
+                    .url(url)
+                    .credentials(TokenCredentials.builder().token("").build())
+                    .caCertsPem(caCertsPem)
+                    .insecure(insecure)
+                    .build();
+            AdvancedSettings advancedSettings = collector.getAdvancedSettings();
+            AbstractApiClient client = Factory.client(clientClassName, connectionSettings, advancedSettings, Jwt.builder()
+                    .accessToken(accessToken)
+                    .refreshToken(refreshToken)
+                    .expiredAt(expiredAt)
+                    .build());
+            client.setConsole(collector);
+            GenericAstTasks genericAstTasks = new Factory().genericAstTasks(client);
+            if (advancedSettings.getBoolean(AdvancedSettings.SettingInfo.UPLOAD_STREAMING)) {
+                long bufferSize = advancedSettings.getInt(AdvancedSettings.SettingInfo.UPLOAD_STREAMING_BUFFER_SIZE);
+                genericAstTasks.upload(projectId, new ZipStreamBody(
+                        output -> FileCollector.collect(collector.transfers, new File(collector.dir), output, collector),
+                        bufferSize));
+            } else {
+                File sources = collector.execute();
+                try {
+                    genericAstTasks.upload(projectId, sources);
+                } finally {
+                    if (!sources.delete()) collector.warning("File %s delete failed", sources.getName());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Build agent side of artifact transfer: unpacks data that controller writes to pipe directly to artifact file
+     */
+    @ToString(callSuper = true)
+    protected static class StreamUploadTool extends RemoteAbstractTool implements Executor, Serializable {
+        public StreamUploadTool(@NonNull final JenkinsAstJob jenkinsAstJob, @NonNull final String artifact, @NonNull final Pipe pipe) {
             super(jenkinsAstJob);
-            log.trace("Create binary report saver for {} artifact in {} folder", artifact, jenkinsAstJob.getWorkspace().getRemote());
+            log.trace("Create streaming report saver for {} artifact in {} folder", artifact, jenkinsAstJob.getWorkspace().getRemote());
             this.dir = jenkinsAstJob.getWorkspace().getRemote();
             this.artifact = artifact;
-            this.data = (null == data) ? new byte[0] : Arrays.copyOf(data, data.length);
+            this.pipe = pipe;
         }
 
         protected final String dir;
         protected final String artifact;
 
         @ToString.Exclude
-        private final byte[] data;
+        private final Pipe pipe;
 
         public File execute() throws GenericException {
-            try {
-                Path destination;
-                if (null != dir && null != artifact) {
-                    destination = Paths.get(dir).resolve(AbstractJob.DEFAULT_OUTPUT_FOLDER).resolve(artifact);
-                    check(destination);
-                } else
-                    destination = TempFile.createFile().toPath();
-                log.trace("Destination file path: {}", destination);
-
-                log.trace("In-memory data will be saved to {} file", destination);
-                return Files.write(
-                        destination,
-                        data,
-                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING).toFile();
+            Path destination = Paths.get(dir).resolve(AbstractJob.DEFAULT_OUTPUT_FOLDER).resolve(artifact);
+            log.trace("Destination file path: {}", destination);
+            // Pipe is closed even if destination check fails, so controller side doesn't block on write
+            try (InputStream in = pipe.getIn()) {
+                check(destination);
+                try (
+                        InflaterInputStream is = new InflaterInputStream(in);
+                        OutputStream os = Files.newOutputStream(destination)) {
+                    IOUtils.copyLarge(is, os);
+                }
+                fine("Artifact %s file saved", artifact);
+                return destination.toFile();
             } catch (IOException e) {
                 throw GenericException.raise("Report file save failed", e);
             }
@@ -284,79 +351,4 @@ public class RemoteFileUtils extends MasterToSlaveCallable<FilePath, GenericExce
             }, "Destination file check failed");
         }
     }
-
-    @ToString(callSuper = true)
-    protected static class UploadedDataMergeTool extends RemoteAbstractTool implements Executor, Serializable {
-        public UploadedDataMergeTool(@NonNull final JenkinsAstJob jenkinsAstJob, @NonNull final String artifact, @NonNull final List<FilePath> parts) {
-            super(jenkinsAstJob);
-            this.dir = jenkinsAstJob.getWorkspace().getRemote();
-            this.artifact = artifact;
-            this.parts = parts;
-        }
-        protected final String dir;
-        protected final String artifact;
-
-        @ToString.Exclude
-        private final List<FilePath> parts;
-
-        public File execute() throws GenericException {
-            try (TempFile archive = TempFile.createFile()) {
-                CallHelper.call(() -> {
-                    try (FileOutputStream os = new FileOutputStream(archive.toFile())) {
-                        log.trace("Merge parts into {} archive", archive);
-                        int percent = 0;
-                        int currentFile = 0;
-                        for (FilePath part : parts) {
-                            log.trace("Start copy {} part file data", part.getName());
-                            IOUtils.copy(part.read(), os);
-                            currentFile++;
-                            int currentPercent = Math.round(100f * currentFile / parts.size());
-                            if (percent != currentPercent) {
-                                percent = currentPercent;
-                                fine("Chunk files merge %s%%", currentPercent);
-                            }
-                            log.trace("Delete {} part file data", part.getName());
-                            part.delete();
-                        }
-                    }
-                }, "File parts merge failed");
-
-                Path destination = Paths.get(dir).resolve(AbstractJob.DEFAULT_OUTPUT_FOLDER).resolve(artifact);
-                log.trace("Destination file path: {}", destination);
-                DataUploadTool.check(destination);
-
-                log.trace("Unpack {} file as {} / {} artifact ", archive, dir, artifact);
-                try (
-                        FileInputStream fis = new FileInputStream(archive.toFile());
-                        ZipArchiveInputStream inputStream = new ZipArchiveInputStream(fis)) {
-                    ZipArchiveEntry entry = CallHelper.call(inputStream::getNextZipEntry, "Packed file entry enumeration failed");
-                    if (null == entry) {
-                        log.error("No entries in {} file", archive);
-                        throw GenericException.raise("No entries in archive", new IllegalArgumentException());
-                    }
-                    if (entry.isDirectory()) {
-                        log.error("Invalid entry type in {} file", archive);
-                        throw GenericException.raise("Invalid archive entry type", new IllegalArgumentException());
-                    }
-                    if (!DATA_FILE_NAME.equals(entry.getName())) {
-                        log.error("Invalid entry name {} in {} file", entry.getName(), archive);
-                        throw GenericException.raise("Invalid archive entry name", new IllegalArgumentException());
-                    }
-                    byte[] buffer = new byte[1024];
-                    try (FileOutputStream fos = new FileOutputStream(destination.toFile())) {
-                        do {
-                            int dataRead = inputStream.read(buffer);
-                            if (-1 == dataRead || 0 == dataRead) break;
-                            fos.write(buffer, 0, dataRead);
-                        } while (true);
-                        fine("Artifact %s file saved", artifact);
-                    }
-                }
-                log.trace("File unpack finished");
-                return destination.toFile();
-            } catch (IOException e) {
-                throw GenericException.raise("Multipart data file save failed", e);
-            }
-        }
-    }
 }
@@ -0,0 +1,36 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.actions;
+
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanBriefDetailed;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+import com.ptsecurity.misc.tools.BaseTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test AST job build action scan brief storage")
+public class AstJobSingleResultTest extends BaseTest {
+    @Test
+    @DisplayName("Save and load compressed scan brief in build folder")
+    public void saveAndLoad(@TempDir final Path dir) {
+        assertNull(AstJobSingleResult.readScanBriefDetailed(dir.toFile()));
+
+        ScanBriefDetailed brief = TrendIndexTest.brief();
+        AstJobSingleResult.writeScanBriefDetailed(dir.toFile(), brief);
+        assertTrue(new File(dir.toFile(), AstJobSingleResult.SCAN_BRIEF_FILE_NAME).isFile());
+
+        ScanBriefDetailed loaded = AstJobSingleResult.readScanBriefDetailed(dir.toFile());
+        assertNotNull(loaded);
+        assertEquals(brief.getPolicyState(), loaded.getPolicyState());
+        assertEquals(brief.getStatistics().getScanDurationIso8601(), loaded.getStatistics().getScanDurationIso8601());
+        assertEquals(3, loaded.getDetails().getChartData().getBaseIssueDistributionData().size());
+        // Loaded brief aggregates are the same as saved one's
+        TrendIndex.Entry entry = TrendIndex.Entry.create(1, loaded);
+        assertEquals(TrendIndex.Entry.create(1, brief).getTotal(), entry.getTotal());
+        assertEquals(3, entry.getLevelNotDiscarded(BaseIssue.Level.HIGH));
+    }
+}
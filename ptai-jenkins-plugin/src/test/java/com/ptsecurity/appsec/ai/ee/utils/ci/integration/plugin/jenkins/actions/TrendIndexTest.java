@@ -0,0 +1,101 @@
+package com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.jenkins.actions;
+
+import com.ptsecurity.appsec.ai.ee.scan.progress.Stage;
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanBrief;
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanBriefDetailed;
+import com.ptsecurity.appsec.ai.ee.scan.result.ScanBriefDetailed.Details.ChartData.BaseIssueCount;
+import com.ptsecurity.appsec.ai.ee.scan.result.issue.types.BaseIssue;
+import com.ptsecurity.appsec.ai.ee.scan.settings.Policy;
+import com.ptsecurity.misc.tools.BaseTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test AST results trend index")
+public class TrendIndexTest extends BaseTest {
+    protected static ScanBriefDetailed brief() {
+        Map<Stage, String> stages = new HashMap<>();
+        stages.put(Stage.SCAN, "PT1M30S");
+        stages.put(Stage.ZIP, "PT0S");
+        stages.put(Stage.UPLOAD, "invalid");
+        // Builder requires server and project attributes that aren't aggregated
+        ScanBriefDetailed res = new ScanBriefDetailed();
+        res.setPolicyState(Policy.State.REJECTED);
+        res.setPerformance(ScanBriefDetailed.Performance.builder().stages(stages).build());
+        res.setDetails(ScanBriefDetailed.Details.builder()
+                        .chartData(ScanBriefDetailed.Details.ChartData.builder()
+                                .baseIssueDistributionData(Arrays.asList(
+                                        BaseIssueCount.builder()
+                                                .level(BaseIssue.Level.HIGH).clazz(BaseIssue.Type.VULNERABILITY)
+                                                .approvalState(BaseIssue.ApprovalState.APPROVAL).count(3L).build(),
+                                        BaseIssueCount.builder()
+                                                .level(BaseIssue.Level.HIGH).clazz(BaseIssue.Type.VULNERABILITY)
+                                                .approvalState(BaseIssue.ApprovalState.DISCARD).count(2L).build(),
+                                        // Group without count is treated as a single issue
+                                        BaseIssueCount.builder()
+                                                .level(BaseIssue.Level.LOW).clazz(BaseIssue.Type.WEAKNESS)
+                                                .approvalState(BaseIssue.ApprovalState.NONE).build()))
+                                .build())
+                        .build());
+        res.setStatistics(ScanBrief.Statistics.builder()
+                .scanDateIso8601("2026-10-18T10:00:00Z")
+                .scanDurationIso8601("PT2H3M4S")
+                .build());
+        return res;
+    }
+
+    @Test
+    @DisplayName("Aggregate scan brief issue groups")
+    public void create() {
+        TrendIndex.Entry entry = TrendIndex.Entry.create(5, brief());
+        assertEquals(5, entry.getBuildNumber());
+        assertEquals(Policy.State.REJECTED, entry.getPolicyState());
+        assertEquals(6, entry.getTotal());
+        assertEquals(5, entry.getLevel(BaseIssue.Level.HIGH));
+        assertEquals(1, entry.getLevel(BaseIssue.Level.LOW));
+        assertEquals(0, entry.getLevel(BaseIssue.Level.MEDIUM));
+        // Discarded issues are excluded
+        assertEquals(3, entry.getLevelNotDiscarded(BaseIssue.Level.HIGH));
+        assertEquals(1, entry.getLevelNotDiscarded(BaseIssue.Level.LOW));
+        assertEquals(2, entry.getApprovalState(BaseIssue.ApprovalState.DISCARD));
+        assertEquals(5, entry.getType(BaseIssue.Type.VULNERABILITY));
+        assertEquals(1, entry.getType(BaseIssue.Type.WEAKNESS));
+    }
+
+    @Test
+    @DisplayName("Parse scan and stage durations")
+    public void durations() {
+        TrendIndex.Entry entry = TrendIndex.Entry.create(1, brief());
+        assertEquals(2 * 3600 + 3 * 60 + 4, entry.getDuration());
+        assertEquals(90, entry.getStage(Stage.SCAN));
+        // Zero and unparseable durations aren't stored
+        assertFalse(entry.getStages().containsKey(Stage.ZIP));
+        assertFalse(entry.getStages().containsKey(Stage.UPLOAD));
+
+        ScanBriefDetailed brief = brief();
+        brief.setStatistics(null);
+        brief.setDetails(null);
+        entry = TrendIndex.Entry.create(1, brief);
+        assertEquals(0, entry.getDuration());
+        assertEquals(0, entry.getTotal());
+    }
+
+    @Test
+    @DisplayName("Replace build entry and keep entries sorted by build number")
+    public void put() {
+        TrendIndex.Data data = new TrendIndex.Data();
+        for (int buildNumber : new int[] { 2, 5, 1 })
+            data.put(TrendIndex.Entry.builder().buildNumber(buildNumber).total(buildNumber).build());
+        assertEquals(Arrays.asList(5, 2, 1), data.getBuilds().stream().map(TrendIndex.Entry::getBuildNumber).collect(Collectors.toList()));
+
+        data.put(TrendIndex.Entry.builder().buildNumber(2).total(20).build());
+        assertEquals(Arrays.asList(5, 2, 1), data.getBuilds().stream().map(TrendIndex.Entry::getBuildNumber).collect(Collectors.toList()));
+        assertEquals(20, data.getBuilds().get(1).getTotal());
+    }
+}
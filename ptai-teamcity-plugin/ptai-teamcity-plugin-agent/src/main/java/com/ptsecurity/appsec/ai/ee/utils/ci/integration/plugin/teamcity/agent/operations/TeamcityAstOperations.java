@@ -8,6 +8,8 @@ import com.ptsecurity.misc.tools.exceptions.GenericException;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.operations.AstOperations;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.plugin.teamcity.agent.TeamcityAstJob;
 import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.FileCollector;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.SourcesManifest;
+import com.ptsecurity.appsec.ai.ee.utils.ci.integration.utils.ZipStreamBody;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.SneakyThrows;
@@ -20,12 +22,17 @@ public class TeamcityAstOperations implements AstOperations {
     @NonNull
     protected final TeamcityAstJob owner;
 
-    @SneakyThrows
-    public File createZip() {
+    protected Transfers createTransfers() {
         Transfers transfers = new Transfers();
 
         for (Transfer transfer : owner.getTransfers())
             transfers.addTransfer(transfer);
+        return transfers;
+    }
+
+    @SneakyThrows
+    public File createZip() {
+        Transfers transfers = createTransfers();
 
         File zip = owner.getAgent().getBuildTempDirectory().toPath()
                 .resolve(owner.getAgent().getProjectName())
@@ -36,6 +43,17 @@ public class TeamcityAstOperations implements AstOperations {
         return zip;
     }
 
+    @Override
+    public ZipStreamBody.Writer createZipWriter() {
+        Transfers transfers = createTransfers();
+        return output -> FileCollector.collect(transfers, owner.getAgent().getCheckoutDirectory(), output, owner);
+    }
+
+    @Override
+    public SourcesManifest createManifest(final SourcesManifest previous) throws GenericException {
+        return FileCollector.manifest(createTransfers(), owner.getAgent().getCheckoutDirectory(), previous, owner);
+    }
+
     public void scanStartedCallback(@NonNull final UUID projectId, @NonNull UUID scanResultId) {
     }
 